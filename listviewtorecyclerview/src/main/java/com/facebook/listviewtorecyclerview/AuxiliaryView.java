@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * A header or footer of a {@link RecyclerViewProxy}: either a view given up front, or a
+ * {@link ScrollingViewProxy.ViewProvider} whose view is created on first use and can be released
+ * while it is not attached.
+ */
+final class AuxiliaryView {
+
+  private final ScrollingViewProxy.ViewProvider mProvider;
+  private View mView;
+
+  private AuxiliaryView(View view, ScrollingViewProxy.ViewProvider provider) {
+    mView = view;
+    mProvider = provider;
+  }
+
+  static AuxiliaryView of(View view) {
+    return new AuxiliaryView(view, null);
+  }
+
+  static AuxiliaryView of(ScrollingViewProxy.ViewProvider provider) {
+    return new AuxiliaryView(null, provider);
+  }
+
+  View getView(ViewGroup parent) {
+    if (mView == null) {
+      mView = mProvider.createView(parent);
+    }
+    return mView;
+  }
+
+  boolean isProvided() {
+    return mProvider != null;
+  }
+
+  /**
+   * @return whether this is the header or footer given as {@code view} or {@code provider}.
+   */
+  boolean isFor(View view, ScrollingViewProxy.ViewProvider provider) {
+    return mProvider != null ? mProvider == provider : mView == view;
+  }
+
+  /**
+   * Drops a provided view which has no parent, so that it can be garbage collected.
+   * @return the released view, or null if there was none to release.
+   */
+  View release() {
+    if (mProvider == null || mView == null || mView.getParent() != null) {
+      return null;
+    }
+    View view = mView;
+    mView = null;
+    return view;
+  }
+}
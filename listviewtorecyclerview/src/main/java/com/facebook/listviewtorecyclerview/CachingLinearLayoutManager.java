@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewParent;
+
+/**
+ * A vertical {@link LinearLayoutManager} that avoids re-measuring rows whose size is already known.
+ *
+ * Rows are only measured from scratch when their content or width changed:
+ * <ul>
+ *   <li>Rows of a {@link ScrollingViewProxy.FixedSizeAdapter} fixed size type are created with an
+ *   exact height, so only their content is measured.</li>
+ *   <li>Rows of a {@link ScrollingViewProxy.FingerprintAdapter} are looked up in a
+ *   {@link MeasurementCache} keyed by (stable id, view type, width). A row that was rebound to
+ *   content it was already measured with is not measured at all, and a row that was measured
+ *   before in another view is measured with its known height.</li>
+ * </ul>
+ *
+ * Use it in place of {@link LinearLayoutManager} for a {@link LinearRecyclerView} that is used
+ * inside of {@link RecyclerViewProxy}.
+ */
+public class CachingLinearLayoutManager extends LinearLayoutManager {
+
+  private final MeasurementCache mMeasurementCache = new MeasurementCache();
+  private final Rect mDecorInsets = new Rect();
+
+  public CachingLinearLayoutManager(Context context) {
+    super(context);
+  }
+
+  public CachingLinearLayoutManager(Context context, boolean reverseLayout) {
+    super(context, VERTICAL, reverseLayout);
+  }
+
+  /**
+   * Drops every cached measurement. Call this when something other than the content or the width
+   * of the rows changes their size, e.g. a font scale change.
+   */
+  public void invalidateMeasurementCache() {
+    mMeasurementCache.clear();
+  }
+
+  @Override
+  public void onAdapterChanged(RecyclerView.Adapter oldAdapter, RecyclerView.Adapter newAdapter) {
+    super.onAdapterChanged(oldAdapter, newAdapter);
+    mMeasurementCache.clear();
+  }
+
+  @Override
+  public void measureChildWithMargins(View child, int widthUsed, int heightUsed) {
+    LinearRecyclerViewAdapter.ViewHolder holder = getViewHolder(child);
+    if (holder == null || getOrientation() != VERTICAL || !holder.mHasBoundFingerprint) {
+      super.measureChildWithMargins(child, widthUsed, heightUsed);
+      return;
+    }
+
+    // Refreshes the decoration insets as super does, so decorations added or changed since the
+    // row was measured are applied even when the measurement is reused.
+    calculateItemDecorationsForChild(child, mDecorInsets);
+    int width = getWidth()
+        - getPaddingLeft()
+        - getPaddingRight()
+        - mDecorInsets.left
+        - mDecorInsets.right
+        - widthUsed;
+    if (!child.isLayoutRequested() && holder.isMeasuredForBoundItem(width)) {
+      return;
+    }
+
+    int viewType = holder.getItemViewType();
+    int cachedHeight =
+        mMeasurementCache.get(holder.mBoundItemId, viewType, width, holder.mBoundFingerprint);
+    if (cachedHeight == MeasurementCache.MISS) {
+      super.measureChildWithMargins(child, widthUsed, heightUsed);
+      mMeasurementCache.put(
+          holder.mBoundItemId,
+          viewType,
+          width,
+          holder.mBoundFingerprint,
+          child.getMeasuredHeight());
+    } else {
+      measureChildWithExactHeight(child, widthUsed, cachedHeight);
+    }
+    holder.onMeasuredForBoundItem(width);
+  }
+
+  private void measureChildWithExactHeight(View child, int widthUsed, int height) {
+    RecyclerView.LayoutParams params = (RecyclerView.LayoutParams) child.getLayoutParams();
+    int horizontalPadding = getPaddingLeft()
+        + getPaddingRight()
+        + params.leftMargin
+        + params.rightMargin
+        + getLeftDecorationWidth(child)
+        + getRightDecorationWidth(child)
+        + widthUsed;
+    int widthSpec = getChildMeasureSpec(
+        getWidth(),
+        getWidthMode(),
+        horizontalPadding,
+        params.width,
+        canScrollHorizontally());
+    int heightSpec = View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY);
+    child.measure(widthSpec, heightSpec);
+  }
+
+  private static LinearRecyclerViewAdapter.ViewHolder getViewHolder(View child) {
+    // LinearLayoutManager adds a child before measuring it, so the parent is always known here.
+    ViewParent parent = child.getParent();
+    if (!(parent instanceof RecyclerView)) {
+      return null;
+    }
+    RecyclerView.ViewHolder viewHolder = ((RecyclerView) parent).getChildViewHolder(child);
+    return viewHolder instanceof LinearRecyclerViewAdapter.ViewHolder
+        ? (LinearRecyclerViewAdapter.ViewHolder) viewHolder
+        : null;
+  }
+}
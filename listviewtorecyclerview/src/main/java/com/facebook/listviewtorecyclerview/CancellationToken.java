@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * A token handed to {@link ScrollingViewProxy.CancellableBindAdapter#startAsyncWork} for the
+ * background work of a single bind of a row.
+ *
+ * The token is cancelled as soon as the row's view stops showing the item it was bound to: when
+ * it is recycled, rebound, or when the list is detached from its window. Background work should
+ * stop once {@link #isCancelled()} returns true, and must check it on the main thread before
+ * writing its result into the view.
+ *
+ * This class is thread safe.
+ */
+public final class CancellationToken {
+
+  /**
+   * Callback invoked once when a token is cancelled, e.g. to abort an in-flight request.
+   */
+  public interface OnCancelListener {
+
+    void onCancel();
+  }
+
+  private static final int TAG_KEY = R.id.scrolling_view_proxy_cancellation_token;
+
+  private volatile boolean mCancelled;
+  private OnCancelListener mOnCancelListener;
+
+  CancellationToken() {
+  }
+
+  public boolean isCancelled() {
+    return mCancelled;
+  }
+
+  /**
+   * Sets the listener to invoke on cancellation. If the token is already cancelled, the listener
+   * is invoked immediately on the calling thread.
+   */
+  public void setOnCancelListener(OnCancelListener onCancelListener) {
+    synchronized (this) {
+      if (!mCancelled) {
+        mOnCancelListener = onCancelListener;
+        return;
+      }
+    }
+    if (onCancelListener != null) {
+      onCancelListener.onCancel();
+    }
+  }
+
+  void cancel() {
+    OnCancelListener onCancelListener;
+    synchronized (this) {
+      if (mCancelled) {
+        return;
+      }
+      mCancelled = true;
+      onCancelListener = mOnCancelListener;
+      mOnCancelListener = null;
+    }
+    if (onCancelListener != null) {
+      onCancelListener.onCancel();
+    }
+  }
+
+  /**
+   * @return the token of the bind currently shown by {@code view}, or null if it has none.
+   */
+  public static CancellationToken forView(View view) {
+    return (CancellationToken) view.getTag(TAG_KEY);
+  }
+
+  /**
+   * Cancels the token of the previous bind of {@code view}, if any, and attaches a new one.
+   */
+  static CancellationToken renew(View view) {
+    cancel(view);
+    CancellationToken token = new CancellationToken();
+    view.setTag(TAG_KEY, token);
+    return token;
+  }
+
+  static void cancel(View view) {
+    CancellationToken token = forView(view);
+    if (token != null) {
+      token.cancel();
+    }
+  }
+
+  static void cancelChildren(ViewGroup parent) {
+    for (int i = 0; i < parent.getChildCount(); i++) {
+      cancel(parent.getChildAt(i));
+    }
+  }
+
+  /**
+   * @return whether any child of {@code parent} lost its async work to a cancellation.
+   */
+  static boolean hasCancelledChild(ViewGroup parent) {
+    for (int i = 0; i < parent.getChildCount(); i++) {
+      CancellationToken token = forView(parent.getChildAt(i));
+      if (token != null && token.isCancelled()) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
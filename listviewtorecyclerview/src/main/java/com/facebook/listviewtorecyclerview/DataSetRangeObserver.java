@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.database.DataSetObserver;
+import android.support.v7.widget.RecyclerView;
+
+/**
+ * A {@link DataSetObserver} which can also be told which range of items changed, matching
+ * {@link RecyclerView.AdapterDataObserver}.
+ *
+ * Adapters notify range changes through a {@link RangeDataSetObservable}, which falls back to
+ * {@link #onChanged()} for plain DataSetObservers such as the one registered by a ListView. By
+ * default, every range callback also falls back to {@link #onChanged()}.
+ */
+public abstract class DataSetRangeObserver extends DataSetObserver {
+
+  public void onItemRangeChanged(int positionStart, int itemCount) {
+    onChanged();
+  }
+
+  public void onItemRangeInserted(int positionStart, int itemCount) {
+    onChanged();
+  }
+
+  public void onItemRangeRemoved(int positionStart, int itemCount) {
+    onChanged();
+  }
+
+  public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+    onChanged();
+  }
+}
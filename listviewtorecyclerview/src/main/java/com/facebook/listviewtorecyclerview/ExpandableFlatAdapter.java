@@ -0,0 +1,236 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.database.DataSetObserver;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ExpandableListView;
+
+import com.facebook.listviewtorecyclerview.ExpandableScrollingViewProxy.ExpandableAdapter;
+
+/**
+ * A {@link ScrollingViewProxy.Adapter} which flattens an {@link ExpandableAdapter} into a list of
+ * groups followed by the children of expanded groups.
+ *
+ * The size of each group's rows is kept in a {@link FenwickTree}, so mapping between flat and
+ * packed positions is O(log n), and expanding or collapsing a group only updates the tree and
+ * notifies the exact range of inserted or removed children.
+ */
+class ExpandableFlatAdapter extends ScrollingViewProxy.BaseAdapter
+    implements ScrollingViewProxy.RangeAdapter {
+
+  private final ExpandableAdapter mAdapter;
+  private final RangeDataSetObservable mObservable = new RangeDataSetObservable();
+  private final DataSetObserver mAdapterObserver = new DataSetObserver() {
+    @Override
+    public void onChanged() {
+      rebuild();
+      mObservable.notifyChanged();
+    }
+
+    @Override
+    public void onInvalidated() {
+      rebuild();
+      mObservable.notifyInvalidated();
+    }
+  };
+
+  private boolean[] mExpandedGroups = new boolean[0];
+  private FenwickTree mGroupSizes;
+  private int mObserverCount;
+
+  ExpandableFlatAdapter(ExpandableAdapter adapter) {
+    mAdapter = adapter;
+    rebuild();
+  }
+
+  boolean expandGroup(int groupPosition) {
+    if (mExpandedGroups[groupPosition]) {
+      return false;
+    }
+    mExpandedGroups[groupPosition] = true;
+    int childrenCount = mAdapter.getChildrenCount(groupPosition);
+    mGroupSizes.add(groupPosition, childrenCount);
+
+    int groupFlatPosition = mGroupSizes.prefixSum(groupPosition);
+    mObservable.notifyItemRangeChanged(groupFlatPosition, 1);
+    if (childrenCount > 0) {
+      mObservable.notifyItemRangeInserted(groupFlatPosition + 1, childrenCount);
+    }
+    return true;
+  }
+
+  boolean collapseGroup(int groupPosition) {
+    if (!mExpandedGroups[groupPosition]) {
+      return false;
+    }
+    mExpandedGroups[groupPosition] = false;
+    int childrenCount = mGroupSizes.get(groupPosition) - 1;
+    mGroupSizes.add(groupPosition, -childrenCount);
+
+    int groupFlatPosition = mGroupSizes.prefixSum(groupPosition);
+    mObservable.notifyItemRangeChanged(groupFlatPosition, 1);
+    if (childrenCount > 0) {
+      mObservable.notifyItemRangeRemoved(groupFlatPosition + 1, childrenCount);
+    }
+    return true;
+  }
+
+  boolean isGroupExpanded(int groupPosition) {
+    return mExpandedGroups[groupPosition];
+  }
+
+  /**
+   * @return the packed position of the group or child at {@code flatPosition}.
+   */
+  long getPackedPosition(int flatPosition) {
+    int groupPosition = mGroupSizes.indexOf(flatPosition);
+    int childPosition = flatPosition - mGroupSizes.prefixSum(groupPosition) - 1;
+    return childPosition < 0
+        ? ExpandableListView.getPackedPositionForGroup(groupPosition)
+        : ExpandableListView.getPackedPositionForChild(groupPosition, childPosition);
+  }
+
+  /**
+   * @return the flat position of a packed position, or -1 if it is the child of a collapsed group.
+   */
+  int getFlatPosition(long packedPosition) {
+    int groupPosition = ExpandableListView.getPackedPositionGroup(packedPosition);
+    int groupFlatPosition = mGroupSizes.prefixSum(groupPosition);
+    if (ExpandableListView.getPackedPositionType(packedPosition)
+        != ExpandableListView.PACKED_POSITION_TYPE_CHILD) {
+      return groupFlatPosition;
+    }
+    if (!mExpandedGroups[groupPosition]) {
+      return -1;
+    }
+    return groupFlatPosition + 1 + ExpandableListView.getPackedPositionChild(packedPosition);
+  }
+
+  @Override
+  public View createView(int itemViewType, ViewGroup parent) {
+    int groupTypeCount = mAdapter.getGroupTypeCount();
+    return itemViewType < groupTypeCount
+        ? mAdapter.createGroupView(itemViewType, parent)
+        : mAdapter.createChildView(itemViewType - groupTypeCount, parent);
+  }
+
+  @Override
+  public void bindView(
+      int position, Object item, View view, int itemViewType, ViewGroup parent) {
+    int groupPosition = mGroupSizes.indexOf(position);
+    int childPosition = position - mGroupSizes.prefixSum(groupPosition) - 1;
+    if (childPosition < 0) {
+      mAdapter.bindGroupView(
+          groupPosition, mExpandedGroups[groupPosition], item, view, parent);
+    } else {
+      boolean isLastChild = childPosition == mGroupSizes.get(groupPosition) - 2;
+      mAdapter.bindChildView(groupPosition, childPosition, isLastChild, item, view, parent);
+    }
+  }
+
+  @Override
+  public boolean areAllItemsEnabled() {
+    return true;
+  }
+
+  @Override
+  public boolean isEnabled(int position) {
+    return true;
+  }
+
+  @Override
+  public void registerDataSetObserver(DataSetObserver observer) {
+    mObservable.registerObserver(observer);
+    if (mObserverCount++ == 0) {
+      // Changes were not observed until now, so the groups may be stale.
+      rebuild();
+      mAdapter.registerDataSetObserver(mAdapterObserver);
+    }
+  }
+
+  @Override
+  public void unregisterDataSetObserver(DataSetObserver observer) {
+    mObservable.unregisterObserver(observer);
+    if (--mObserverCount == 0) {
+      mAdapter.unregisterDataSetObserver(mAdapterObserver);
+    }
+  }
+
+  @Override
+  public int getCount() {
+    return mGroupSizes.total();
+  }
+
+  @Override
+  public Object getItem(int position) {
+    int groupPosition = mGroupSizes.indexOf(position);
+    int childPosition = position - mGroupSizes.prefixSum(groupPosition) - 1;
+    return childPosition < 0
+        ? mAdapter.getGroup(groupPosition)
+        : mAdapter.getChild(groupPosition, childPosition);
+  }
+
+  /**
+   * Combines group and child ids like {@link android.widget.BaseExpandableListAdapter} does, so
+   * that group and child ids never collide.
+   */
+  @Override
+  public long getItemId(int position) {
+    int groupPosition = mGroupSizes.indexOf(position);
+    int childPosition = position - mGroupSizes.prefixSum(groupPosition) - 1;
+    long groupId = mAdapter.getGroupId(groupPosition);
+    if (childPosition < 0) {
+      return (groupId & 0x7FFFFFFFL) << 32;
+    }
+    long childId = mAdapter.getChildId(groupPosition, childPosition);
+    return 0x8000000000000000L | ((groupId & 0x7FFFFFFFL) << 32) | (childId & 0xFFFFFFFFL);
+  }
+
+  @Override
+  public boolean hasStableIds() {
+    return mAdapter.hasStableIds();
+  }
+
+  @Override
+  public int getItemViewType(int position) {
+    int groupPosition = mGroupSizes.indexOf(position);
+    int childPosition = position - mGroupSizes.prefixSum(groupPosition) - 1;
+    return childPosition < 0
+        ? mAdapter.getGroupType(groupPosition)
+        : mAdapter.getGroupTypeCount() + mAdapter.getChildType(groupPosition, childPosition);
+  }
+
+  @Override
+  public int getViewTypeCount() {
+    return mAdapter.getGroupTypeCount() + mAdapter.getChildTypeCount();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return mAdapter.getGroupCount() == 0;
+  }
+
+  /**
+   * Rebuilds the group sizes from scratch, keeping groups expanded by position.
+   */
+  private void rebuild() {
+    int groupCount = mAdapter.getGroupCount();
+    boolean[] expandedGroups = new boolean[groupCount];
+    System.arraycopy(
+        mExpandedGroups, 0, expandedGroups, 0, Math.min(groupCount, mExpandedGroups.length));
+    int[] groupSizes = new int[groupCount];
+    for (int i = 0; i < groupCount; i++) {
+      groupSizes[i] = 1 + (expandedGroups[i] ? mAdapter.getChildrenCount(i) : 0);
+    }
+    mExpandedGroups = expandedGroups;
+    mGroupSizes = new FenwickTree(groupSizes, groupCount);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.support.v7.widget.RecyclerView;
+import android.widget.ExpandableListView;
+
+/**
+ * Implementation of {@link ExpandableScrollingViewProxy} for a {@link RecyclerView}.
+ *
+ * Expanding or collapsing a group notifies the RecyclerView of the exact range of children that
+ * were inserted or removed, so the rest of the list is neither rebuilt nor rebound.
+ *
+ * @see ExpandableScrollingViewProxy for more information.
+ */
+public class ExpandableRecyclerViewProxy extends RecyclerViewProxy
+    implements ExpandableScrollingViewProxy {
+
+  private ExpandableAdapter mExpandableAdapter;
+  private ExpandableFlatAdapter mFlatAdapter;
+
+  public ExpandableRecyclerViewProxy(LinearRecyclerView recyclerView) {
+    super(recyclerView);
+  }
+
+  @Override
+  public void setExpandableAdapter(ExpandableAdapter adapter) {
+    mExpandableAdapter = adapter;
+    mFlatAdapter = adapter != null ? new ExpandableFlatAdapter(adapter) : null;
+    setAdapter(mFlatAdapter);
+  }
+
+  @Override
+  public ExpandableAdapter getExpandableAdapter() {
+    return mExpandableAdapter;
+  }
+
+  @Override
+  public boolean expandGroup(int groupPosition) {
+    return mFlatAdapter != null && mFlatAdapter.expandGroup(groupPosition);
+  }
+
+  @Override
+  public boolean collapseGroup(int groupPosition) {
+    return mFlatAdapter != null && mFlatAdapter.collapseGroup(groupPosition);
+  }
+
+  @Override
+  public boolean isGroupExpanded(int groupPosition) {
+    return mFlatAdapter != null && mFlatAdapter.isGroupExpanded(groupPosition);
+  }
+
+  @Override
+  public long getExpandableListPosition(int flatListPosition) {
+    int adjustedPosition = flatListPosition - getHeaderViewsCount();
+    if (mFlatAdapter == null
+        || adjustedPosition < 0
+        || adjustedPosition >= mFlatAdapter.getCount()) {
+      return ExpandableListView.PACKED_POSITION_VALUE_NULL;
+    }
+    return mFlatAdapter.getPackedPosition(adjustedPosition);
+  }
+
+  @Override
+  public int getFlatListPosition(long packedPosition) {
+    if (mFlatAdapter == null) {
+      return RecyclerView.NO_POSITION;
+    }
+    int adjustedPosition = mFlatAdapter.getFlatPosition(packedPosition);
+    return adjustedPosition < 0
+        ? RecyclerView.NO_POSITION
+        : adjustedPosition + getHeaderViewsCount();
+  }
+}
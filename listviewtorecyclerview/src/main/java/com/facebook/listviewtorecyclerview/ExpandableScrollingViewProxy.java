@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.database.DataSetObserver;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ExpandableListAdapter;
+import android.widget.ExpandableListView;
+
+/**
+ * A {@link ScrollingViewProxy} for screens that used an {@link ExpandableListView}.
+ *
+ * Positions passed to and returned from the ScrollingViewProxy methods are flat list positions,
+ * and the methods specific to this interface match those of ExpandableListView. Packed positions
+ * are built and read with the static helpers of ExpandableListView, such as
+ * {@link ExpandableListView#getPackedPositionForChild(int, int)}.
+ */
+public interface ExpandableScrollingViewProxy extends ScrollingViewProxy {
+
+  /**
+   * The expandable counterpart of {@link ScrollingViewProxy.Adapter}. It breaks up calls to
+   * {@link ExpandableListAdapter#getGroupView} and {@link ExpandableListAdapter#getChildView}
+   * into create and bind callbacks.
+   */
+  interface ExpandableAdapter {
+
+    int getGroupCount();
+
+    int getChildrenCount(int groupPosition);
+
+    Object getGroup(int groupPosition);
+
+    Object getChild(int groupPosition, int childPosition);
+
+    long getGroupId(int groupPosition);
+
+    long getChildId(int groupPosition, int childPosition);
+
+    boolean hasStableIds();
+
+    /**
+     * @return the type of the group view, in [0, {@link #getGroupTypeCount()}).
+     */
+    int getGroupType(int groupPosition);
+
+    int getGroupTypeCount();
+
+    /**
+     * @return the type of the child view, in [0, {@link #getChildTypeCount()}).
+     */
+    int getChildType(int groupPosition, int childPosition);
+
+    int getChildTypeCount();
+
+    View createGroupView(int groupType, ViewGroup parent);
+
+    void bindGroupView(
+        int groupPosition, boolean isExpanded, Object group, View view, ViewGroup parent);
+
+    View createChildView(int childType, ViewGroup parent);
+
+    void bindChildView(
+        int groupPosition,
+        int childPosition,
+        boolean isLastChild,
+        Object child,
+        View view,
+        ViewGroup parent);
+
+    /**
+     * Registers an observer of structural changes of the groups or their children. Changes make
+     * the whole flattened list be rebuilt, expanding and collapsing groups does not.
+     */
+    void registerDataSetObserver(DataSetObserver observer);
+
+    void unregisterDataSetObserver(DataSetObserver observer);
+  }
+
+  void setExpandableAdapter(ExpandableAdapter adapter);
+
+  ExpandableAdapter getExpandableAdapter();
+
+  /**
+   * @return true if the group was collapsed and is now expanded.
+   */
+  boolean expandGroup(int groupPosition);
+
+  /**
+   * @return true if the group was expanded and is now collapsed.
+   */
+  boolean collapseGroup(int groupPosition);
+
+  boolean isGroupExpanded(int groupPosition);
+
+  /**
+   * @return the packed position of the group or child at {@code flatListPosition}, or
+   * {@link ExpandableListView#PACKED_POSITION_VALUE_NULL} for headers and footers.
+   */
+  long getExpandableListPosition(int flatListPosition);
+
+  /**
+   * @return the flat list position of a packed group or child position.
+   */
+  int getFlatListPosition(long packedPosition);
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+/**
+ * A binary indexed tree over a fixed number of non-negative sizes. Updating a size, computing the
+ * sum of the sizes before an index, and finding which index contains a position are all O(log n).
+ */
+final class FenwickTree {
+
+  private final int[] mTree;
+  private final int mSize;
+
+  /**
+   * Builds the tree in O(n).
+   */
+  FenwickTree(int[] sizes, int count) {
+    mSize = count;
+    mTree = new int[count + 1];
+    for (int i = 1; i <= count; i++) {
+      mTree[i] += sizes[i - 1];
+      int parent = i + (i & -i);
+      if (parent <= count) {
+        mTree[parent] += mTree[i];
+      }
+    }
+  }
+
+  int size() {
+    return mSize;
+  }
+
+  void add(int index, int delta) {
+    for (int i = index + 1; i <= mSize; i += i & -i) {
+      mTree[i] += delta;
+    }
+  }
+
+  /**
+   * @return the sum of the sizes at indices [0, index).
+   */
+  int prefixSum(int index) {
+    int sum = 0;
+    for (int i = index; i > 0; i -= i & -i) {
+      sum += mTree[i];
+    }
+    return sum;
+  }
+
+  int total() {
+    return prefixSum(mSize);
+  }
+
+  int get(int index) {
+    return prefixSum(index + 1) - prefixSum(index);
+  }
+
+  /**
+   * @return the index whose range contains {@code position}, i.e. the index such that
+   * {@code prefixSum(index) <= position < prefixSum(index + 1)}.
+   */
+  int indexOf(int position) {
+    int index = 0;
+    int remaining = position;
+    for (int step = Integer.highestOneBit(Math.max(mSize, 1)); step > 0; step >>= 1) {
+      int next = index + step;
+      if (next <= mSize && mTree[next] <= remaining) {
+        index = next;
+        remaining -= mTree[next];
+      }
+    }
+    return index;
+  }
+}
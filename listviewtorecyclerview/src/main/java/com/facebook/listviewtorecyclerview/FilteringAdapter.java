@@ -0,0 +1,329 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.database.DataSetObserver;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link ScrollingViewProxy.Adapter} which shows the items of another adapter that match a
+ * constraint, such as a search-as-you-type query.
+ *
+ * {@link #filter(CharSequence)} runs on a background executor. A filter which is overtaken by a
+ * newer constraint stops early and its result is dropped. When the new constraint extends the one
+ * currently shown, only the items currently shown are tested again. Results are published on the
+ * main thread as ranges of inserted and removed items, so unchanged rows are neither rebound nor
+ * moved.
+ *
+ * Changes of the source adapter are filtered on the thread that notifies them, since the
+ * positions shown must stay valid in the source.
+ */
+public class FilteringAdapter extends ScrollingViewProxy.BaseAdapter
+    implements ScrollingViewProxy.RangeAdapter {
+
+  /**
+   * Tests items against a constraint. It is called from a background thread.
+   *
+   * Matching must be monotonic: an item that matches a constraint must also match every prefix of
+   * that constraint, as substring and prefix matching do.
+   */
+  public interface ItemFilter {
+
+    boolean matches(Object item, CharSequence constraint);
+  }
+
+  private static final int CANCELLATION_CHECK_INTERVAL = 256;
+
+  private final ScrollingViewProxy.Adapter mSource;
+  private final ItemFilter mItemFilter;
+  private final Executor mExecutor;
+  private final Executor mMainThreadExecutor;
+  private final AtomicInteger mGeneration = new AtomicInteger();
+  private final RangeDataSetObservable mObservable = new RangeDataSetObservable();
+  private final DataSetObserver mSourceObserver = new DataSetObserver() {
+    @Override
+    public void onChanged() {
+      mSourceItems = null;
+      refilterNow();
+      mObservable.notifyChanged();
+    }
+
+    @Override
+    public void onInvalidated() {
+      mSourceItems = null;
+      refilterNow();
+      mObservable.notifyInvalidated();
+    }
+  };
+
+  private Object[] mSourceItems;
+  private int[] mPositions;
+  private int mCount;
+  private String mConstraint = "";
+  private String mRequestedConstraint = "";
+  private int mObserverCount;
+
+  public FilteringAdapter(ScrollingViewProxy.Adapter source, ItemFilter itemFilter) {
+    this(source, itemFilter, AsyncTask.THREAD_POOL_EXECUTOR, createMainThreadExecutor());
+  }
+
+  FilteringAdapter(
+      ScrollingViewProxy.Adapter source,
+      ItemFilter itemFilter,
+      Executor executor,
+      Executor mainThreadExecutor) {
+    mSource = source;
+    mItemFilter = itemFilter;
+    mExecutor = executor;
+    mMainThreadExecutor = mainThreadExecutor;
+    refilterNow();
+  }
+
+  /**
+   * Starts filtering the source with {@code constraint}, cancelling any filter in progress.
+   * Must be called on the main thread. A null or empty constraint shows every item.
+   */
+  public void filter(CharSequence constraint) {
+    final String newConstraint = constraint != null ? constraint.toString() : "";
+    mRequestedConstraint = newConstraint;
+    final int generation = mGeneration.incrementAndGet();
+    final Object[] items = getSourceItems();
+    final int[] basePositions;
+    final int baseCount;
+    if (newConstraint.startsWith(mConstraint)) {
+      basePositions = mPositions;
+      baseCount = mCount;
+    } else {
+      basePositions = null;
+      baseCount = items.length;
+    }
+
+    mExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        final int[] positions = new int[baseCount];
+        final int count =
+            filterItems(items, basePositions, baseCount, newConstraint, positions, generation);
+        if (count < 0) {
+          return;
+        }
+        mMainThreadExecutor.execute(new Runnable() {
+          @Override
+          public void run() {
+            if (mGeneration.get() == generation) {
+              publish(newConstraint, positions, count);
+            }
+          }
+        });
+      }
+    });
+  }
+
+  /**
+   * @return the constraint of the items currently shown.
+   */
+  public CharSequence getConstraint() {
+    return mConstraint;
+  }
+
+  /**
+   * @return the position in the source adapter of the item at {@code position}.
+   */
+  public int getSourcePosition(int position) {
+    return mPositions[position];
+  }
+
+  @Override
+  public View getView(int position, View convertView, ViewGroup parent) {
+    return mSource.getView(mPositions[position], convertView, parent);
+  }
+
+  @Override
+  public View createView(int itemViewType, ViewGroup parent) {
+    return mSource.createView(itemViewType, parent);
+  }
+
+  @Override
+  public void bindView(
+      int position, Object item, View view, int itemViewType, ViewGroup parent) {
+    mSource.bindView(mPositions[position], item, view, itemViewType, parent);
+  }
+
+  @Override
+  public boolean areAllItemsEnabled() {
+    return mSource.areAllItemsEnabled();
+  }
+
+  @Override
+  public boolean isEnabled(int position) {
+    return mSource.isEnabled(mPositions[position]);
+  }
+
+  @Override
+  public void registerDataSetObserver(DataSetObserver observer) {
+    mObservable.registerObserver(observer);
+    if (mObserverCount++ == 0) {
+      // Changes were not observed until now, so the result may be stale.
+      mSourceItems = null;
+      refilterNow();
+      mSource.registerDataSetObserver(mSourceObserver);
+    }
+  }
+
+  @Override
+  public void unregisterDataSetObserver(DataSetObserver observer) {
+    mObservable.unregisterObserver(observer);
+    if (--mObserverCount == 0) {
+      mSource.unregisterDataSetObserver(mSourceObserver);
+    }
+  }
+
+  @Override
+  public int getCount() {
+    return mCount;
+  }
+
+  @Override
+  public Object getItem(int position) {
+    return mSource.getItem(mPositions[position]);
+  }
+
+  @Override
+  public long getItemId(int position) {
+    return mSource.getItemId(mPositions[position]);
+  }
+
+  @Override
+  public boolean hasStableIds() {
+    return mSource.hasStableIds();
+  }
+
+  @Override
+  public int getItemViewType(int position) {
+    return mSource.getItemViewType(mPositions[position]);
+  }
+
+  @Override
+  public int getViewTypeCount() {
+    return mSource.getViewTypeCount();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return mCount == 0;
+  }
+
+  private Object[] getSourceItems() {
+    if (mSourceItems == null) {
+      int count = mSource.getCount();
+      Object[] items = new Object[count];
+      for (int i = 0; i < count; i++) {
+        items[i] = mSource.getItem(i);
+      }
+      mSourceItems = items;
+    }
+    return mSourceItems;
+  }
+
+  /**
+   * Filters the whole source with the latest constraint, replacing any filter in progress.
+   */
+  private void refilterNow() {
+    int generation = mGeneration.incrementAndGet();
+    Object[] items = getSourceItems();
+    int[] positions = new int[items.length];
+    mCount = filterItems(items, null, items.length, mRequestedConstraint, positions, generation);
+    mPositions = positions;
+    mConstraint = mRequestedConstraint;
+  }
+
+  /**
+   * Tests the items at {@code basePositions}, or every item if it is null, and writes the
+   * positions of the matching ones to {@code outPositions}.
+   *
+   * @return the number of matching items, or -1 if the filter was overtaken by a newer one.
+   */
+  private int filterItems(
+      Object[] items,
+      int[] basePositions,
+      int baseCount,
+      String constraint,
+      int[] outPositions,
+      int generation) {
+    int count = 0;
+    for (int i = 0; i < baseCount; i++) {
+      if (i % CANCELLATION_CHECK_INTERVAL == 0 && mGeneration.get() != generation) {
+        return -1;
+      }
+      int position = basePositions != null ? basePositions[i] : i;
+      if (constraint.isEmpty() || mItemFilter.matches(items[position], constraint)) {
+        outPositions[count++] = position;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Swaps in a new result and notifies the ranges of removed and inserted items. Both results
+   * are sorted by source position, so one merge pass finds every range.
+   */
+  private void publish(String constraint, int[] positions, int count) {
+    int[] oldPositions = mPositions;
+    int oldCount = mCount;
+    mConstraint = constraint;
+    mPositions = positions;
+    mCount = count;
+
+    int oldIndex = 0;
+    int newIndex = 0;
+    while (oldIndex < oldCount || newIndex < count) {
+      if (oldIndex < oldCount
+          && newIndex < count
+          && oldPositions[oldIndex] == positions[newIndex]) {
+        oldIndex++;
+        newIndex++;
+        continue;
+      }
+      int removedCount = 0;
+      while (oldIndex < oldCount
+          && (newIndex == count || oldPositions[oldIndex] < positions[newIndex])) {
+        oldIndex++;
+        removedCount++;
+      }
+      if (removedCount > 0) {
+        mObservable.notifyItemRangeRemoved(newIndex, removedCount);
+      }
+      int insertedStart = newIndex;
+      while (newIndex < count
+          && (oldIndex == oldCount || positions[newIndex] < oldPositions[oldIndex])) {
+        newIndex++;
+      }
+      if (newIndex > insertedStart) {
+        mObservable.notifyItemRangeInserted(insertedStart, newIndex - insertedStart);
+      }
+    }
+  }
+
+  private static Executor createMainThreadExecutor() {
+    final Handler handler = new Handler(Looper.getMainLooper());
+    return new Executor() {
+      @Override
+      public void execute(Runnable runnable) {
+        handler.post(runnable);
+      }
+    };
+  }
+}
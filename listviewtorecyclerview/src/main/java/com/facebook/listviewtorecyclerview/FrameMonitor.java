@@ -0,0 +1,274 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Opt-in counters of janky and frozen frames of a {@link ScrollingViewProxy}, split by scroll
+ * state. Attach one per screen with {@link ScrollingViewProxy#setFrameMonitor(FrameMonitor)}.
+ *
+ * Frame intervals are measured with {@link Choreographer} frame callbacks, which only run while
+ * the list is scrolling unless {@link #setMonitorIdleFrames(boolean)} is set. A frame is janky
+ * when it took more than one and a half refresh periods, and frozen when it took more than
+ * {@link #FROZEN_FRAME_MILLIS}. Views created and bound by a {@link RecyclerViewProxy} during a
+ * frame are counted with it, so the time spent in janky frames can be traced to adapter work.
+ *
+ * Counters are updated on the main thread without locks or allocations, and can be read from any
+ * thread with {@link #getSnapshot()}. Frames are not measured before Jelly Bean.
+ */
+public class FrameMonitor {
+
+  public static final long FROZEN_FRAME_MILLIS = 700;
+
+  private static final float DEFAULT_REFRESH_RATE = 60f;
+  private static final int SCROLL_STATE_COUNT = 3;
+
+  static final int FRAMES = 0;
+  static final int JANKY_FRAMES = 1;
+  static final int FROZEN_FRAMES = 2;
+  static final int CREATES = 3;
+  static final int CREATE_NANOS = 4;
+  static final int BINDS = 5;
+  static final int BIND_NANOS = 6;
+  static final int JANKY_FRAME_CREATES = 7;
+  static final int JANKY_FRAME_CREATE_NANOS = 8;
+  static final int JANKY_FRAME_BINDS = 9;
+  static final int JANKY_FRAME_BIND_NANOS = 10;
+  private static final int COUNTER_COUNT = 11;
+
+  /**
+   * An immutable copy of the counters at the time it was taken. Scroll states are those of
+   * {@link ScrollingViewProxy.OnScrollListener}.
+   */
+  public static class Snapshot {
+
+    private final long[] mCounters;
+
+    private Snapshot(long[] counters) {
+      mCounters = counters;
+    }
+
+    /** @return how many frames were measured in this scroll state. */
+    public long getFrames(int scrollState) {
+      return get(scrollState, FRAMES);
+    }
+
+    /** @return how many frames took more than one and a half refresh periods. */
+    public long getJankyFrames(int scrollState) {
+      return get(scrollState, JANKY_FRAMES);
+    }
+
+    /** @return how many frames took more than {@link #FROZEN_FRAME_MILLIS}. */
+    public long getFrozenFrames(int scrollState) {
+      return get(scrollState, FROZEN_FRAMES);
+    }
+
+    /** @return how many views were created in this scroll state. */
+    public long getCreates(int scrollState) {
+      return get(scrollState, CREATES);
+    }
+
+    public long getCreateNanos(int scrollState) {
+      return get(scrollState, CREATE_NANOS);
+    }
+
+    /** @return how many views were bound in this scroll state. */
+    public long getBinds(int scrollState) {
+      return get(scrollState, BINDS);
+    }
+
+    public long getBindNanos(int scrollState) {
+      return get(scrollState, BIND_NANOS);
+    }
+
+    /** @return how many views were created during janky frames. */
+    public long getJankyFrameCreates(int scrollState) {
+      return get(scrollState, JANKY_FRAME_CREATES);
+    }
+
+    public long getJankyFrameCreateNanos(int scrollState) {
+      return get(scrollState, JANKY_FRAME_CREATE_NANOS);
+    }
+
+    /** @return how many views were bound during janky frames. */
+    public long getJankyFrameBinds(int scrollState) {
+      return get(scrollState, JANKY_FRAME_BINDS);
+    }
+
+    public long getJankyFrameBindNanos(int scrollState) {
+      return get(scrollState, JANKY_FRAME_BIND_NANOS);
+    }
+
+    private long get(int scrollState, int counter) {
+      return mCounters[scrollState * COUNTER_COUNT + counter];
+    }
+  }
+
+  private final AtomicLongArray mCounters =
+      new AtomicLongArray(SCROLL_STATE_COUNT * COUNTER_COUNT);
+  private final Object mFrameCallback;
+
+  private long mJankyIntervalNanos;
+  private boolean mMonitorIdleFrames;
+  private int mScrollState = ScrollingViewProxy.OnScrollListener.SCROLL_STATE_IDLE;
+  private boolean mRunning;
+  private long mLastFrameTimeNanos;
+  private int mFrameScrollState;
+
+  // The work done since the last frame callback.
+  private int mFrameCreates;
+  private long mFrameCreateNanos;
+  private int mFrameBinds;
+  private long mFrameBindNanos;
+
+  public FrameMonitor() {
+    mFrameCallback = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN
+        ? createFrameCallback()
+        : null;
+    setRefreshRate(DEFAULT_REFRESH_RATE);
+  }
+
+  /**
+   * @param refreshRate the refresh rate of the display, in frames per second.
+   */
+  public void setRefreshRate(float refreshRate) {
+    mJankyIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) * 1.5f / refreshRate);
+  }
+
+  /**
+   * Also measures frames while the list is idle, for example to catch jank caused by data updates.
+   */
+  public void setMonitorIdleFrames(boolean monitorIdleFrames) {
+    mMonitorIdleFrames = monitorIdleFrames;
+    startIfNeeded();
+  }
+
+  public Snapshot getSnapshot() {
+    long[] counters = new long[mCounters.length()];
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] = mCounters.get(i);
+    }
+    return new Snapshot(counters);
+  }
+
+  public void reset() {
+    for (int i = 0; i < mCounters.length(); i++) {
+      mCounters.set(i, 0);
+    }
+  }
+
+  void onScrollStateChanged(int scrollState) {
+    mScrollState = scrollState;
+    startIfNeeded();
+  }
+
+  void onViewCreated(long nanos) {
+    if (mRunning) {
+      mFrameCreates++;
+      mFrameCreateNanos += nanos;
+    } else {
+      add(mScrollState, CREATES, 1);
+      add(mScrollState, CREATE_NANOS, nanos);
+    }
+  }
+
+  void onViewBound(long nanos) {
+    if (mRunning) {
+      mFrameBinds++;
+      mFrameBindNanos += nanos;
+    } else {
+      add(mScrollState, BINDS, 1);
+      add(mScrollState, BIND_NANOS, nanos);
+    }
+  }
+
+  private boolean shouldRun() {
+    return mScrollState != ScrollingViewProxy.OnScrollListener.SCROLL_STATE_IDLE
+        || mMonitorIdleFrames;
+  }
+
+  private void startIfNeeded() {
+    if (mRunning || mFrameCallback == null || !shouldRun()) {
+      return;
+    }
+    mRunning = true;
+    mLastFrameTimeNanos = 0;
+    postFrameCallback();
+  }
+
+  void onFrame(long frameTimeNanos) {
+    if (mLastFrameTimeNanos != 0) {
+      recordFrame(mFrameScrollState, frameTimeNanos - mLastFrameTimeNanos);
+    }
+    mLastFrameTimeNanos = frameTimeNanos;
+    mFrameScrollState = mScrollState;
+    if (shouldRun()) {
+      postFrameCallback();
+    } else {
+      mRunning = false;
+      recordWork(mScrollState, false);
+    }
+  }
+
+  private void recordFrame(int scrollState, long intervalNanos) {
+    boolean janky = intervalNanos > mJankyIntervalNanos;
+    add(scrollState, FRAMES, 1);
+    if (janky) {
+      add(scrollState, JANKY_FRAMES, 1);
+    }
+    if (intervalNanos > TimeUnit.MILLISECONDS.toNanos(FROZEN_FRAME_MILLIS)) {
+      add(scrollState, FROZEN_FRAMES, 1);
+    }
+    recordWork(scrollState, janky);
+  }
+
+  private void recordWork(int scrollState, boolean janky) {
+    add(scrollState, CREATES, mFrameCreates);
+    add(scrollState, CREATE_NANOS, mFrameCreateNanos);
+    add(scrollState, BINDS, mFrameBinds);
+    add(scrollState, BIND_NANOS, mFrameBindNanos);
+    if (janky) {
+      add(scrollState, JANKY_FRAME_CREATES, mFrameCreates);
+      add(scrollState, JANKY_FRAME_CREATE_NANOS, mFrameCreateNanos);
+      add(scrollState, JANKY_FRAME_BINDS, mFrameBinds);
+      add(scrollState, JANKY_FRAME_BIND_NANOS, mFrameBindNanos);
+    }
+    mFrameCreates = 0;
+    mFrameCreateNanos = 0;
+    mFrameBinds = 0;
+    mFrameBindNanos = 0;
+  }
+
+  private void add(int scrollState, int counter, long delta) {
+    if (delta != 0) {
+      mCounters.addAndGet(scrollState * COUNTER_COUNT + counter, delta);
+    }
+  }
+
+  @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+  private void postFrameCallback() {
+    Choreographer.getInstance().postFrameCallback((Choreographer.FrameCallback) mFrameCallback);
+  }
+
+  @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+  private Object createFrameCallback() {
+    return new Choreographer.FrameCallback() {
+      @Override
+      public void doFrame(long frameTimeNanos) {
+        onFrame(frameTimeNanos);
+      }
+    };
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.widget.ListAdapter;
+
+/**
+ * Maps item ids of a {@link ListAdapter} to their positions, in an open-addressing hash table of
+ * primitives.
+ *
+ * Range changes are applied incrementally: changed and inserted items are put in the table, and
+ * inserts and removals are appended to a log of position shifts. A lookup applies the shifts
+ * logged since its entry was written, then checks the position against the adapter. The table
+ * is only rebuilt, in O(n), after a full change, when the log is full, when ids that were changed
+ * away outnumber the items, or on the first miss after a change.
+ */
+final class ItemIdIndex {
+
+  static final int NO_POSITION = -1;
+
+  private static final int MAX_SHIFTS = 64;
+  private static final int MIN_CAPACITY = 16;
+
+  private final ListAdapter mAdapter;
+
+  private long[] mKeys = new long[MIN_CAPACITY];
+  private int[] mPositions = new int[MIN_CAPACITY];
+  /** The number of shifts that were logged when each entry was written. */
+  private int[] mVersions = new int[MIN_CAPACITY];
+  private boolean[] mUsed = new boolean[MIN_CAPACITY];
+  private int mSize;
+
+  private final int[] mShiftStarts = new int[MAX_SHIFTS];
+  /** Positive for inserted items, negative for removed ones. */
+  private final int[] mShiftCounts = new int[MAX_SHIFTS];
+  private int mShiftCount;
+
+  private boolean mStale = true;
+  /** Whether ranges were applied since the last rebuild, so a miss may be for a missing entry. */
+  private boolean mChanged;
+
+  ItemIdIndex(ListAdapter adapter) {
+    mAdapter = adapter;
+  }
+
+  /**
+   * @return the position of the item with {@code id}, or {@link #NO_POSITION}.
+   */
+  int getPosition(long id) {
+    if (mStale) {
+      rebuild();
+    }
+    int position = find(id);
+    if (position == NO_POSITION && mChanged) {
+      // The ranges reported since the rebuild may not cover every change, for example when the
+      // adapter notified them out of order, so only a fresh table can tell the id is gone.
+      rebuild();
+      position = find(id);
+    }
+    return position;
+  }
+
+  void invalidate() {
+    mStale = true;
+  }
+
+  void onItemRangeChanged(int positionStart, int itemCount) {
+    putRange(positionStart, itemCount);
+  }
+
+  void onItemRangeInserted(int positionStart, int itemCount) {
+    if (logShift(positionStart, itemCount)) {
+      putRange(positionStart, itemCount);
+    }
+  }
+
+  void onItemRangeRemoved(int positionStart, int itemCount) {
+    logShift(positionStart, -itemCount);
+  }
+
+  void onItemMoved(int fromPosition, int toPosition) {
+    if (logShift(fromPosition, -1) && logShift(toPosition, 1)) {
+      putRange(toPosition, 1);
+    }
+  }
+
+  private int find(long id) {
+    int position = lookUp(id);
+    return position != NO_POSITION && isAt(id, position) ? position : NO_POSITION;
+  }
+
+  private boolean isAt(long id, int position) {
+    return position < mAdapter.getCount() && mAdapter.getItemId(position) == id;
+  }
+
+  /**
+   * @return false if the log is full, in which case the table is rebuilt on the next lookup.
+   */
+  private boolean logShift(int positionStart, int count) {
+    if (mStale) {
+      return false;
+    }
+    if (mShiftCount == MAX_SHIFTS) {
+      mStale = true;
+      return false;
+    }
+    mShiftStarts[mShiftCount] = positionStart;
+    mShiftCounts[mShiftCount] = count;
+    mShiftCount++;
+    mChanged = true;
+    return true;
+  }
+
+  private void putRange(int positionStart, int itemCount) {
+    if (mStale) {
+      return;
+    }
+    for (int i = positionStart; i < positionStart + itemCount; i++) {
+      put(mAdapter.getItemId(i), i, mShiftCount);
+    }
+    mChanged = true;
+    // Entries for ids which were changed away are never removed, so drop them all once they
+    // outnumber the items rather than let the table keep growing.
+    if (mSize > mAdapter.getCount() * 2 + MIN_CAPACITY) {
+      mStale = true;
+    }
+  }
+
+  private int lookUp(long id) {
+    int mask = mKeys.length - 1;
+    for (int slot = hash(id) & mask; mUsed[slot]; slot = (slot + 1) & mask) {
+      if (mKeys[slot] == id) {
+        return applyShifts(mPositions[slot], mVersions[slot]);
+      }
+    }
+    return NO_POSITION;
+  }
+
+  private int applyShifts(int position, int version) {
+    for (int i = version; i < mShiftCount; i++) {
+      int start = mShiftStarts[i];
+      int count = mShiftCounts[i];
+      if (count > 0) {
+        if (position >= start) {
+          position += count;
+        }
+      } else if (position >= start - count) {
+        position += count;
+      } else if (position >= start) {
+        return NO_POSITION;
+      }
+    }
+    return position;
+  }
+
+  private void put(long id, int position, int version) {
+    if ((mSize + 1) * 2 > mKeys.length) {
+      resize(mKeys.length * 2);
+    }
+    int mask = mKeys.length - 1;
+    int slot = hash(id) & mask;
+    while (mUsed[slot] && mKeys[slot] != id) {
+      slot = (slot + 1) & mask;
+    }
+    if (!mUsed[slot]) {
+      mUsed[slot] = true;
+      mKeys[slot] = id;
+      mSize++;
+    }
+    mPositions[slot] = position;
+    mVersions[slot] = version;
+  }
+
+  private void resize(int capacity) {
+    long[] keys = mKeys;
+    int[] positions = mPositions;
+    int[] versions = mVersions;
+    boolean[] used = mUsed;
+    mKeys = new long[capacity];
+    mPositions = new int[capacity];
+    mVersions = new int[capacity];
+    mUsed = new boolean[capacity];
+    mSize = 0;
+    for (int i = 0; i < keys.length; i++) {
+      if (used[i]) {
+        put(keys[i], positions[i], versions[i]);
+      }
+    }
+  }
+
+  private void rebuild() {
+    int count = mAdapter.getCount();
+    int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(count, 1)) * 4);
+    mKeys = new long[capacity];
+    mPositions = new int[capacity];
+    mVersions = new int[capacity];
+    mUsed = new boolean[capacity];
+    mSize = 0;
+    mShiftCount = 0;
+    for (int i = 0; i < count; i++) {
+      put(mAdapter.getItemId(i), i, 0);
+    }
+    mStale = false;
+    mChanged = false;
+  }
+
+  private static int hash(long id) {
+    long hash = id * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+}
@@ -119,6 +119,20 @@ public class LinearRecyclerView extends RecyclerView {
     updateViewVisibility();
   }
 
+  @Override
+  public void swapAdapter(Adapter adapter, boolean removeAndRecycleExistingViews) {
+    final Adapter oldAdapter = getAdapter();
+    if (oldAdapter != null) {
+      oldAdapter.unregisterAdapterDataObserver(mEmptyAdapterDataObserver);
+    }
+    super.swapAdapter(adapter, removeAndRecycleExistingViews);
+    if (adapter != null) {
+      adapter.registerAdapterDataObserver(mEmptyAdapterDataObserver);
+    }
+
+    updateViewVisibility();
+  }
+
   @Override
   public Parcelable onSaveInstanceState() {
     return super.onSaveInstanceState();
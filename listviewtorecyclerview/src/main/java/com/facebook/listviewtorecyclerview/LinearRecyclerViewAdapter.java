@@ -9,6 +9,9 @@
 package com.facebook.listviewtorecyclerview;
 
 import android.database.DataSetObserver;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v4.view.ViewCompat;
 import android.support.v7.widget.RecyclerView;
 import android.view.View;
 import android.view.ViewGroup;
@@ -29,33 +32,169 @@ class LinearRecyclerViewAdapter<VH extends RecyclerView.ViewHolder>
   static class ViewHolder<VH extends RecyclerView.ViewHolder>
       extends RecyclerView.ViewHolder {
 
+    long mBoundItemId = RecyclerView.NO_ID;
+    long mBoundFingerprint;
+    boolean mHasBoundFingerprint;
+
+    long mMeasuredItemId = RecyclerView.NO_ID;
+    long mMeasuredFingerprint;
+    int mMeasuredWidth = -1;
+
+    boolean mHasPendingFullBind;
+
+    /** The stable id of the item whose view state is saved when this holder is recycled. */
+    long mTransientStateItemId = RecyclerView.NO_ID;
+
+    /** The adapter which last bound this holder, and whose items the fields above refer to. */
+    LinearRecyclerViewAdapter<?> mBoundAdapter;
+
     ViewHolder(View itemView) {
       super(itemView);
     }
+
+    /**
+     * Forgets the item bound by another adapter, which handed this holder over when it was
+     * swapped out, since item ids and fingerprints of different adapters can't be compared.
+     */
+    void clearBoundItem() {
+      mBoundItemId = RecyclerView.NO_ID;
+      mBoundFingerprint = 0;
+      mHasBoundFingerprint = false;
+      mMeasuredItemId = RecyclerView.NO_ID;
+      mMeasuredFingerprint = 0;
+      mMeasuredWidth = -1;
+      // The previous adapter no longer binds the views it deferred.
+      mHasPendingFullBind = false;
+      mTransientStateItemId = RecyclerView.NO_ID;
+    }
+
+    /**
+     * @return whether the last measurement of this holder's view was taken with the item that is
+     * currently bound to it, at the given width.
+     */
+    boolean isMeasuredForBoundItem(int width) {
+      return mHasBoundFingerprint
+          && mMeasuredWidth == width
+          && mMeasuredItemId == mBoundItemId
+          && mMeasuredFingerprint == mBoundFingerprint;
+    }
+
+    void onMeasuredForBoundItem(int width) {
+      mMeasuredWidth = width;
+      mMeasuredItemId = mBoundItemId;
+      mMeasuredFingerprint = mBoundFingerprint;
+    }
   }
 
   private final LinearRecyclerView mRecyclerView;
   private final ScrollingViewProxy.Adapter mAdapter;
-  private List<View> mHeaderViews;
-  private List<View> mFooterViews;
+  private List<AuxiliaryView> mHeaderViews;
+  private List<AuxiliaryView> mFooterViews;
+  private final ArrayList<ViewHolder> mPendingFullBinds = new ArrayList<>();
   private boolean mObservingListAdapter;
   private int mObserverCount;
+  private boolean mDeferFullBinds;
+  private RecyclerPoolStats mPoolStats;
+  private FrameMonitor mFrameMonitor;
+  private TransientStateStore mTransientStateStore;
+  private volatile boolean mCoalesceChanges;
+  private boolean mCoalescedChangePending;
+  private ItemIdIndex mItemIdIndex;
+  private final RenderModelCache mRenderModelCache;
+
+  private final Handler mMainHandler = new Handler(Looper.getMainLooper());
 
-  private final DataSetObserver mObserver = new DataSetObserver() {
+  private final Runnable mScheduleCoalescedChange = new Runnable() {
+    @Override
+    public void run() {
+      scheduleCoalescedChange();
+    }
+  };
+
+  private final Runnable mDispatchCoalescedChange = new Runnable() {
+    @Override
+    public void run() {
+      mCoalescedChangePending = false;
+      invalidateItemIdIndex();
+      notifyDataSetChanged();
+    }
+  };
+
+  private final DataSetObserver mObserver = new DataSetRangeObserver() {
     @Override
     public void onChanged() {
+      if (mCoalesceChanges) {
+        scheduleCoalescedChange();
+        return;
+      }
       RecyclerView.LayoutManager layoutManager = mRecyclerView.getLayoutManager();
       if (layoutManager != null) {
         layoutManager.assertNotInLayoutOrScroll(
             "Do not call notifyDataSetChanged() while scrolling or in layout.");
       }
+      invalidateItemIdIndex();
       notifyDataSetChanged();
     }
 
     @Override
     public void onInvalidated() {
+      if (mCoalesceChanges) {
+        scheduleCoalescedChange();
+        return;
+      }
+      invalidateItemIdIndex();
       notifyDataSetChanged();
     }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+      if (mCoalesceChanges) {
+        scheduleCoalescedChange();
+        return;
+      }
+      if (mItemIdIndex != null) {
+        mItemIdIndex.onItemRangeChanged(positionStart, itemCount);
+      }
+      notifyItemRangeChanged(positionStart + mHeaderViews.size(), itemCount);
+    }
+
+    @Override
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+      if (mCoalesceChanges) {
+        scheduleCoalescedChange();
+        return;
+      }
+      if (mItemIdIndex != null) {
+        mItemIdIndex.onItemRangeInserted(positionStart, itemCount);
+      }
+      notifyItemRangeInserted(positionStart + mHeaderViews.size(), itemCount);
+    }
+
+    @Override
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+      if (mCoalesceChanges) {
+        scheduleCoalescedChange();
+        return;
+      }
+      if (mItemIdIndex != null) {
+        mItemIdIndex.onItemRangeRemoved(positionStart, itemCount);
+      }
+      notifyItemRangeRemoved(positionStart + mHeaderViews.size(), itemCount);
+    }
+
+    @Override
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+      if (mCoalesceChanges || itemCount != 1) {
+        // RecyclerView can only animate moves of a single item.
+        onChanged();
+        return;
+      }
+      if (mItemIdIndex != null) {
+        mItemIdIndex.onItemMoved(fromPosition, toPosition);
+      }
+      int headersCount = mHeaderViews.size();
+      notifyItemMoved(fromPosition + headersCount, toPosition + headersCount);
+    }
   };
 
   public LinearRecyclerViewAdapter(
@@ -65,10 +204,13 @@ class LinearRecyclerViewAdapter<VH extends RecyclerView.ViewHolder>
     mAdapter = adapter;
     mHeaderViews = Collections.emptyList();
     mFooterViews = Collections.emptyList();
+    mRenderModelCache = adapter instanceof ScrollingViewProxy.PreparingAdapter
+        ? new RenderModelCache()
+        : null;
     setHasStableIds(mAdapter.hasStableIds());
   }
 
-  public void setHeaderViews(ArrayList<View> headerViews) {
+  public void setHeaderViews(ArrayList<AuxiliaryView> headerViews) {
     if (headerViews == null) {
       mHeaderViews = Collections.emptyList();
     } else {
@@ -77,7 +219,7 @@ class LinearRecyclerViewAdapter<VH extends RecyclerView.ViewHolder>
     notifyDataSetChanged();
   }
 
-  public void setFooterViews(ArrayList<View> footerViews) {
+  public void setFooterViews(ArrayList<AuxiliaryView> footerViews) {
     if (footerViews == null) {
       mFooterViews = Collections.emptyList();
     } else {
@@ -86,6 +228,30 @@ class LinearRecyclerViewAdapter<VH extends RecyclerView.ViewHolder>
     notifyDataSetChanged();
   }
 
+  /**
+   * When coalescing, every change signal from the wrapped adapter within a frame, including range
+   * changes, is merged into a single {@link #notifyDataSetChanged()}, dispatched on the next
+   * animation frame before the traversal. Signals may then come from any thread.
+   */
+  public void setCoalesceChanges(boolean coalesceChanges) {
+    mCoalesceChanges = coalesceChanges;
+  }
+
+  private void scheduleCoalescedChange() {
+    if (Looper.myLooper() != Looper.getMainLooper()) {
+      mMainHandler.post(mScheduleCoalescedChange);
+      return;
+    }
+    // The wrapped adapter has already changed, so ids must not be looked up in the old index
+    // until the change is dispatched.
+    invalidateItemIdIndex();
+    if (mCoalescedChangePending) {
+      return;
+    }
+    mCoalescedChangePending = true;
+    ViewCompat.postOnAnimation(mRecyclerView, mDispatchCoalescedChange);
+  }
+
   public Object getItem(int position) {
     int headersCount = mHeaderViews.size();
     if (position < headersCount || position >= mAdapter.getCount() + headersCount) {
@@ -99,6 +265,8 @@ class LinearRecyclerViewAdapter<VH extends RecyclerView.ViewHolder>
     mObserverCount++;
     super.registerAdapterDataObserver(observer);
     if (!mObservingListAdapter) {
+      // Changes were not observed until now.
+      invalidateItemIdIndex();
       mAdapter.registerDataSetObserver(mObserver);
       mObservingListAdapter = true;
     }
@@ -130,21 +298,358 @@ class LinearRecyclerViewAdapter<VH extends RecyclerView.ViewHolder>
 
   @Override
   public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+    if (mPoolStats != null) {
+      mPoolStats.increment(viewType, RecyclerPoolStats.CREATES);
+    }
     if (viewType < 0) {
-      View view = findAuxiliaryView(viewType);
-      return new ViewHolder(view);
+      AuxiliaryView auxiliaryView = findAuxiliaryView(viewType);
+      ViewHolder holder = new ViewHolder(auxiliaryView.getView(parent));
+      if (auxiliaryView.isProvided()) {
+        // Not caching or pooling the holder leaves the view with no reference from the
+        // RecyclerView once it is scrolled away, so that it can be released.
+        holder.setIsRecyclable(false);
+      }
+      return holder;
     }
 
-    return new ViewHolder(mAdapter.createView(viewType, parent));
+    long startNanos = mFrameMonitor != null ? System.nanoTime() : 0;
+    View view = mAdapter.createView(viewType, parent);
+    if (mAdapter instanceof ScrollingViewProxy.FixedSizeAdapter) {
+      applyFixedItemHeight(view, viewType);
+    }
+    if (mFrameMonitor != null) {
+      mFrameMonitor.onViewCreated(System.nanoTime() - startNanos);
+    }
+    return new ViewHolder(view);
   }
 
   @Override
   public void onBindViewHolder(ViewHolder holder, int position) {
+    if (mPoolStats != null) {
+      mPoolStats.increment(holder.getItemViewType(), RecyclerPoolStats.BINDS);
+    }
+    if (holder.mBoundAdapter != this) {
+      holder.clearBoundItem();
+      holder.mBoundAdapter = this;
+    }
     int adjustedPosition = position - mHeaderViews.size();
     if (adjustedPosition < 0 || adjustedPosition >= mAdapter.getCount()) {
       return;
     }
-    mAdapter.getView(adjustedPosition, holder.itemView, mRecyclerView);
+    if (!mDeferFullBinds && isShowingItem(holder, adjustedPosition)) {
+      keepTransientState(holder, adjustedPosition);
+      if (mPoolStats != null) {
+        mPoolStats.increment(holder.getItemViewType(), RecyclerPoolStats.SKIPPED_BINDS);
+      }
+      return;
+    }
+    long startNanos = mFrameMonitor != null ? System.nanoTime() : 0;
+    if (mDeferFullBinds) {
+      bindPlaceholder(holder, adjustedPosition);
+    } else {
+      cancelPendingFullBind(holder);
+      bindFully(holder, adjustedPosition);
+    }
+    if (mFrameMonitor != null) {
+      mFrameMonitor.onViewBound(System.nanoTime() - startNanos);
+    }
+  }
+
+  @Override
+  public void onViewRecycled(ViewHolder holder) {
+    if (mPoolStats != null) {
+      mPoolStats.increment(holder.getItemViewType(), RecyclerPoolStats.RECYCLES);
+    }
+    cancelPendingFullBind(holder);
+    CancellationToken.cancel(holder.itemView);
+    saveTransientState(holder);
+    // The recycler listener may have cleared the view, so it must be bound again when reused.
+    holder.mHasBoundFingerprint = false;
+  }
+
+  @Override
+  public boolean onFailedToRecycleView(ViewHolder holder) {
+    if (mPoolStats != null) {
+      mPoolStats.increment(holder.getItemViewType(), RecyclerPoolStats.FAILED_RECYCLES);
+    }
+    return super.onFailedToRecycleView(holder);
+  }
+
+  /**
+   * @param frameMonitor where to report the time spent creating and binding views, or null to
+   * stop reporting.
+   */
+  void setFrameMonitor(FrameMonitor frameMonitor) {
+    mFrameMonitor = frameMonitor;
+  }
+
+  /**
+   * @param poolStats where to count creates, binds and recycles, or null to stop counting.
+   */
+  void setPoolStats(RecyclerPoolStats poolStats) {
+    mPoolStats = poolStats;
+  }
+
+  /**
+   * While full binds are deferred, views of a {@link ScrollingViewProxy.PlaceholderAdapter} only
+   * get a placeholder bind and are queued until {@link #bindNextDeferredView(int, int)} fully
+   * binds them.
+   */
+  void setDeferFullBinds(boolean deferFullBinds) {
+    mDeferFullBinds =
+        deferFullBinds && mAdapter instanceof ScrollingViewProxy.PlaceholderAdapter;
+  }
+
+  boolean isDeferringFullBinds() {
+    return mDeferFullBinds;
+  }
+
+  boolean hasDeferredBinds() {
+    return !mPendingFullBinds.isEmpty();
+  }
+
+  /**
+   * Fully binds the queued view that is closest to the visible range.
+   * @return whether there are still views waiting for a full bind.
+   */
+  boolean bindNextDeferredView(int firstVisiblePosition, int lastVisiblePosition) {
+    int closestIndex = -1;
+    int closestDistance = Integer.MAX_VALUE;
+    for (int i = mPendingFullBinds.size() - 1; i >= 0; i--) {
+      ViewHolder holder = mPendingFullBinds.get(i);
+      int position = holder.getAdapterPosition();
+      if (position == RecyclerView.NO_POSITION) {
+        // The data changed under this view, the RecyclerView will bind it again on its own.
+        holder.mHasPendingFullBind = false;
+        mPendingFullBinds.remove(i);
+        if (closestIndex != -1) {
+          closestIndex--;
+        }
+        continue;
+      }
+      int distance = distanceToRange(position, firstVisiblePosition, lastVisiblePosition);
+      if (distance < closestDistance) {
+        closestDistance = distance;
+        closestIndex = i;
+      }
+    }
+
+    if (closestIndex != -1) {
+      ViewHolder holder = mPendingFullBinds.remove(closestIndex);
+      holder.mHasPendingFullBind = false;
+      int adjustedPosition = holder.getAdapterPosition() - mHeaderViews.size();
+      if (adjustedPosition >= 0 && adjustedPosition < mAdapter.getCount()) {
+        bindFully(holder, adjustedPosition);
+      }
+    }
+    return !mPendingFullBinds.isEmpty();
+  }
+
+  /**
+   * @return whether the view of {@code holder} was fully bound to the item now at
+   * {@code adjustedPosition}, with the same fingerprint, and was neither recycled since nor lost its
+   * async work, in which case binding it again would not change it.
+   */
+  private boolean isShowingItem(ViewHolder holder, int adjustedPosition) {
+    if (!holder.mHasBoundFingerprint
+        || !(mAdapter instanceof ScrollingViewProxy.FingerprintAdapter)) {
+      return false;
+    }
+    CancellationToken token = CancellationToken.forView(holder.itemView);
+    if (token != null && token.isCancelled()) {
+      return false;
+    }
+    return holder.mBoundItemId == mAdapter.getItemId(adjustedPosition)
+        && holder.mBoundFingerprint == ((ScrollingViewProxy.FingerprintAdapter) mAdapter)
+            .getItemFingerprint(adjustedPosition);
+  }
+
+  private void bindFully(ViewHolder holder, int adjustedPosition) {
+    if (mAdapter instanceof ScrollingViewProxy.FingerprintAdapter) {
+      holder.mBoundItemId = mAdapter.getItemId(adjustedPosition);
+      holder.mBoundFingerprint = ((ScrollingViewProxy.FingerprintAdapter) mAdapter)
+          .getItemFingerprint(adjustedPosition);
+      holder.mHasBoundFingerprint = true;
+    }
+    // The holder may be rebound to another item without being recycled.
+    saveTransientState(holder);
+    if (mRenderModelCache != null) {
+      ScrollingViewProxy.BaseAdapter.bindWithAsyncWork(
+          mAdapter,
+          adjustedPosition,
+          getRenderModel(holder, adjustedPosition),
+          holder.itemView,
+          holder.getItemViewType(),
+          mRecyclerView);
+    } else {
+      mAdapter.getView(adjustedPosition, holder.itemView, mRecyclerView);
+    }
+    if (mTransientStateStore != null && mAdapter.hasStableIds()) {
+      holder.mTransientStateItemId = mAdapter.getItemId(adjustedPosition);
+      mTransientStateStore.restore(holder.mTransientStateItemId, holder.itemView);
+    }
+  }
+
+  /**
+   * @param transientStateStore where to save the view state of recycled rows and restore it from
+   * when they are bound, or null to stop doing so. Only used if the adapter has stable ids.
+   */
+  void setTransientStateStore(TransientStateStore transientStateStore) {
+    mTransientStateStore = transientStateStore;
+  }
+
+  /**
+   * Saves the view state of the rows currently shown into {@code store}, as they are not recycled
+   * before the list's instance state is saved. The rows keep their state, so it is not saved in
+   * the store they are bound from.
+   */
+  void saveTransientStates(TransientStateStore store) {
+    for (int i = 0; i < mRecyclerView.getChildCount(); i++) {
+      RecyclerView.ViewHolder holder =
+          mRecyclerView.getChildViewHolder(mRecyclerView.getChildAt(i));
+      if (holder instanceof ViewHolder
+          && ((ViewHolder) holder).mTransientStateItemId != RecyclerView.NO_ID) {
+        store.save(((ViewHolder) holder).mTransientStateItemId, holder.itemView);
+      }
+    }
+  }
+
+  /**
+   * Makes a row whose bind is skipped save its view state again when it is recycled. The view
+   * still holds its state, so any saved copy is stale.
+   */
+  private void keepTransientState(ViewHolder holder, int adjustedPosition) {
+    if (mTransientStateStore == null || !mAdapter.hasStableIds()) {
+      return;
+    }
+    holder.mTransientStateItemId = mAdapter.getItemId(adjustedPosition);
+    mTransientStateStore.remove(holder.mTransientStateItemId);
+  }
+
+  private void saveTransientState(ViewHolder holder) {
+    if (holder.mTransientStateItemId == RecyclerView.NO_ID) {
+      return;
+    }
+    if (mTransientStateStore != null) {
+      mTransientStateStore.save(holder.mTransientStateItemId, holder.itemView);
+    }
+    holder.mTransientStateItemId = RecyclerView.NO_ID;
+  }
+
+  /**
+   * @return the cached render model of the item bound to {@code holder}, prepared on the main
+   * thread if it is not ready.
+   */
+  private Object getRenderModel(ViewHolder holder, int adjustedPosition) {
+    Object model = mRenderModelCache.get(holder.mBoundItemId, holder.mBoundFingerprint);
+    if (model == null) {
+      model = ((ScrollingViewProxy.PreparingAdapter) mAdapter)
+          .prepareItem(mAdapter.getItem(adjustedPosition));
+      mRenderModelCache.put(holder.mBoundItemId, holder.mBoundFingerprint, model);
+    }
+    return model;
+  }
+
+  /**
+   * Prepares in the background the render models of up to {@code count} rows past the visible
+   * range in the scroll direction, or on both sides of it if the direction is 0. Does nothing if
+   * the wrapped adapter is not a {@link ScrollingViewProxy.PreparingAdapter}.
+   */
+  void prefetchRenderModels(
+      int firstVisiblePosition,
+      int lastVisiblePosition,
+      int scrollDirection,
+      int count,
+      RowTaskScheduler scheduler) {
+    if (mRenderModelCache == null) {
+      return;
+    }
+    for (int i = 1; i <= count; i++) {
+      if (scrollDirection >= 0) {
+        prefetchRenderModel(lastVisiblePosition + i, scheduler);
+      }
+      if (scrollDirection <= 0) {
+        prefetchRenderModel(firstVisiblePosition - i, scheduler);
+      }
+    }
+  }
+
+  /**
+   * Evicts the least recently used render models until at most {@code fraction} of them are left.
+   * They are prepared again when their rows are bound.
+   * @return the number of evicted models.
+   */
+  int trimRenderModels(float fraction) {
+    if (mRenderModelCache == null) {
+      return 0;
+    }
+    return mRenderModelCache.trimToSize((int) (mRenderModelCache.size() * fraction));
+  }
+
+  private void prefetchRenderModel(int position, RowTaskScheduler scheduler) {
+    int adjustedPosition = position - mHeaderViews.size();
+    if (adjustedPosition < 0 || adjustedPosition >= mAdapter.getCount()) {
+      return;
+    }
+    final ScrollingViewProxy.PreparingAdapter adapter =
+        (ScrollingViewProxy.PreparingAdapter) mAdapter;
+    final long itemId = adapter.getItemId(adjustedPosition);
+    final long fingerprint = adapter.getItemFingerprint(adjustedPosition);
+    if (!mRenderModelCache.reserve(itemId, fingerprint)) {
+      return;
+    }
+    // The item is read here, the worker must not read the adapter.
+    final Object item = adapter.getItem(adjustedPosition);
+    final RenderModelCache cache = mRenderModelCache;
+    scheduler.submit(position, new RowTaskScheduler.DroppableTask() {
+      @Override
+      public void run() {
+        boolean prepared = false;
+        try {
+          cache.put(itemId, fingerprint, adapter.prepareItem(item));
+          prepared = true;
+        } finally {
+          if (!prepared) {
+            cache.release(itemId, fingerprint);
+          }
+        }
+      }
+
+      @Override
+      public void onDropped() {
+        cache.release(itemId, fingerprint);
+      }
+    });
+  }
+
+  private void bindPlaceholder(ViewHolder holder, int adjustedPosition) {
+    // The placeholder does not render the item's content, so its measurement can't be reused.
+    holder.mHasBoundFingerprint = false;
+    CancellationToken.cancel(holder.itemView);
+    ((ScrollingViewProxy.PlaceholderAdapter) mAdapter).bindPlaceholderView(
+        adjustedPosition,
+        mAdapter.getItem(adjustedPosition),
+        holder.itemView,
+        holder.getItemViewType(),
+        mRecyclerView);
+    if (!holder.mHasPendingFullBind) {
+      holder.mHasPendingFullBind = true;
+      mPendingFullBinds.add(holder);
+    }
+  }
+
+  private void cancelPendingFullBind(ViewHolder holder) {
+    if (holder.mHasPendingFullBind) {
+      holder.mHasPendingFullBind = false;
+      mPendingFullBinds.remove(holder);
+    }
+  }
+
+  private static int distanceToRange(int position, int first, int last) {
+    if (position < first) {
+      return first - position;
+    }
+    return position > last ? position - last : 0;
   }
 
   @Override
@@ -170,6 +675,33 @@ class LinearRecyclerViewAdapter<VH extends RecyclerView.ViewHolder>
     return mAdapter.getItemId(adjustedPosition);
   }
 
+  /**
+   * Finds an item by id through an index of the wrapped adapter's ids, which is built on first use
+   * and then kept up to date with its range changes.
+   *
+   * @return the position of the item with {@code id}, including header views, or
+   * {@link RecyclerView#NO_POSITION} if there is no such item.
+   */
+  public int getPositionForItemId(long id) {
+    if (mItemIdIndex == null) {
+      mItemIdIndex = new ItemIdIndex(mAdapter);
+    }
+    if (!mObservingListAdapter) {
+      // Changes are not observed, so the index may be stale.
+      mItemIdIndex.invalidate();
+    }
+    int position = mItemIdIndex.getPosition(id);
+    return position == ItemIdIndex.NO_POSITION
+        ? RecyclerView.NO_POSITION
+        : position + mHeaderViews.size();
+  }
+
+  private void invalidateItemIdIndex() {
+    if (mItemIdIndex != null) {
+      mItemIdIndex.invalidate();
+    }
+  }
+
   /**
    * Returns whether or not the adapter this is delegating to has content.
    *
@@ -183,7 +715,28 @@ class LinearRecyclerViewAdapter<VH extends RecyclerView.ViewHolder>
     return mAdapter.getCount() > 0;
   }
 
-  private View findAuxiliaryView(int viewType) {
+  /**
+   * Returns the fixed height declared for {@code viewType}, or
+   * {@link ScrollingViewProxy.FixedSizeAdapter#NO_FIXED_SIZE} if it has none.
+   */
+  int getFixedItemHeight(int viewType) {
+    if (viewType < 0 || !(mAdapter instanceof ScrollingViewProxy.FixedSizeAdapter)) {
+      return ScrollingViewProxy.FixedSizeAdapter.NO_FIXED_SIZE;
+    }
+    return ((ScrollingViewProxy.FixedSizeAdapter) mAdapter).getFixedItemHeight(viewType);
+  }
+
+  private void applyFixedItemHeight(View view, int viewType) {
+    int height = getFixedItemHeight(viewType);
+    if (height == ScrollingViewProxy.FixedSizeAdapter.NO_FIXED_SIZE) {
+      return;
+    }
+    ViewGroup.LayoutParams params = view.getLayoutParams();
+    int width = params != null ? params.width : ViewGroup.LayoutParams.MATCH_PARENT;
+    view.setLayoutParams(new RecyclerView.LayoutParams(width, height));
+  }
+
+  private AuxiliaryView findAuxiliaryView(int viewType) {
     if (viewType % 2 == 0) {
       int index = (-viewType / 2) - 1;
       return mFooterViews.get(index);
@@ -19,6 +19,8 @@ import android.widget.AdapterView;
 import android.widget.ListAdapter;
 import android.widget.ListView;
 
+import java.util.HashMap;
+
 /**
  * Implementation of {@link ScrollingViewProxy} for a {@link ListView}.
  *
@@ -27,9 +29,41 @@ import android.widget.ListView;
 public class ListViewProxy implements ScrollingViewProxy {
 
   private final ListView mListView;
+  private final HashMap<ViewProvider, View> mProvidedViews = new HashMap<>();
+  private Adapter mAdapter;
+
+  private RecyclerListener mRecyclerListener;
+  private DelegatingOnScrollListener mDelegatingOnScrollListener;
+  private FrameMonitor mFrameMonitor;
+  private TextLayoutCache mTextLayoutCache;
 
   public ListViewProxy(ListView listView) {
     mListView = listView;
+    mListView.setRecyclerListener(
+        new AbsListView.RecyclerListener() {
+          @Override
+          public void onMovedToScrapHeap(View view) {
+            CancellationToken.cancel(view);
+            if (mRecyclerListener != null) {
+              mRecyclerListener.onMovedToScrapHeap(view);
+            }
+          }
+        });
+    mListView.addOnAttachStateChangeListener(
+        new View.OnAttachStateChangeListener() {
+          @Override
+          public void onViewAttachedToWindow(View view) {
+            // The ListView keeps its children while detached, rebind the ones that lost their work.
+            if (CancellationToken.hasCancelledChild(mListView)) {
+              mListView.invalidateViews();
+            }
+          }
+
+          @Override
+          public void onViewDetachedFromWindow(View view) {
+            CancellationToken.cancelChildren(mListView);
+          }
+        });
   }
 
   @Override
@@ -62,6 +96,39 @@ public class ListViewProxy implements ScrollingViewProxy {
     mListView.getLocationOnScreen(location);
   }
 
+  /**
+   * ListView keeps its header and footer views, so provided ones are created right away.
+   */
+  @Override
+  public void addHeaderViewProvider(ViewProvider provider) {
+    View view = provider.createView(mListView);
+    mProvidedViews.put(provider, view);
+    mListView.addHeaderView(view);
+  }
+
+  @Override
+  public void addFooterViewProvider(ViewProvider provider) {
+    View view = provider.createView(mListView);
+    mProvidedViews.put(provider, view);
+    mListView.addFooterView(view);
+  }
+
+  @Override
+  public void removeHeaderViewProvider(ViewProvider provider) {
+    View view = mProvidedViews.remove(provider);
+    if (view != null) {
+      mListView.removeHeaderView(view);
+    }
+  }
+
+  @Override
+  public void removeFooterViewProvider(ViewProvider provider) {
+    View view = mProvidedViews.remove(provider);
+    if (view != null) {
+      mListView.removeFooterView(view);
+    }
+  }
+
   @Override
   public void removeHeaderView(View view) {
     mListView.removeHeaderView(view);
@@ -209,14 +276,8 @@ public class ListViewProxy implements ScrollingViewProxy {
   }
 
   @Override
-  public void setRecyclerListener(final RecyclerListener recyclerListener) {
-    mListView.setRecyclerListener(
-        new AbsListView.RecyclerListener() {
-          @Override
-          public void onMovedToScrapHeap(View view) {
-            recyclerListener.onMovedToScrapHeap(view);
-          }
-        });
+  public void setRecyclerListener(RecyclerListener recyclerListener) {
+    mRecyclerListener = recyclerListener;
   }
 
   @Override
@@ -251,10 +312,10 @@ public class ListViewProxy implements ScrollingViewProxy {
 
   @Override
   public void setOnScrollListener(OnScrollListener onScrollListener) {
-    DelegatingOnScrollListener delegate = onScrollListener != null
+    mDelegatingOnScrollListener = onScrollListener != null
         ? new DelegatingOnScrollListener(onScrollListener, this)
         : null;
-    mListView.setOnScrollListener(delegate);
+    updateScrollListener();
   }
 
   @Override
@@ -279,7 +340,8 @@ public class ListViewProxy implements ScrollingViewProxy {
 
   @Override
   public ListAdapter getAdapter() {
-    return mListView.getAdapter();
+    // The ListView's adapter may be wrapped for range changes, and for header and footer views.
+    return mAdapter;
   }
 
   @Override
@@ -342,9 +404,15 @@ public class ListViewProxy implements ScrollingViewProxy {
     mListView.setScrollingCacheEnabled(b);
   }
 
+  /**
+   * Item range changes of a {@link RangeAdapter} rebind only the visible rows in the range, other
+   * changes reset the ListView as usual.
+   */
   @Override
   public void setAdapter(Adapter adapter) {
-    mListView.setAdapter(adapter);
+    mAdapter = adapter;
+    mListView.setAdapter(
+        adapter != null ? ListViewRangeAdapter.wrapIfNotifiesRanges(adapter, mListView) : null);
   }
 
   @Override
@@ -377,6 +445,76 @@ public class ListViewProxy implements ScrollingViewProxy {
     return mListView.getItemIdAtPosition(position);
   }
 
+  /**
+   * ListView has no index of ids, so this scans the adapter.
+   */
+  @Override
+  public int getPositionForItemId(long id) {
+    ListAdapter adapter = mListView.getAdapter();
+    if (adapter == null) {
+      return AdapterView.INVALID_POSITION;
+    }
+    int end = adapter.getCount() - mListView.getFooterViewsCount();
+    for (int i = mListView.getHeaderViewsCount(); i < end; i++) {
+      if (adapter.getItemId(i) == id) {
+        return i;
+      }
+    }
+    return AdapterView.INVALID_POSITION;
+  }
+
+  @Override
+  public void setTextLayoutCache(TextLayoutCache textLayoutCache) {
+    if (mTextLayoutCache != null) {
+      mTextLayoutCache.detach(mListView);
+    }
+    mTextLayoutCache = textLayoutCache;
+    if (textLayoutCache != null) {
+      textLayoutCache.attach(mListView);
+    }
+  }
+
+  /**
+   * Frames are counted, but views are created and bound by the ListView itself, so their work
+   * is not.
+   */
+  @Override
+  public void setFrameMonitor(FrameMonitor frameMonitor) {
+    if (mFrameMonitor != null) {
+      mFrameMonitor.onScrollStateChanged(OnScrollListener.SCROLL_STATE_IDLE);
+    }
+    mFrameMonitor = frameMonitor;
+    updateScrollListener();
+  }
+
+  @Override
+  public ViewabilityTracker createViewabilityTracker(ViewabilityTracker.Listener listener) {
+    ViewabilityTracker.Rows rows = new ViewabilityTracker.Rows() {
+      @Override
+      public int getRowCount() {
+        return mListView.getChildCount();
+      }
+
+      @Override
+      public View getRowAt(int index) {
+        return mListView.getChildAt(index);
+      }
+
+      @Override
+      public boolean isItemRow(int index) {
+        int position = mListView.getFirstVisiblePosition() + index;
+        return position >= mListView.getHeaderViewsCount()
+            && position < mListView.getCount() - mListView.getFooterViewsCount();
+      }
+
+      @Override
+      public long getRowItemId(int index) {
+        return mListView.getItemIdAtPosition(mListView.getFirstVisiblePosition() + index);
+      }
+    };
+    return new ViewabilityTracker(mListView, rows, listener);
+  }
+
   @Override
   public Parcelable onSaveInstanceState() {
     return mListView.onSaveInstanceState();
@@ -397,6 +535,59 @@ public class ListViewProxy implements ScrollingViewProxy {
     mListView.setChoiceMode(choiceMode);
   }
 
+  @Override
+  public int getTranscriptMode() {
+    return mListView.getTranscriptMode();
+  }
+
+  @Override
+  public void setTranscriptMode(int mode) {
+    mListView.setTranscriptMode(mode);
+  }
+
+  @Override
+  public boolean isStackFromBottom() {
+    return mListView.isStackFromBottom();
+  }
+
+  @Override
+  public void setStackFromBottom(boolean stackFromBottom) {
+    mListView.setStackFromBottom(stackFromBottom);
+  }
+
+  /**
+   * ListView takes a single scroll listener, so one listener feeds both the frame monitor and
+   * the listener of {@link #setOnScrollListener(OnScrollListener)}.
+   */
+  private void updateScrollListener() {
+    if (mFrameMonitor == null) {
+      mListView.setOnScrollListener(mDelegatingOnScrollListener);
+      return;
+    }
+    final FrameMonitor frameMonitor = mFrameMonitor;
+    final DelegatingOnScrollListener delegate = mDelegatingOnScrollListener;
+    mListView.setOnScrollListener(new AbsListView.OnScrollListener() {
+      @Override
+      public void onScrollStateChanged(AbsListView view, int scrollState) {
+        frameMonitor.onScrollStateChanged(scrollState);
+        if (delegate != null) {
+          delegate.onScrollStateChanged(view, scrollState);
+        }
+      }
+
+      @Override
+      public void onScroll(
+          AbsListView view,
+          int firstVisibleItem,
+          int visibleItemCount,
+          int totalItemCount) {
+        if (delegate != null) {
+          delegate.onScroll(view, firstVisibleItem, visibleItemCount, totalItemCount);
+        }
+      }
+    });
+  }
+
   public static class DelegatingOnScrollListener implements AbsListView.OnScrollListener {
 
     private final OnScrollListener mOnScrollListener;
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.database.DataSetObservable;
+import android.database.DataSetObserver;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ListAdapter;
+import android.widget.ListView;
+
+/**
+ * Wraps the adapter of a {@link ListViewProxy} so that range change notifications of the adapter,
+ * see {@link RangeDataSetObservable}, rebind only the visible rows in the range instead of every
+ * visible row.
+ *
+ * The ListView's observer is registered on this adapter. Changed ranges are bound in place with
+ * {@link ScrollingViewProxy.Adapter#bindView}, and the ListView only hears of structural changes,
+ * or of changed ranges it could not be spared: while a layout is pending, the visible rows may
+ * not match their positions, and a row whose view type changed needs a new view.
+ */
+final class ListViewRangeAdapter implements ScrollingViewProxy.Adapter {
+
+  private static final int VIEW_TYPE_TAG_KEY = R.id.scrolling_view_proxy_view_type;
+
+  private final ScrollingViewProxy.Adapter mAdapter;
+  private final ListView mListView;
+  private final DataSetObservable mObservable = new DataSetObservable();
+  private final DataSetRangeObserver mObserver = new DataSetRangeObserver() {
+    @Override
+    public void onChanged() {
+      mObservable.notifyChanged();
+    }
+
+    @Override
+    public void onInvalidated() {
+      mObservable.notifyInvalidated();
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+      if (!rebindVisibleRows(positionStart, itemCount)) {
+        mObservable.notifyChanged();
+      }
+    }
+  };
+  private int mObserverCount;
+
+  ListViewRangeAdapter(ScrollingViewProxy.Adapter adapter, ListView listView) {
+    mAdapter = adapter;
+    mListView = listView;
+  }
+
+  /**
+   * @return a wrapper of {@code adapter} if it is a {@link ScrollingViewProxy.RangeAdapter}, or
+   * else {@code adapter} itself, as the wrapper would only hide its other interfaces, such as
+   * {@link android.widget.Filterable}, from the ListView.
+   */
+  static ListAdapter wrapIfNotifiesRanges(ScrollingViewProxy.Adapter adapter, ListView listView) {
+    return adapter instanceof ScrollingViewProxy.RangeAdapter
+        ? new ListViewRangeAdapter(adapter, listView)
+        : adapter;
+  }
+
+  /**
+   * @return false if the rows could not be rebound in place, and the ListView must be told.
+   */
+  private boolean rebindVisibleRows(int positionStart, int itemCount) {
+    if (mListView.isLayoutRequested()) {
+      return false;
+    }
+    int headersCount = mListView.getHeaderViewsCount();
+    int firstVisible = mListView.getFirstVisiblePosition();
+    int first = Math.max(positionStart, firstVisible - headersCount);
+    int last = Math.min(
+        positionStart + itemCount - 1,
+        firstVisible + mListView.getChildCount() - 1 - headersCount);
+    for (int position = first; position <= last; position++) {
+      View child = mListView.getChildAt(position + headersCount - firstVisible);
+      int itemViewType = mAdapter.getItemViewType(position);
+      if (child == null || !isOfViewType(child, itemViewType)) {
+        return false;
+      }
+      Object item = mAdapter.getItem(position);
+      if (mAdapter instanceof ScrollingViewProxy.PreparingAdapter) {
+        item = ((ScrollingViewProxy.PreparingAdapter) mAdapter).prepareItem(item);
+      }
+      ScrollingViewProxy.BaseAdapter.bindWithAsyncWork(
+          mAdapter, position, item, child, itemViewType, mListView);
+    }
+    return true;
+  }
+
+  /**
+   * The ListView does not expose the view type of its rows, so {@link #getView} tags them with it.
+   */
+  private static boolean isOfViewType(View child, int itemViewType) {
+    Object viewType = child.getTag(VIEW_TYPE_TAG_KEY);
+    return viewType instanceof Integer && (Integer) viewType == itemViewType;
+  }
+
+  @Override
+  public void registerDataSetObserver(DataSetObserver observer) {
+    mObservable.registerObserver(observer);
+    if (mObserverCount++ == 0) {
+      mAdapter.registerDataSetObserver(mObserver);
+    }
+  }
+
+  @Override
+  public void unregisterDataSetObserver(DataSetObserver observer) {
+    mObservable.unregisterObserver(observer);
+    if (--mObserverCount == 0) {
+      mAdapter.unregisterDataSetObserver(mObserver);
+    }
+  }
+
+  @Override
+  public View createView(int itemViewType, ViewGroup parent) {
+    return mAdapter.createView(itemViewType, parent);
+  }
+
+  @Override
+  public void bindView(
+      int position, Object item, View view, int itemViewType, ViewGroup parent) {
+    mAdapter.bindView(position, item, view, itemViewType, parent);
+  }
+
+  @Override
+  public boolean areAllItemsEnabled() {
+    return mAdapter.areAllItemsEnabled();
+  }
+
+  @Override
+  public boolean isEnabled(int position) {
+    return mAdapter.isEnabled(position);
+  }
+
+  @Override
+  public int getCount() {
+    return mAdapter.getCount();
+  }
+
+  @Override
+  public Object getItem(int position) {
+    return mAdapter.getItem(position);
+  }
+
+  @Override
+  public long getItemId(int position) {
+    return mAdapter.getItemId(position);
+  }
+
+  @Override
+  public boolean hasStableIds() {
+    return mAdapter.hasStableIds();
+  }
+
+  @Override
+  public View getView(int position, View convertView, ViewGroup parent) {
+    View view = mAdapter.getView(position, convertView, parent);
+    view.setTag(VIEW_TYPE_TAG_KEY, mAdapter.getItemViewType(position));
+    return view;
+  }
+
+  @Override
+  public int getItemViewType(int position) {
+    return mAdapter.getItemViewType(position);
+  }
+
+  @Override
+  public int getViewTypeCount() {
+    return mAdapter.getViewTypeCount();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return mAdapter.isEmpty();
+  }
+}
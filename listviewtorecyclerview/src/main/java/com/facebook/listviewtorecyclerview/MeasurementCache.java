@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+/**
+ * A fixed size, direct-mapped cache of row heights keyed by (stable id, view type, width).
+ *
+ * Each entry also stores the content fingerprint the height was measured with, so a lookup only
+ * hits when the row is still rendering the same content. Entries are overwritten on collision,
+ * which keeps lookups and insertions allocation free.
+ */
+final class MeasurementCache {
+
+  static final int MISS = -1;
+
+  private static final int DEFAULT_CAPACITY = 256;
+
+  private final int mMask;
+  private final long[] mItemIds;
+  private final long[] mFingerprints;
+  private final int[] mViewTypes;
+  private final int[] mWidths;
+  private final int[] mHeights;
+
+  MeasurementCache() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param capacity the number of entries, rounded up to a power of two.
+   */
+  MeasurementCache(int capacity) {
+    int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+    mMask = size - 1;
+    mItemIds = new long[size];
+    mFingerprints = new long[size];
+    mViewTypes = new int[size];
+    mWidths = new int[size];
+    mHeights = new int[size];
+    clear();
+  }
+
+  /**
+   * @return the cached height, or {@link #MISS} if the row was not measured at this width with
+   * this fingerprint.
+   */
+  int get(long itemId, int viewType, int width, long fingerprint) {
+    int index = indexOf(itemId, viewType, width);
+    if (mHeights[index] == MISS
+        || mItemIds[index] != itemId
+        || mViewTypes[index] != viewType
+        || mWidths[index] != width
+        || mFingerprints[index] != fingerprint) {
+      return MISS;
+    }
+    return mHeights[index];
+  }
+
+  void put(long itemId, int viewType, int width, long fingerprint, int height) {
+    int index = indexOf(itemId, viewType, width);
+    mItemIds[index] = itemId;
+    mViewTypes[index] = viewType;
+    mWidths[index] = width;
+    mFingerprints[index] = fingerprint;
+    mHeights[index] = height;
+  }
+
+  void clear() {
+    for (int i = 0; i < mHeights.length; i++) {
+      mHeights[i] = MISS;
+    }
+  }
+
+  private int indexOf(long itemId, int viewType, int width) {
+    long hash = itemId * 0x9E3779B97F4A7C15L;
+    hash ^= (viewType * 31L + width) * 0xC2B2AE3D27D4EB4FL;
+    hash ^= hash >>> 32;
+    return (int) hash & mMask;
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Support for lists nested in the rows of a {@link RecyclerViewProxy}, such as horizontal
+ * carousels.
+ *
+ * All nested lists bound with {@link #bindNestedList(LinearRecyclerView, long)} share one
+ * {@link RecyclerView.RecycledViewPool}, and give their views back to it when their row is
+ * detached, so rebinding a carousel reuses views instead of inflating new ones. The scroll
+ * position of each nested list is kept by the stable id of the outer row, and restored when a row
+ * with that id is bound again. The positions of the most recently used rows are kept, up to
+ * {@link ScrollStateMap#DEFAULT_MAX_SIZE}.
+ *
+ * Must only be used from the main thread.
+ */
+public class NestedListSupport {
+
+  private static final int TAG_KEY = R.id.scrolling_view_proxy_nested_list_binding;
+
+  /**
+   * Remembers which outer row a nested list is bound to, and saves its position as it scrolls.
+   */
+  private class NestedListBinding extends RecyclerView.OnScrollListener {
+
+    long mOuterItemId = RecyclerView.NO_ID;
+
+    @Override
+    public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+      if (mOuterItemId != RecyclerView.NO_ID) {
+        saveScrollState(mOuterItemId, (LinearRecyclerView) recyclerView);
+      }
+    }
+  }
+
+  private final ProxyRecycledViewPool mSharedPool = new ProxyRecycledViewPool();
+  private final ScrollStateMap mScrollStates = new ScrollStateMap();
+  private int mInitialPrefetchItemCount;
+
+  /**
+   * @return the pool shared by every nested list bound through this object.
+   */
+  public ProxyRecycledViewPool getSharedPool() {
+    return mSharedPool;
+  }
+
+  /**
+   * @param initialPrefetchItemCount how many views of a type {@link #prefetch} creates ahead of
+   * time, typically the number of items visible in a nested list when it first appears.
+   */
+  public void setInitialPrefetchItemCount(int initialPrefetchItemCount) {
+    mInitialPrefetchItemCount = initialPrefetchItemCount;
+  }
+
+  /**
+   * Fills the shared pool with {@link #setInitialPrefetchItemCount(int)} views of
+   * {@code viewType}, so the first nested list to show them doesn't have to inflate them while
+   * scrolling.
+   *
+   * @param innerAdapter the adapter of the nested lists.
+   * @param parent a nested list, used as the parent to inflate the views with.
+   */
+  public void prefetch(RecyclerView.Adapter innerAdapter, ViewGroup parent, int viewType) {
+    int missing = mInitialPrefetchItemCount - mSharedPool.getRecycledViewCount(viewType);
+    if (mSharedPool.getMaxRecycledViews(viewType) < mInitialPrefetchItemCount) {
+      mSharedPool.setMaxRecycledViews(viewType, mInitialPrefetchItemCount);
+    }
+    for (int i = 0; i < missing; i++) {
+      mSharedPool.putRecycledView(innerAdapter.createViewHolder(parent, viewType));
+    }
+  }
+
+  /**
+   * Call from the outer row's bind, after setting the nested list's adapter. Restores the scroll
+   * position the nested list had the last time a row with {@code outerItemId} was bound.
+   */
+  public void bindNestedList(LinearRecyclerView nestedList, long outerItemId) {
+    NestedListBinding binding = (NestedListBinding) nestedList.getTag(TAG_KEY);
+    if (binding == null) {
+      binding = new NestedListBinding();
+      nestedList.setTag(TAG_KEY, binding);
+      nestedList.setRecycledViewPool(mSharedPool);
+      nestedList.getLinearLayoutManager().setRecycleChildrenOnDetach(true);
+      nestedList.addOnScrollListener(binding);
+    }
+    binding.mOuterItemId = outerItemId;
+
+    int position = mScrollStates.getPosition(outerItemId);
+    LinearLayoutManager layoutManager = nestedList.getLinearLayoutManager();
+    if (position == ScrollStateMap.NO_POSITION) {
+      layoutManager.scrollToPositionWithOffset(0, 0);
+    } else {
+      layoutManager.scrollToPositionWithOffset(position, mScrollStates.getOffset(outerItemId));
+    }
+  }
+
+  /**
+   * Forgets the saved scroll position of every nested list.
+   */
+  public void clearScrollStates() {
+    mScrollStates.clear();
+  }
+
+  private void saveScrollState(long outerItemId, LinearRecyclerView nestedList) {
+    LinearLayoutManager layoutManager = nestedList.getLinearLayoutManager();
+    int position = layoutManager.findFirstVisibleItemPosition();
+    View firstChild = position == RecyclerView.NO_POSITION
+        ? null
+        : layoutManager.findViewByPosition(position);
+    if (firstChild == null) {
+      return;
+    }
+    int offset = layoutManager.getOrientation() == LinearLayoutManager.HORIZONTAL
+        ? layoutManager.getDecoratedLeft(firstChild) - layoutManager.getPaddingLeft()
+        : layoutManager.getDecoratedTop(firstChild) - layoutManager.getPaddingTop();
+    mScrollStates.put(outerItemId, position, offset);
+  }
+}
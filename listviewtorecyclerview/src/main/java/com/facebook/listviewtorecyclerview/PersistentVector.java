@@ -0,0 +1,300 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+/**
+ * An immutable list stored as a B-tree of small chunks. Every modification returns a new
+ * version which shares all but O(log n) chunks with the previous one, so insert, remove and set
+ * are O(log n), and keeping an old version around as a snapshot is free.
+ *
+ * Instances can be read from any thread without locking.
+ */
+public final class PersistentVector<T> {
+
+  private static final int MAX_CHUNK_SIZE = 32;
+  private static final int MIN_CHUNK_SIZE = MAX_CHUNK_SIZE / 4;
+
+  private static final PersistentVector<Object> EMPTY =
+      new PersistentVector<>(new Leaf(new Object[0]));
+
+  private final Node mRoot;
+
+  private PersistentVector(Node root) {
+    mRoot = root;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> PersistentVector<T> empty() {
+    return (PersistentVector<T>) EMPTY;
+  }
+
+  public int size() {
+    return mRoot.mSize;
+  }
+
+  public boolean isEmpty() {
+    return mRoot.mSize == 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  public T get(int index) {
+    checkIndex(index, mRoot.mSize);
+    return (T) mRoot.get(index);
+  }
+
+  public PersistentVector<T> set(int index, T item) {
+    checkIndex(index, mRoot.mSize);
+    return new PersistentVector<>(mRoot.set(index, item));
+  }
+
+  public PersistentVector<T> add(T item) {
+    return insert(mRoot.mSize, item);
+  }
+
+  public PersistentVector<T> insert(int index, T item) {
+    checkIndex(index, mRoot.mSize + 1);
+    Node[] nodes = mRoot.insert(index, item);
+    return new PersistentVector<>(nodes.length == 1 ? nodes[0] : new Branch(nodes));
+  }
+
+  public PersistentVector<T> remove(int index) {
+    checkIndex(index, mRoot.mSize);
+    Node root = mRoot.remove(index);
+    if (root.mSize == 0) {
+      return empty();
+    }
+    while (root instanceof Branch && ((Branch) root).mChildren.length == 1) {
+      root = ((Branch) root).mChildren[0];
+    }
+    return new PersistentVector<>(root);
+  }
+
+  private static void checkIndex(int index, int size) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+  }
+
+  private abstract static class Node {
+
+    final int mSize;
+
+    Node(int size) {
+      mSize = size;
+    }
+
+    abstract Object get(int index);
+
+    abstract Node set(int index, Object item);
+
+    /**
+     * @return the new node, or two nodes if it had to be split.
+     */
+    abstract Node[] insert(int index, Object item);
+
+    /**
+     * @return the new node, which may be empty or smaller than {@link #MIN_CHUNK_SIZE}.
+     */
+    abstract Node remove(int index);
+
+    abstract int width();
+
+    /**
+     * @return the concatenation of this node and {@code right}, or null if it would not fit.
+     */
+    abstract Node merge(Node right);
+  }
+
+  private static final class Leaf extends Node {
+
+    final Object[] mItems;
+
+    Leaf(Object[] items) {
+      super(items.length);
+      mItems = items;
+    }
+
+    @Override
+    Object get(int index) {
+      return mItems[index];
+    }
+
+    @Override
+    Node set(int index, Object item) {
+      Object[] items = mItems.clone();
+      items[index] = item;
+      return new Leaf(items);
+    }
+
+    @Override
+    Node[] insert(int index, Object item) {
+      Object[] items = new Object[mItems.length + 1];
+      System.arraycopy(mItems, 0, items, 0, index);
+      items[index] = item;
+      System.arraycopy(mItems, index, items, index + 1, mItems.length - index);
+      if (items.length <= MAX_CHUNK_SIZE) {
+        return new Node[] { new Leaf(items) };
+      }
+      int half = items.length / 2;
+      Object[] left = new Object[half];
+      Object[] right = new Object[items.length - half];
+      System.arraycopy(items, 0, left, 0, half);
+      System.arraycopy(items, half, right, 0, right.length);
+      return new Node[] { new Leaf(left), new Leaf(right) };
+    }
+
+    @Override
+    Node remove(int index) {
+      Object[] items = new Object[mItems.length - 1];
+      System.arraycopy(mItems, 0, items, 0, index);
+      System.arraycopy(mItems, index + 1, items, index, items.length - index);
+      return new Leaf(items);
+    }
+
+    @Override
+    int width() {
+      return mItems.length;
+    }
+
+    @Override
+    Node merge(Node right) {
+      Object[] rightItems = ((Leaf) right).mItems;
+      if (mItems.length + rightItems.length > MAX_CHUNK_SIZE) {
+        return null;
+      }
+      Object[] items = new Object[mItems.length + rightItems.length];
+      System.arraycopy(mItems, 0, items, 0, mItems.length);
+      System.arraycopy(rightItems, 0, items, mItems.length, rightItems.length);
+      return new Leaf(items);
+    }
+  }
+
+  private static final class Branch extends Node {
+
+    final Node[] mChildren;
+    /** The number of items before each child. */
+    final int[] mOffsets;
+
+    Branch(Node[] children) {
+      super(sumSizes(children));
+      mChildren = children;
+      mOffsets = new int[children.length];
+      for (int i = 1; i < children.length; i++) {
+        mOffsets[i] = mOffsets[i - 1] + children[i - 1].mSize;
+      }
+    }
+
+    @Override
+    Object get(int index) {
+      int child = findChild(index);
+      return mChildren[child].get(index - mOffsets[child]);
+    }
+
+    @Override
+    Node set(int index, Object item) {
+      int child = findChild(index);
+      Node[] children = mChildren.clone();
+      children[child] = mChildren[child].set(index - mOffsets[child], item);
+      return new Branch(children);
+    }
+
+    @Override
+    Node[] insert(int index, Object item) {
+      int child = index == mSize ? mChildren.length - 1 : findChild(index);
+      Node[] inserted = mChildren[child].insert(index - mOffsets[child], item);
+      Node[] children = new Node[mChildren.length + inserted.length - 1];
+      System.arraycopy(mChildren, 0, children, 0, child);
+      System.arraycopy(inserted, 0, children, child, inserted.length);
+      System.arraycopy(
+          mChildren,
+          child + 1,
+          children,
+          child + inserted.length,
+          mChildren.length - child - 1);
+      if (children.length <= MAX_CHUNK_SIZE) {
+        return new Node[] { new Branch(children) };
+      }
+      int half = children.length / 2;
+      Node[] left = new Node[half];
+      Node[] right = new Node[children.length - half];
+      System.arraycopy(children, 0, left, 0, half);
+      System.arraycopy(children, half, right, 0, right.length);
+      return new Node[] { new Branch(left), new Branch(right) };
+    }
+
+    @Override
+    Node remove(int index) {
+      int child = findChild(index);
+      Node removed = mChildren[child].remove(index - mOffsets[child]);
+      if (removed.mSize == 0) {
+        Node[] children = new Node[mChildren.length - 1];
+        System.arraycopy(mChildren, 0, children, 0, child);
+        System.arraycopy(mChildren, child + 1, children, child, children.length - child);
+        return new Branch(children);
+      }
+
+      Node[] children = mChildren.clone();
+      children[child] = removed;
+      if (removed.width() >= MIN_CHUNK_SIZE || children.length == 1) {
+        return new Branch(children);
+      }
+      // Merge an underfull child into a sibling, so the tree stays shallow.
+      int left = child > 0 ? child - 1 : child;
+      Node merged = children[left].merge(children[left + 1]);
+      if (merged == null) {
+        return new Branch(children);
+      }
+      Node[] mergedChildren = new Node[children.length - 1];
+      System.arraycopy(children, 0, mergedChildren, 0, left);
+      mergedChildren[left] = merged;
+      System.arraycopy(
+          children, left + 2, mergedChildren, left + 1, mergedChildren.length - left - 1);
+      return new Branch(mergedChildren);
+    }
+
+    @Override
+    int width() {
+      return mChildren.length;
+    }
+
+    @Override
+    Node merge(Node right) {
+      Node[] rightChildren = ((Branch) right).mChildren;
+      if (mChildren.length + rightChildren.length > MAX_CHUNK_SIZE) {
+        return null;
+      }
+      Node[] children = new Node[mChildren.length + rightChildren.length];
+      System.arraycopy(mChildren, 0, children, 0, mChildren.length);
+      System.arraycopy(rightChildren, 0, children, mChildren.length, rightChildren.length);
+      return new Branch(children);
+    }
+
+    private int findChild(int index) {
+      int low = 0;
+      int high = mOffsets.length - 1;
+      while (low < high) {
+        int middle = (low + high + 1) >>> 1;
+        if (mOffsets[middle] <= index) {
+          low = middle;
+        } else {
+          high = middle - 1;
+        }
+      }
+      return low;
+    }
+
+    private static int sumSizes(Node[] children) {
+      int size = 0;
+      for (Node child : children) {
+        size += child.mSize;
+      }
+      return size;
+    }
+  }
+}
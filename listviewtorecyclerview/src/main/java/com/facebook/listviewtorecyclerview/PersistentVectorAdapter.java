@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.database.DataSetObserver;
+
+import java.util.List;
+
+/**
+ * A {@link ScrollingViewProxy.Adapter} over a {@link PersistentVector}.
+ *
+ * {@link #getSnapshot()} hands out the current version in O(1), so background work such as
+ * diffing can read a stable copy of the items and build the next version without copying them.
+ * {@link #getCount()} and {@link #getItem(int)} read a single volatile field and never lock.
+ *
+ * Modifications must happen on the main thread. Those made through this class notify the exact
+ * range that changed; {@link #setItems(PersistentVector)} publishes a version built elsewhere.
+ */
+public abstract class PersistentVectorAdapter<T> extends ScrollingViewProxy.BaseAdapter
+    implements ScrollingViewProxy.RangeAdapter {
+
+  private final RangeDataSetObservable mObservable = new RangeDataSetObservable();
+
+  private volatile PersistentVector<T> mItems = PersistentVector.empty();
+
+  /**
+   * @return the current version of the items, which never changes.
+   */
+  public PersistentVector<T> getSnapshot() {
+    return mItems;
+  }
+
+  /**
+   * Replaces the items with a version built from a snapshot, and notifies a full change.
+   */
+  public void setItems(PersistentVector<T> items) {
+    mItems = items;
+    mObservable.notifyChanged();
+  }
+
+  public void add(T item) {
+    insert(mItems.size(), item);
+  }
+
+  public void insert(int position, T item) {
+    mItems = mItems.insert(position, item);
+    mObservable.notifyItemRangeInserted(position, 1);
+  }
+
+  /**
+   * Inserts {@code items} at {@code position} with a single range notification, so that a page
+   * of older items prepended to a {@link RecyclerViewProxy} only binds the rows that end up
+   * visible, and keeps the rows on screen in place.
+   */
+  public void insertAll(int position, List<? extends T> items) {
+    if (items.isEmpty()) {
+      return;
+    }
+    PersistentVector<T> newItems = mItems;
+    for (int i = 0; i < items.size(); i++) {
+      newItems = newItems.insert(position + i, items.get(i));
+    }
+    mItems = newItems;
+    mObservable.notifyItemRangeInserted(position, items.size());
+  }
+
+  public void set(int position, T item) {
+    mItems = mItems.set(position, item);
+    mObservable.notifyItemRangeChanged(position, 1);
+  }
+
+  public void remove(int position) {
+    mItems = mItems.remove(position);
+    mObservable.notifyItemRangeRemoved(position, 1);
+  }
+
+  @Override
+  public boolean areAllItemsEnabled() {
+    return true;
+  }
+
+  @Override
+  public boolean isEnabled(int position) {
+    return true;
+  }
+
+  @Override
+  public void registerDataSetObserver(DataSetObserver observer) {
+    mObservable.registerObserver(observer);
+  }
+
+  @Override
+  public void unregisterDataSetObserver(DataSetObserver observer) {
+    mObservable.unregisterObserver(observer);
+  }
+
+  @Override
+  public int getCount() {
+    return mItems.size();
+  }
+
+  @Override
+  public T getItem(int position) {
+    return mItems.get(position);
+  }
+
+  @Override
+  public boolean hasStableIds() {
+    return false;
+  }
+
+  @Override
+  public long getItemId(int position) {
+    return position;
+  }
+
+  @Override
+  public int getItemViewType(int position) {
+    return 0;
+  }
+
+  @Override
+  public int getViewTypeCount() {
+    return 1;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return mItems.isEmpty();
+  }
+}
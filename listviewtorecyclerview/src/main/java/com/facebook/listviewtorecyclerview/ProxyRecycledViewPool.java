@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseIntArray;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * A {@link RecyclerView.RecycledViewPool} which keeps track of how many views of each type it
+ * holds, so that hits, misses and views dropped because the pool is full can be counted in a
+ * {@link RecyclerPoolStats}.
+ *
+ * Like its parent, this class must only be used from the main thread.
+ */
+public class ProxyRecycledViewPool extends RecyclerView.RecycledViewPool {
+
+  /** Matches the default size of {@link RecyclerView.RecycledViewPool}. */
+  static final int DEFAULT_MAX_RECYCLED_VIEWS = 5;
+
+  /** A rough size of a view object with its layout params, background and listeners. */
+  private static final int VIEW_BYTES = 1024;
+
+  private final SparseIntArray mRecycledViewCounts = new SparseIntArray();
+  private final SparseIntArray mMaxRecycledViews = new SparseIntArray();
+  private RecyclerPoolStats mStats;
+
+  /**
+   * @param stats where to count pool hits, misses and drops, or null to stop counting.
+   */
+  public void setStats(RecyclerPoolStats stats) {
+    mStats = stats;
+  }
+
+  /**
+   * @return the number of views of this type currently held by the pool.
+   */
+  public int getRecycledViewCount(int viewType) {
+    return mRecycledViewCounts.get(viewType);
+  }
+
+  public int getMaxRecycledViews(int viewType) {
+    return mMaxRecycledViews.get(viewType, DEFAULT_MAX_RECYCLED_VIEWS);
+  }
+
+  @Override
+  public void setMaxRecycledViews(int viewType, int max) {
+    super.setMaxRecycledViews(viewType, max);
+    mMaxRecycledViews.put(viewType, max);
+    if (mRecycledViewCounts.get(viewType) > max) {
+      mRecycledViewCounts.put(viewType, max);
+    }
+  }
+
+  @Override
+  public RecyclerView.ViewHolder getRecycledView(int viewType) {
+    RecyclerView.ViewHolder holder = super.getRecycledView(viewType);
+    if (holder != null) {
+      mRecycledViewCounts.put(viewType, mRecycledViewCounts.get(viewType) - 1);
+    }
+    if (mStats != null) {
+      mStats.increment(
+          viewType,
+          holder != null ? RecyclerPoolStats.POOL_HITS : RecyclerPoolStats.POOL_MISSES);
+    }
+    return holder;
+  }
+
+  @Override
+  public void putRecycledView(RecyclerView.ViewHolder scrap) {
+    int viewType = scrap.getItemViewType();
+    int count = mRecycledViewCounts.get(viewType);
+    if (count >= getMaxRecycledViews(viewType)) {
+      if (mStats != null) {
+        mStats.increment(viewType, RecyclerPoolStats.POOL_FULL_DROPS);
+      }
+    } else {
+      mRecycledViewCounts.put(viewType, count + 1);
+    }
+    super.putRecycledView(scrap);
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    mRecycledViewCounts.clear();
+  }
+
+  /**
+   * Drops pooled views until at most {@code fraction} of the maximum of each type are left. The
+   * maximums are kept, so the pool fills up again as views are recycled.
+   *
+   * @return the estimated size of the dropped views.
+   */
+  public int trim(float fraction) {
+    int trimmed = 0;
+    for (int i = 0; i < mRecycledViewCounts.size(); i++) {
+      int viewType = mRecycledViewCounts.keyAt(i);
+      int size = (int) (getMaxRecycledViews(viewType) * fraction);
+      int count = mRecycledViewCounts.valueAt(i);
+      while (count > size) {
+        // Not a pool hit, so the parent is asked directly.
+        RecyclerView.ViewHolder holder = super.getRecycledView(viewType);
+        if (holder == null) {
+          break;
+        }
+        trimmed += estimateBytes(holder.itemView);
+        count--;
+      }
+      mRecycledViewCounts.put(viewType, count);
+    }
+    return trimmed;
+  }
+
+  /**
+   * @return a rough size of {@code view} and its descendants, not counting bitmaps they share.
+   */
+  static int estimateBytes(View view) {
+    int bytes = VIEW_BYTES;
+    if (view instanceof ViewGroup) {
+      ViewGroup group = (ViewGroup) view;
+      for (int i = 0; i < group.getChildCount(); i++) {
+        bytes += estimateBytes(group.getChildAt(i));
+      }
+    }
+    return bytes;
+  }
+}
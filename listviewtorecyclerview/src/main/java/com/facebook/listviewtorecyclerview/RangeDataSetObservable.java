@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.database.DataSetObservable;
+import android.database.DataSetObserver;
+
+/**
+ * A {@link DataSetObservable} which can notify {@link DataSetRangeObserver}s of the exact range of
+ * items that changed. Plain {@link DataSetObserver}s are notified with
+ * {@link DataSetObserver#onChanged()} instead.
+ *
+ * Use it to implement {@link android.widget.ListAdapter#registerDataSetObserver} so that
+ * {@link RecyclerViewProxy} can animate and anchor range changes instead of resetting the list.
+ * Adapters which also implement {@link ScrollingViewProxy.RangeAdapter} get range changes under a
+ * {@link ListViewProxy} too.
+ */
+public class RangeDataSetObservable extends DataSetObservable {
+
+  public void notifyItemRangeChanged(int positionStart, int itemCount) {
+    synchronized (mObservers) {
+      for (int i = mObservers.size() - 1; i >= 0; i--) {
+        DataSetObserver observer = mObservers.get(i);
+        if (observer instanceof DataSetRangeObserver) {
+          ((DataSetRangeObserver) observer).onItemRangeChanged(positionStart, itemCount);
+        } else {
+          observer.onChanged();
+        }
+      }
+    }
+  }
+
+  public void notifyItemRangeInserted(int positionStart, int itemCount) {
+    synchronized (mObservers) {
+      for (int i = mObservers.size() - 1; i >= 0; i--) {
+        DataSetObserver observer = mObservers.get(i);
+        if (observer instanceof DataSetRangeObserver) {
+          ((DataSetRangeObserver) observer).onItemRangeInserted(positionStart, itemCount);
+        } else {
+          observer.onChanged();
+        }
+      }
+    }
+  }
+
+  public void notifyItemRangeRemoved(int positionStart, int itemCount) {
+    synchronized (mObservers) {
+      for (int i = mObservers.size() - 1; i >= 0; i--) {
+        DataSetObserver observer = mObservers.get(i);
+        if (observer instanceof DataSetRangeObserver) {
+          ((DataSetRangeObserver) observer).onItemRangeRemoved(positionStart, itemCount);
+        } else {
+          observer.onChanged();
+        }
+      }
+    }
+  }
+
+  public void notifyItemMoved(int fromPosition, int toPosition) {
+    synchronized (mObservers) {
+      for (int i = mObservers.size() - 1; i >= 0; i--) {
+        DataSetObserver observer = mObservers.get(i);
+        if (observer instanceof DataSetRangeObserver) {
+          ((DataSetRangeObserver) observer).onItemRangeMoved(fromPosition, toPosition, 1);
+        } else {
+          observer.onChanged();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per view type counters of how well a {@link RecyclerViewProxy} recycles its views.
+ *
+ * Counters are updated on the main thread without locks or allocations, and can be read from any
+ * thread with {@link #getSnapshot()}. Header and footer views are counted together under
+ * {@link #AUXILIARY_VIEW_TYPE}, and view types past the capacity are counted with the last one.
+ */
+public class RecyclerPoolStats {
+
+  public static final int AUXILIARY_VIEW_TYPE = -1;
+
+  public static final int DEFAULT_VIEW_TYPE_CAPACITY = 16;
+
+  static final int CREATES = 0;
+  static final int BINDS = 1;
+  static final int POOL_HITS = 2;
+  static final int POOL_MISSES = 3;
+  static final int RECYCLES = 4;
+  static final int FAILED_RECYCLES = 5;
+  static final int POOL_FULL_DROPS = 6;
+  static final int SKIPPED_BINDS = 7;
+  private static final int COUNTER_COUNT = 8;
+
+  /**
+   * An immutable copy of the counters at the time it was taken.
+   */
+  public static class Snapshot {
+
+    private final int mViewTypeCapacity;
+    private final long[] mCounters;
+
+    private Snapshot(int viewTypeCapacity, long[] counters) {
+      mViewTypeCapacity = viewTypeCapacity;
+      mCounters = counters;
+    }
+
+    /** @return how many views of this type were inflated. */
+    public long getCreates(int viewType) {
+      return get(viewType, CREATES);
+    }
+
+    /** @return how many views of this type were bound, including skipped binds. */
+    public long getBinds(int viewType) {
+      return get(viewType, BINDS);
+    }
+
+    /** @return how many times a view of this type was found in the pool. */
+    public long getPoolHits(int viewType) {
+      return get(viewType, POOL_HITS);
+    }
+
+    /** @return how many times the pool had no view of this type and one had to be inflated. */
+    public long getPoolMisses(int viewType) {
+      return get(viewType, POOL_MISSES);
+    }
+
+    /** @return how many views of this type were recycled. */
+    public long getRecycles(int viewType) {
+      return get(viewType, RECYCLES);
+    }
+
+    /** @return how many views of this type could not be recycled, e.g. due to transient state. */
+    public long getFailedRecycles(int viewType) {
+      return get(viewType, FAILED_RECYCLES);
+    }
+
+    /** @return how many recycled views of this type were thrown away because the pool was full. */
+    public long getPoolFullDrops(int viewType) {
+      return get(viewType, POOL_FULL_DROPS);
+    }
+
+    /**
+     * @return how many binds of this type were skipped because the view already showed the same
+     * content, see {@link ScrollingViewProxy.FingerprintAdapter}.
+     */
+    public long getSkippedBinds(int viewType) {
+      return get(viewType, SKIPPED_BINDS);
+    }
+
+    private long get(int viewType, int counter) {
+      return mCounters[slotOf(viewType, mViewTypeCapacity) * COUNTER_COUNT + counter];
+    }
+  }
+
+  private final int mViewTypeCapacity;
+  private final AtomicLongArray mCounters;
+
+  public RecyclerPoolStats() {
+    this(DEFAULT_VIEW_TYPE_CAPACITY);
+  }
+
+  /**
+   * @param viewTypeCapacity the number of view types, starting at 0, to count separately.
+   */
+  public RecyclerPoolStats(int viewTypeCapacity) {
+    mViewTypeCapacity = viewTypeCapacity;
+    // One extra slot for the auxiliary views.
+    mCounters = new AtomicLongArray((viewTypeCapacity + 1) * COUNTER_COUNT);
+  }
+
+  public Snapshot getSnapshot() {
+    long[] counters = new long[mCounters.length()];
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] = mCounters.get(i);
+    }
+    return new Snapshot(mViewTypeCapacity, counters);
+  }
+
+  public void reset() {
+    for (int i = 0; i < mCounters.length(); i++) {
+      mCounters.set(i, 0);
+    }
+  }
+
+  void increment(int viewType, int counter) {
+    mCounters.incrementAndGet(slotOf(viewType, mViewTypeCapacity) * COUNTER_COUNT + counter);
+  }
+
+  private static int slotOf(int viewType, int viewTypeCapacity) {
+    if (viewType < 0) {
+      return viewTypeCapacity;
+    }
+    return Math.min(viewType, viewTypeCapacity - 1);
+  }
+}
@@ -7,8 +7,14 @@
  */
 package com.facebook.listviewtorecyclerview;
 
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
 import android.graphics.drawable.Drawable;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Parcel;
 import android.os.Parcelable;
+import android.support.v4.view.ViewCompat;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.view.View;
@@ -18,6 +24,7 @@ import android.widget.ListAdapter;
 import android.widget.ListView;
 
 import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
 
 import static android.support.v7.widget.RecyclerView.NO_POSITION;
 
@@ -35,17 +42,65 @@ public class RecyclerViewProxy implements ScrollingViewProxy {
   private static final String UNIMPLEMENTED_METHOD =
       "RecyclerViewProxy has not yet implemented this method.";
 
+  private static final int DEFAULT_DEFERRED_BIND_SETTLE_SPEED = 8;
+  private static final int DEFAULT_RENDER_MODEL_PREFETCH_DISTANCE = 8;
+  private static final long DEFERRED_BIND_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(4);
+  /** A rough size of a prepared render model, which can't be measured. */
+  private static final int RENDER_MODEL_BYTES = 256;
+
+  /**
+   * Notified after this list released memory for a {@link ComponentCallbacks2} trim level.
+   */
+  public interface OnTrimMemoryListener {
+
+    /**
+     * @param trimmedBytes the estimated size of the views, render models and text layouts
+     * released.
+     */
+    void onTrimMemory(int level, int trimmedBytes);
+  }
+
   private final LinearRecyclerView mRecyclerView;
+  private final RowTaskScheduler mRowTaskScheduler = new RowTaskScheduler();
 
   private OnScrollListener mScrollListener;
   private LinearRecyclerViewAdapter mRecyclerViewAdapter;
   private ListAdapter mListViewAdapter;
-  private ArrayList<View> mHeaderViews = new ArrayList<>();
-  private ArrayList<View> mFooterViews = new ArrayList<>();
+  private ArrayList<AuxiliaryView> mHeaderViews = new ArrayList<>();
+  private ArrayList<AuxiliaryView> mFooterViews = new ArrayList<>();
 
   private int mFirstVisibleItem;
   private int mLastVisibleItem;
 
+  private RecyclerPoolStats mPoolStats;
+  private FrameMonitor mFrameMonitor;
+  private TextLayoutCache mTextLayoutCache;
+  private NestedListSupport mNestedListSupport;
+  private StickySectionHeaderDecoration mStickySectionHeaderDecoration;
+  private boolean mCoalesceDataSetChanges;
+  private int mTranscriptMode = TRANSCRIPT_MODE_DISABLED;
+  private TransientStateStore mTransientStateStore;
+  private boolean mMemoryTrimmingEnabled;
+  private OnTrimMemoryListener mOnTrimMemoryListener;
+  private final ComponentCallbacks2 mTrimMemoryCallbacks = createTrimMemoryCallbacks();
+  private final View.OnAttachStateChangeListener mTrimMemoryAttachStateListener =
+      createTrimMemoryAttachStateListener();
+  private final RecyclerView.AdapterDataObserver mTranscriptObserver =
+      createTranscriptObserver();
+
+  private int mRenderModelPrefetchDistance = DEFAULT_RENDER_MODEL_PREFETCH_DISTANCE;
+
+  private boolean mDeferBindsWhileFlinging;
+  private int mDeferredBindSettleSpeed = DEFAULT_DEFERRED_BIND_SETTLE_SPEED;
+  private boolean mDeferredBindsScheduled;
+  private final MessageQueue.IdleHandler mDeferredBindIdleHandler = createDeferredBindIdleHandler();
+  private final Runnable mScheduleDeferredBinds = new Runnable() {
+    @Override
+    public void run() {
+      Looper.myQueue().addIdleHandler(mDeferredBindIdleHandler);
+    }
+  };
+
   public RecyclerViewProxy(LinearRecyclerView recyclerView) {
     if (!(recyclerView.getLayoutManager() instanceof LinearLayoutManager)) {
       throw new IllegalStateException();
@@ -53,6 +108,7 @@ public class RecyclerViewProxy implements ScrollingViewProxy {
     mRecyclerView = recyclerView;
     RecyclerView.OnScrollListener delegatedListener = createDelegatingScrollListener();
     mRecyclerView.addOnScrollListener(delegatedListener);
+    mRecyclerView.addOnAttachStateChangeListener(createAsyncWorkAttachStateListener());
   }
 
   @Override
@@ -77,28 +133,75 @@ public class RecyclerViewProxy implements ScrollingViewProxy {
 
   @Override
   public void addHeaderView(View view, Object data, boolean isSelectable) {
-    mHeaderViews.add(view);
+    mHeaderViews.add(AuxiliaryView.of(view));
     updateAuxiliaryViews();
   }
 
   @Override
   public void addFooterView(View view, Object data, boolean isSelectable) {
-    mFooterViews.add(view);
+    mFooterViews.add(AuxiliaryView.of(view));
     updateAuxiliaryViews();
   }
 
   @Override
   public void removeHeaderView(View view) {
-    mHeaderViews.remove(view);
+    removeAuxiliaryView(mHeaderViews, view, null);
     updateAuxiliaryViews();
   }
 
   @Override
   public void removeFooterView(View view) {
-    mFooterViews.remove(view);
+    removeAuxiliaryView(mFooterViews, view, null);
     updateAuxiliaryViews();
   }
 
+  @Override
+  public void addHeaderViewProvider(ViewProvider provider) {
+    mHeaderViews.add(AuxiliaryView.of(provider));
+    updateAuxiliaryViews();
+  }
+
+  @Override
+  public void addFooterViewProvider(ViewProvider provider) {
+    mFooterViews.add(AuxiliaryView.of(provider));
+    updateAuxiliaryViews();
+  }
+
+  @Override
+  public void removeHeaderViewProvider(ViewProvider provider) {
+    removeAuxiliaryView(mHeaderViews, null, provider);
+    updateAuxiliaryViews();
+  }
+
+  @Override
+  public void removeFooterViewProvider(ViewProvider provider) {
+    removeAuxiliaryView(mFooterViews, null, provider);
+    updateAuxiliaryViews();
+  }
+
+  /**
+   * Releases the views of header and footer providers which are off-screen and at least
+   * {@code minDistance} positions away from the visible rows, for example when memory is low.
+   * Their providers are asked for new views when they are scrolled back.
+   *
+   * @return the number of views released.
+   */
+  public int releaseOffscreenAuxiliaryViews(int minDistance) {
+    ArrayList<View> released = new ArrayList<>();
+    releaseOffscreenAuxiliaryViews(minDistance, released);
+    return released.size();
+  }
+
+  private void releaseOffscreenAuxiliaryViews(int minDistance, ArrayList<View> released) {
+    int firstVisible = getFirstVisiblePosition();
+    int lastVisible = getLastVisiblePosition();
+    int footersStart =
+        mHeaderViews.size() + (mListViewAdapter != null ? mListViewAdapter.getCount() : 0);
+    releaseAuxiliaryViews(mHeaderViews, 0, firstVisible, lastVisible, minDistance, released);
+    releaseAuxiliaryViews(
+        mFooterViews, footersStart, firstVisible, lastVisible, minDistance, released);
+  }
+
   @Override
   public void setOnScrollListener(OnScrollListener onScrollListener) {
     mScrollListener = onScrollListener;
@@ -376,17 +479,121 @@ public class RecyclerViewProxy implements ScrollingViewProxy {
 
   @Override
   public void setAdapter(Adapter adapter) {
+    if (mStickySectionHeaderDecoration != null) {
+      mStickySectionHeaderDecoration.setAdapter(adapter);
+    }
     if (adapter == null) {
+      stopTranscript();
       mRecyclerViewAdapter = null;
       mListViewAdapter = null;
       mRecyclerView.setAdapter(null);
       return;
     }
 
+    wrapAdapter(adapter);
+    mRecyclerView.setAdapter(mRecyclerViewAdapter);
+  }
+
+  /**
+   * Replaces the adapter like {@link #setAdapter(Adapter)}, but keeps the recycled views and the
+   * views on screen when the caller vouches that both adapters create the same views for the same
+   * view types, so that switching costs binds instead of inflations. Falls back to
+   * {@link #setAdapter(Adapter)} otherwise, or if the adapters differ in their number of view types
+   * or their fixed heights. Kept views are always bound again by the new adapter.
+   *
+   * @param keepScrollPosition whether to keep the first visible row where it is, found by its
+   * item id if both adapters have stable ids and by its position otherwise. If false, the list
+   * starts at the top as it does after {@link #setAdapter(Adapter)}.
+   * @param viewTypesCompatible whether a view created by the current adapter for a view type can
+   * be bound by {@code adapter} for the same view type. Only the adapters know this, for example
+   * when they are two instances of the same class.
+   */
+  public void swapAdapter(
+      Adapter adapter,
+      boolean keepScrollPosition,
+      boolean viewTypesCompatible) {
+    LinearLayoutManager layoutManager = mRecyclerView.getLinearLayoutManager();
+    int anchorPosition = layoutManager.findFirstVisibleItemPosition();
+    int anchorOffset = 0;
+    long anchorId = RecyclerView.NO_ID;
+    View anchorView = anchorPosition != NO_POSITION
+        ? layoutManager.findViewByPosition(anchorPosition)
+        : null;
+    if (anchorView != null && mListViewAdapter != null) {
+      anchorOffset = layoutManager.getDecoratedTop(anchorView) - mRecyclerView.getPaddingTop();
+      int adjustedPosition = anchorPosition - mHeaderViews.size();
+      if (mListViewAdapter.hasStableIds()
+          && adjustedPosition >= 0
+          && adjustedPosition < mListViewAdapter.getCount()) {
+        anchorId = mListViewAdapter.getItemId(adjustedPosition);
+      }
+    }
+
+    if (!viewTypesCompatible
+        || mListViewAdapter == null
+        || adapter == null
+        || !hasCompatibleViewTypes(mListViewAdapter, adapter)) {
+      setAdapter(adapter);
+    } else {
+      if (mStickySectionHeaderDecoration != null) {
+        mStickySectionHeaderDecoration.setAdapter(adapter);
+      }
+      wrapAdapter(adapter);
+      mRecyclerView.swapAdapter(mRecyclerViewAdapter, false);
+    }
+
+    if (mRecyclerViewAdapter == null || anchorView == null) {
+      return;
+    }
+    if (!keepScrollPosition) {
+      layoutManager.scrollToPosition(0);
+      return;
+    }
+    if (anchorId != RecyclerView.NO_ID && adapter.hasStableIds()) {
+      int position = mRecyclerViewAdapter.getPositionForItemId(anchorId);
+      if (position != NO_POSITION) {
+        anchorPosition = position;
+      }
+    }
+    anchorPosition = Math.min(anchorPosition, mRecyclerViewAdapter.getItemCount() - 1);
+    layoutManager.scrollToPositionWithOffset(anchorPosition, anchorOffset);
+  }
+
+  /**
+   * Views can only be reused across adapters which have the same number of view types, and the
+   * same fixed height for each type, since views of fixed size types are created with their height.
+   */
+  private static boolean hasCompatibleViewTypes(ListAdapter oldAdapter, Adapter newAdapter) {
+    int viewTypeCount = oldAdapter.getViewTypeCount();
+    if (viewTypeCount != newAdapter.getViewTypeCount()) {
+      return false;
+    }
+    boolean oldFixedSize = oldAdapter instanceof FixedSizeAdapter;
+    if (oldFixedSize != newAdapter instanceof FixedSizeAdapter) {
+      return false;
+    }
+    if (!oldFixedSize) {
+      return true;
+    }
+    for (int viewType = 0; viewType < viewTypeCount; viewType++) {
+      if (((FixedSizeAdapter) oldAdapter).getFixedItemHeight(viewType)
+          != ((FixedSizeAdapter) newAdapter).getFixedItemHeight(viewType)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void wrapAdapter(Adapter adapter) {
+    stopTranscript();
     mListViewAdapter = adapter;
     mRecyclerViewAdapter = new LinearRecyclerViewAdapter(mRecyclerView, adapter);
+    mRecyclerViewAdapter.setPoolStats(mPoolStats);
+    mRecyclerViewAdapter.setFrameMonitor(mFrameMonitor);
+    mRecyclerViewAdapter.setCoalesceChanges(mCoalesceDataSetChanges);
+    mRecyclerViewAdapter.setTransientStateStore(mTransientStateStore);
     updateAuxiliaryViews();
-    mRecyclerView.setAdapter(mRecyclerViewAdapter);
+    startTranscript();
   }
 
   @Override
@@ -414,14 +621,131 @@ public class RecyclerViewProxy implements ScrollingViewProxy {
     return getAdapter() != null ? getAdapter().getItemId(position) : ListView.INVALID_ROW_ID;
   }
 
+  @Override
+  public int getPositionForItemId(long id) {
+    return mRecyclerViewAdapter != null
+        ? mRecyclerViewAdapter.getPositionForItemId(id)
+        : NO_POSITION;
+  }
+
+  @Override
+  public void setTextLayoutCache(TextLayoutCache textLayoutCache) {
+    if (mTextLayoutCache != null) {
+      mTextLayoutCache.detach(mRecyclerView);
+    }
+    mTextLayoutCache = textLayoutCache;
+    if (textLayoutCache != null) {
+      textLayoutCache.attach(mRecyclerView);
+    }
+  }
+
+  @Override
+  public void setFrameMonitor(FrameMonitor frameMonitor) {
+    if (mFrameMonitor != null) {
+      mFrameMonitor.onScrollStateChanged(OnScrollListener.SCROLL_STATE_IDLE);
+    }
+    mFrameMonitor = frameMonitor;
+    if (mRecyclerViewAdapter != null) {
+      mRecyclerViewAdapter.setFrameMonitor(frameMonitor);
+    }
+    if (frameMonitor != null) {
+      frameMonitor.onScrollStateChanged(mRecyclerView.getScrollState());
+    }
+  }
+
+  @Override
+  public ViewabilityTracker createViewabilityTracker(ViewabilityTracker.Listener listener) {
+    ViewabilityTracker.Rows rows = new ViewabilityTracker.Rows() {
+      @Override
+      public int getRowCount() {
+        return mRecyclerView.getChildCount();
+      }
+
+      @Override
+      public View getRowAt(int index) {
+        return mRecyclerView.getChildAt(index);
+      }
+
+      @Override
+      public boolean isItemRow(int index) {
+        RecyclerView.ViewHolder holder =
+            mRecyclerView.getChildViewHolder(mRecyclerView.getChildAt(index));
+        // Header and footer views have negative view types.
+        return holder.getItemViewType() >= 0 && holder.getAdapterPosition() != NO_POSITION;
+      }
+
+      @Override
+      public long getRowItemId(int index) {
+        RecyclerView.ViewHolder holder =
+            mRecyclerView.getChildViewHolder(mRecyclerView.getChildAt(index));
+        return mRecyclerViewAdapter.getItemId(holder.getAdapterPosition());
+      }
+    };
+    return new ViewabilityTracker(mRecyclerView, rows, listener);
+  }
+
+  /**
+   * Also saves the view state kept by {@link #setMaxTransientStates(int)}, including the state of
+   * the rows currently shown.
+   */
   @Override
   public Parcelable onSaveInstanceState() {
-    return mRecyclerView.onSaveInstanceState();
+    Parcelable listState = mRecyclerView.onSaveInstanceState();
+    if (mTransientStateStore == null) {
+      return listState;
+    }
+    TransientStateStore transientStates =
+        new TransientStateStore(mTransientStateStore.getMaxSize());
+    transientStates.putAll(mTransientStateStore);
+    if (mRecyclerViewAdapter != null) {
+      mRecyclerViewAdapter.saveTransientStates(transientStates);
+    }
+    return new SavedState(listState, transientStates);
   }
 
   @Override
   public void onRestoreInstanceState(Parcelable state) {
-    mRecyclerView.onRestoreInstanceState(state);
+    if (!(state instanceof SavedState)) {
+      mRecyclerView.onRestoreInstanceState(state);
+      return;
+    }
+    SavedState savedState = (SavedState) state;
+    if (mTransientStateStore != null) {
+      mTransientStateStore.putAll(savedState.mTransientStates);
+    }
+    mRecyclerView.onRestoreInstanceState(savedState.mListState);
+  }
+
+  /**
+   * Keeps the view state of up to {@code maxItems} recycled rows, such as typed text, expanded
+   * text or inner scroll positions, by the stable id of their item, and restores it when a row
+   * with that id is bound again. Only views with an id keep their state. The states are saved
+   * with the list's instance state, so keep the limit low.
+   *
+   * Rows with such state otherwise need to be made non-recyclable. Has no effect for adapters
+   * without stable ids. 0, the default, disables it. Call it before restoring the instance
+   * state for the saved states to be restored.
+   */
+  public void setMaxTransientStates(int maxItems) {
+    if (maxItems <= 0) {
+      mTransientStateStore = null;
+    } else if (mTransientStateStore == null) {
+      mTransientStateStore = new TransientStateStore(maxItems);
+    } else {
+      mTransientStateStore.setMaxSize(maxItems);
+    }
+    if (mRecyclerViewAdapter != null) {
+      mRecyclerViewAdapter.setTransientStateStore(mTransientStateStore);
+    }
+  }
+
+  /**
+   * Forgets the view state kept for recycled rows.
+   */
+  public void clearTransientStates() {
+    if (mTransientStateStore != null) {
+      mTransientStateStore.clear();
+    }
   }
 
   @Override
@@ -439,6 +763,313 @@ public class RecyclerViewProxy implements ScrollingViewProxy {
     unimplemented();
   }
 
+  @Override
+  public int getTranscriptMode() {
+    return mTranscriptMode;
+  }
+
+  @Override
+  public void setTranscriptMode(int mode) {
+    stopTranscript();
+    mTranscriptMode = mode;
+    startTranscript();
+  }
+
+  @Override
+  public boolean isStackFromBottom() {
+    return mRecyclerView.getLinearLayoutManager().getStackFromEnd();
+  }
+
+  @Override
+  public void setStackFromBottom(boolean stackFromBottom) {
+    mRecyclerView.getLinearLayoutManager().setStackFromEnd(stackFromBottom);
+  }
+
+  private void startTranscript() {
+    if (mTranscriptMode != TRANSCRIPT_MODE_DISABLED && mRecyclerViewAdapter != null) {
+      mRecyclerViewAdapter.registerAdapterDataObserver(mTranscriptObserver);
+    }
+  }
+
+  private void stopTranscript() {
+    if (mTranscriptMode != TRANSCRIPT_MODE_DISABLED && mRecyclerViewAdapter != null) {
+      mRecyclerViewAdapter.unregisterAdapterDataObserver(mTranscriptObserver);
+    }
+  }
+
+  /**
+   * Changes are observed before the next layout, so the list still shows the old items and
+   * whether it is scrolled to the end is what the user last saw. Inserts elsewhere than at the end
+   * are left to the layout manager, which keeps the first visible row in place.
+   */
+  private RecyclerView.AdapterDataObserver createTranscriptObserver() {
+    return new RecyclerView.AdapterDataObserver() {
+      @Override
+      public void onChanged() {
+        maybeScrollToEnd();
+      }
+
+      @Override
+      public void onItemRangeInserted(int positionStart, int itemCount) {
+        int footersStart = mRecyclerViewAdapter.getItemCount() - mFooterViews.size();
+        if (positionStart + itemCount == footersStart) {
+          maybeScrollToEnd();
+        }
+      }
+    };
+  }
+
+  private void maybeScrollToEnd() {
+    boolean scroll = mTranscriptMode == TRANSCRIPT_MODE_ALWAYS_SCROLL
+        || (mTranscriptMode == TRANSCRIPT_MODE_NORMAL && !mRecyclerView.canScrollVertically(1));
+    int itemCount = mRecyclerViewAdapter.getItemCount();
+    if (scroll && itemCount > 0) {
+      mRecyclerView.scrollToPosition(itemCount - 1);
+    }
+  }
+
+  /**
+   * @return the scheduler for background work of this list's rows. Queued tasks are prioritized
+   * by their distance to the visible range, which this proxy keeps up to date while scrolling.
+   */
+  public RowTaskScheduler getRowTaskScheduler() {
+    return mRowTaskScheduler;
+  }
+
+  /**
+   * Opt-in: merges every {@link android.database.DataSetObserver} signal of the adapter within a
+   * frame into a single full update, applied before the next traversal. The adapter may then
+   * notify changes from background threads, they are marshalled to the main looper.
+   */
+  public void setCoalesceDataSetChanges(boolean coalesceDataSetChanges) {
+    mCoalesceDataSetChanges = coalesceDataSetChanges;
+    if (mRecyclerViewAdapter != null) {
+      mRecyclerViewAdapter.setCoalesceChanges(coalesceDataSetChanges);
+    }
+  }
+
+  /**
+   * Enables or disables counting of view creates, binds, recycles and pool hits per view type.
+   * Enabling it replaces the RecyclerView's pool with a {@link ProxyRecycledViewPool} if it does
+   * not already use one.
+   */
+  public void setPoolStatsEnabled(boolean enabled) {
+    mPoolStats = enabled ? new RecyclerPoolStats() : null;
+    if (mRecyclerViewAdapter != null) {
+      mRecyclerViewAdapter.setPoolStats(mPoolStats);
+    }
+    if (enabled) {
+      getProxyRecycledViewPool().setStats(mPoolStats);
+    } else if (mRecyclerView.getRecycledViewPool() instanceof ProxyRecycledViewPool) {
+      ((ProxyRecycledViewPool) mRecyclerView.getRecycledViewPool()).setStats(null);
+    }
+  }
+
+  /**
+   * Opt-in: releases memory when the system asks for it, see {@link #trimMemory(int)}, while the
+   * list is attached to a window. Enabling it replaces the RecyclerView's pool with a
+   * {@link ProxyRecycledViewPool} if it does not already use one.
+   */
+  public void setMemoryTrimmingEnabled(boolean enabled) {
+    if (enabled == mMemoryTrimmingEnabled) {
+      return;
+    }
+    mMemoryTrimmingEnabled = enabled;
+    if (enabled) {
+      getProxyRecycledViewPool();
+      mRecyclerView.addOnAttachStateChangeListener(mTrimMemoryAttachStateListener);
+      if (ViewCompat.isAttachedToWindow(mRecyclerView)) {
+        mTrimMemoryAttachStateListener.onViewAttachedToWindow(mRecyclerView);
+      }
+    } else {
+      mRecyclerView.removeOnAttachStateChangeListener(mTrimMemoryAttachStateListener);
+      mTrimMemoryAttachStateListener.onViewDetachedFromWindow(mRecyclerView);
+    }
+  }
+
+  /**
+   * @param listener notified of the memory released after each trim, or null.
+   */
+  public void setOnTrimMemoryListener(OnTrimMemoryListener listener) {
+    mOnTrimMemoryListener = listener;
+  }
+
+  /**
+   * Releases memory for a {@link ComponentCallbacks2} trim level. While the app is running, half
+   * of the pooled views of each type, prepared render models and text layouts are released, and
+   * provided headers and footers more than a screen away. From
+   * {@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_CRITICAL} on, all of them are released, and
+   * every off-screen provided header and footer. Everything is rebuilt on demand.
+   *
+   * @return the estimated size of what was released.
+   */
+  public int trimMemory(int level) {
+    if (level < ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+      return 0;
+    }
+    boolean critical = level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL;
+    float fraction = critical ? 0f : 0.5f;
+    int trimmedBytes = 0;
+
+    RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+    if (pool instanceof ProxyRecycledViewPool) {
+      trimmedBytes += ((ProxyRecycledViewPool) pool).trim(fraction);
+    }
+    if (mRecyclerViewAdapter != null) {
+      trimmedBytes += mRecyclerViewAdapter.trimRenderModels(fraction) * RENDER_MODEL_BYTES;
+    }
+    if (mTextLayoutCache != null) {
+      trimmedBytes +=
+          mTextLayoutCache.trimToSize((int) (mTextLayoutCache.getSizeBytes() * fraction));
+    }
+
+    int visibleCount = Math.max(getLastVisiblePosition() - getFirstVisiblePosition() + 1, 1);
+    ArrayList<View> released = new ArrayList<>();
+    releaseOffscreenAuxiliaryViews(critical ? 1 : visibleCount, released);
+    for (int i = 0; i < released.size(); i++) {
+      trimmedBytes += ProxyRecycledViewPool.estimateBytes(released.get(i));
+    }
+
+    if (mOnTrimMemoryListener != null) {
+      mOnTrimMemoryListener.onTrimMemory(level, trimmedBytes);
+    }
+    return trimmedBytes;
+  }
+
+  /**
+   * @param rows how many rows ahead of the viewport a {@link PreparingAdapter} gets its render
+   * models prepared in the background while scrolling, 0 to only prepare rows as they are bound.
+   */
+  public void setRenderModelPrefetchDistance(int rows) {
+    mRenderModelPrefetchDistance = rows;
+  }
+
+  /**
+   * @return the recycling counters of this list, or null if they are not enabled.
+   */
+  public RecyclerPoolStats getPoolStats() {
+    return mPoolStats;
+  }
+
+  /**
+   * Pins the header of the topmost section over the list, for adapters implementing
+   * {@link SectionedAdapter}. The header is drawn over the rows, it does not take touches.
+   */
+  public void setStickySectionHeadersEnabled(boolean enabled) {
+    if (enabled == (mStickySectionHeaderDecoration != null)) {
+      return;
+    }
+    if (enabled) {
+      mStickySectionHeaderDecoration = new StickySectionHeaderDecoration();
+      mStickySectionHeaderDecoration.setAdapter(mListViewAdapter);
+      mRecyclerView.addItemDecoration(mStickySectionHeaderDecoration);
+    } else {
+      mStickySectionHeaderDecoration.setAdapter(null);
+      mRecyclerView.removeItemDecoration(mStickySectionHeaderDecoration);
+      mStickySectionHeaderDecoration = null;
+    }
+  }
+
+  /**
+   * @return the helper to bind lists nested in this list's rows, such as horizontal carousels,
+   * with a shared view pool and scroll positions kept by row id.
+   */
+  public NestedListSupport getNestedListSupport() {
+    if (mNestedListSupport == null) {
+      mNestedListSupport = new NestedListSupport();
+    }
+    return mNestedListSupport;
+  }
+
+  /**
+   * Enables deferred binding while the list is flinging. Views bound during a fling by a
+   * {@link PlaceholderAdapter} only get a cheap placeholder bind, and their full bind is queued.
+   * Once the fling settles or slows below {@link #setDeferredBindSettleSpeed(int)}, the queue is
+   * drained in idle time, starting with the views closest to the visible range.
+   *
+   * Has no effect for adapters which do not implement {@link PlaceholderAdapter}.
+   */
+  public void setDeferBindsWhileFlinging(boolean deferBindsWhileFlinging) {
+    mDeferBindsWhileFlinging = deferBindsWhileFlinging;
+    if (!deferBindsWhileFlinging) {
+      stopDeferringBinds();
+    }
+  }
+
+  /**
+   * @param pixelsPerFrame the scroll speed under which a fling is considered settled and deferred
+   * views start getting their full bind.
+   */
+  public void setDeferredBindSettleSpeed(int pixelsPerFrame) {
+    mDeferredBindSettleSpeed = pixelsPerFrame;
+  }
+
+  private void startDeferringBinds() {
+    if (mDeferBindsWhileFlinging && mRecyclerViewAdapter != null) {
+      mRecyclerViewAdapter.setDeferFullBinds(true);
+    }
+  }
+
+  private void stopDeferringBinds() {
+    if (mRecyclerViewAdapter == null) {
+      return;
+    }
+    mRecyclerViewAdapter.setDeferFullBinds(false);
+    scheduleDeferredBinds();
+  }
+
+  private void scheduleDeferredBinds() {
+    if (mDeferredBindsScheduled
+        || mRecyclerViewAdapter == null
+        || !mRecyclerViewAdapter.hasDeferredBinds()) {
+      return;
+    }
+    mDeferredBindsScheduled = true;
+    // Posting first lets any pending frame go through before the idle handler is installed.
+    mRecyclerView.post(mScheduleDeferredBinds);
+  }
+
+  private MessageQueue.IdleHandler createDeferredBindIdleHandler() {
+    return new MessageQueue.IdleHandler() {
+      @Override
+      public boolean queueIdle() {
+        mDeferredBindsScheduled = false;
+        if (bindDeferredViews(DEFERRED_BIND_SLICE_NANOS)) {
+          scheduleDeferredBinds();
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Fully binds deferred views, closest to the visible range first, for up to {@code sliceNanos}.
+   * @return whether views are still waiting for a full bind once the slice is over.
+   */
+  boolean bindDeferredViews(long sliceNanos) {
+    LinearRecyclerViewAdapter adapter = mRecyclerViewAdapter;
+    if (adapter == null || adapter.isDeferringFullBinds()) {
+      return false;
+    }
+
+    long deadline = System.nanoTime() + sliceNanos;
+    boolean hasDeferredBinds = adapter.hasDeferredBinds();
+    while (hasDeferredBinds && System.nanoTime() < deadline) {
+      hasDeferredBinds = adapter.bindNextDeferredView(mFirstVisibleItem, mLastVisibleItem);
+    }
+    return hasDeferredBinds;
+  }
+
+  private ProxyRecycledViewPool getProxyRecycledViewPool() {
+    RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+    if (pool instanceof ProxyRecycledViewPool) {
+      return (ProxyRecycledViewPool) pool;
+    }
+    ProxyRecycledViewPool proxyPool = new ProxyRecycledViewPool();
+    mRecyclerView.setRecycledViewPool(proxyPool);
+    return proxyPool;
+  }
+
   private void updateAuxiliaryViews() {
     if (mRecyclerViewAdapter == null) {
       return;
@@ -447,14 +1078,118 @@ public class RecyclerViewProxy implements ScrollingViewProxy {
     mRecyclerViewAdapter.setFooterViews(mFooterViews);
   }
 
+  private static void removeAuxiliaryView(
+      ArrayList<AuxiliaryView> auxiliaryViews, View view, ViewProvider provider) {
+    for (int i = 0; i < auxiliaryViews.size(); i++) {
+      if (auxiliaryViews.get(i).isFor(view, provider)) {
+        auxiliaryViews.remove(i);
+        return;
+      }
+    }
+  }
+
+  private static void releaseAuxiliaryViews(
+      ArrayList<AuxiliaryView> auxiliaryViews,
+      int firstPosition,
+      int firstVisible,
+      int lastVisible,
+      int minDistance,
+      ArrayList<View> released) {
+    for (int i = 0; i < auxiliaryViews.size(); i++) {
+      int position = firstPosition + i;
+      boolean far = firstVisible == NO_POSITION
+          || position <= firstVisible - minDistance
+          || position >= lastVisible + minDistance;
+      View view = far ? auxiliaryViews.get(i).release() : null;
+      if (view != null) {
+        released.add(view);
+      }
+    }
+  }
+
   private final void unimplemented() throws UnsupportedOperationException {
     throw new UnsupportedOperationException(UNIMPLEMENTED_METHOD);
   }
 
+  /**
+   * Cancels the async work of every row when the list leaves the window. The rows are kept by the
+   * RecyclerView, so the ones which lost their work are bound again when the list comes back.
+   */
+  private View.OnAttachStateChangeListener createAsyncWorkAttachStateListener() {
+    return new View.OnAttachStateChangeListener() {
+      @Override
+      public void onViewAttachedToWindow(View view) {
+        if (mRecyclerViewAdapter == null) {
+          return;
+        }
+        for (int i = 0; i < mRecyclerView.getChildCount(); i++) {
+          View child = mRecyclerView.getChildAt(i);
+          CancellationToken token = CancellationToken.forView(child);
+          int position = mRecyclerView.getChildAdapterPosition(child);
+          if (token != null && token.isCancelled() && position != NO_POSITION) {
+            mRecyclerViewAdapter.notifyItemChanged(position);
+          }
+        }
+      }
+
+      @Override
+      public void onViewDetachedFromWindow(View view) {
+        CancellationToken.cancelChildren(mRecyclerView);
+      }
+    };
+  }
+
+  private ComponentCallbacks2 createTrimMemoryCallbacks() {
+    return new ComponentCallbacks2() {
+      @Override
+      public void onTrimMemory(int level) {
+        trimMemory(level);
+      }
+
+      @Override
+      public void onLowMemory() {
+        trimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+      }
+
+      @Override
+      public void onConfigurationChanged(Configuration newConfig) {
+      }
+    };
+  }
+
+  /**
+   * Memory is only trimmed while the list is attached, so that a list which is no longer shown
+   * is not kept alive by the application context.
+   */
+  private View.OnAttachStateChangeListener createTrimMemoryAttachStateListener() {
+    return new View.OnAttachStateChangeListener() {
+      @Override
+      public void onViewAttachedToWindow(View view) {
+        view.getContext().getApplicationContext().registerComponentCallbacks(mTrimMemoryCallbacks);
+      }
+
+      @Override
+      public void onViewDetachedFromWindow(View view) {
+        view.getContext()
+            .getApplicationContext()
+            .unregisterComponentCallbacks(mTrimMemoryCallbacks);
+      }
+    };
+  }
+
   private RecyclerView.OnScrollListener createDelegatingScrollListener() {
     return new RecyclerView.OnScrollListener() {
       @Override
       public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+        if (newState == RecyclerView.SCROLL_STATE_SETTLING) {
+          startDeferringBinds();
+        } else {
+          stopDeferringBinds();
+        }
+        if (mFrameMonitor != null) {
+          // RecyclerView's dragging and settling states match touch scroll and fling.
+          mFrameMonitor.onScrollStateChanged(newState);
+        }
         if (mScrollListener != null) {
           mScrollListener.onScrollStateChanged(RecyclerViewProxy.this, newState);
         }
@@ -462,6 +1197,12 @@ public class RecyclerViewProxy implements ScrollingViewProxy {
 
       @Override
       public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+        if (mDeferBindsWhileFlinging
+            && recyclerView.getScrollState() == RecyclerView.SCROLL_STATE_SETTLING
+            && Math.abs(dy) < mDeferredBindSettleSpeed) {
+          stopDeferringBinds();
+        }
+
         LinearLayoutManager layoutManager = (LinearLayoutManager) mRecyclerView.getLayoutManager();
         mFirstVisibleItem = layoutManager.findFirstVisibleItemPosition();
 
@@ -471,6 +1212,15 @@ public class RecyclerViewProxy implements ScrollingViewProxy {
         }
 
         mLastVisibleItem = layoutManager.findLastVisibleItemPosition();
+        mRowTaskScheduler.onViewportChanged(mFirstVisibleItem, mLastVisibleItem, dy);
+        if (mRecyclerViewAdapter != null) {
+          mRecyclerViewAdapter.prefetchRenderModels(
+              mFirstVisibleItem,
+              mLastVisibleItem,
+              dy,
+              mRenderModelPrefetchDistance,
+              mRowTaskScheduler);
+        }
         int visibleItemCount = mLastVisibleItem - mFirstVisibleItem + 1;
         int adapterSize = getCount();
         if (mScrollListener != null) {
@@ -483,4 +1233,55 @@ public class RecyclerViewProxy implements ScrollingViewProxy {
       }
     };
   }
+
+  /**
+   * The instance state of the RecyclerView, with the view state of recycled rows.
+   */
+  static class SavedState implements Parcelable {
+
+    public static final Parcelable.Creator<SavedState> CREATOR =
+        new Parcelable.ClassLoaderCreator<SavedState>() {
+          @Override
+          public SavedState createFromParcel(Parcel source) {
+            return new SavedState(source, null);
+          }
+
+          @Override
+          public SavedState createFromParcel(Parcel source, ClassLoader loader) {
+            return new SavedState(source, loader);
+          }
+
+          @Override
+          public SavedState[] newArray(int size) {
+            return new SavedState[size];
+          }
+        };
+
+    final Parcelable mListState;
+    final TransientStateStore mTransientStates;
+
+    SavedState(Parcelable listState, TransientStateStore transientStates) {
+      mListState = listState;
+      mTransientStates = transientStates;
+    }
+
+    SavedState(Parcel source, ClassLoader loader) {
+      if (loader == null) {
+        loader = SavedState.class.getClassLoader();
+      }
+      mListState = source.readParcelable(loader);
+      mTransientStates = TransientStateStore.createFromParcel(source, loader);
+    }
+
+    @Override
+    public int describeContents() {
+      return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+      dest.writeParcelable(mListState, flags);
+      mTransientStates.writeToParcel(dest);
+    }
+  }
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.support.v4.util.LongSparseArray;
+
+/**
+ * A bounded, least recently used cache of the render models of a
+ * {@link ScrollingViewProxy.PreparingAdapter}, keyed by (stable id, fingerprint).
+ *
+ * An item has at most one entry: a model prepared for another fingerprint of the same item is
+ * replaced. Entries are reserved before their model is prepared in the background, so that the
+ * same model is not prepared twice, and released if it won't be. Reservations are not counted
+ * towards the maximum size. Lookups do not allocate.
+ *
+ * This class is thread safe.
+ */
+final class RenderModelCache {
+
+  static final int DEFAULT_MAX_SIZE = 128;
+
+  private static final class Entry {
+
+    long mItemId;
+    long mFingerprint;
+    /** Null while the model is being prepared, in which case the entry is not linked. */
+    Object mModel;
+    Entry mPrevious;
+    Entry mNext;
+  }
+
+  private final LongSparseArray<Entry> mEntries = new LongSparseArray<>();
+  /** The most recently used entry is after the head, the least recently used one before it. */
+  private final Entry mHead = new Entry();
+  private final int mMaxSize;
+  private int mReservationCount;
+
+  RenderModelCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  RenderModelCache(int maxSize) {
+    mMaxSize = maxSize;
+    mHead.mPrevious = mHead;
+    mHead.mNext = mHead;
+  }
+
+  /**
+   * @return the model prepared for this fingerprint of the item, or null if there is none yet.
+   */
+  synchronized Object get(long itemId, long fingerprint) {
+    Entry entry = mEntries.get(itemId);
+    if (entry == null || entry.mFingerprint != fingerprint || entry.mModel == null) {
+      return null;
+    }
+    unlink(entry);
+    linkFirst(entry);
+    return entry.mModel;
+  }
+
+  /**
+   * Reserves an entry for a model about to be prepared.
+   * @return false if the model is already prepared or reserved.
+   */
+  synchronized boolean reserve(long itemId, long fingerprint) {
+    Entry entry = mEntries.get(itemId);
+    if (entry != null && entry.mFingerprint == fingerprint) {
+      return false;
+    }
+    entry = detach(itemId, entry);
+    entry.mFingerprint = fingerprint;
+    entry.mModel = null;
+    mReservationCount++;
+    return true;
+  }
+
+  /**
+   * Removes the reservation of a model which won't be prepared, unless it was filled or replaced
+   * since.
+   */
+  synchronized void release(long itemId, long fingerprint) {
+    Entry entry = mEntries.get(itemId);
+    if (entry != null && entry.mFingerprint == fingerprint && entry.mModel == null) {
+      mEntries.remove(itemId);
+      mReservationCount--;
+    }
+  }
+
+  /**
+   * @param model the prepared model, not null.
+   */
+  synchronized void put(long itemId, long fingerprint, Object model) {
+    Entry entry = detach(itemId, mEntries.get(itemId));
+    entry.mFingerprint = fingerprint;
+    entry.mModel = model;
+    linkFirst(entry);
+    trimToSize(mMaxSize);
+  }
+
+  /**
+   * @return the number of prepared models, not counting reservations.
+   */
+  synchronized int size() {
+    return mEntries.size() - mReservationCount;
+  }
+
+  /**
+   * Evicts the least recently used models until at most {@code size} are left. Reservations are
+   * kept.
+   * @return the number of evicted models.
+   */
+  synchronized int trimToSize(int size) {
+    int trimmed = 0;
+    while (size() > size) {
+      Entry eldest = mHead.mPrevious;
+      unlink(eldest);
+      mEntries.remove(eldest.mItemId);
+      trimmed++;
+    }
+    return trimmed;
+  }
+
+  /**
+   * Removes every model and reservation.
+   */
+  synchronized void clear() {
+    mEntries.clear();
+    mHead.mPrevious = mHead;
+    mHead.mNext = mHead;
+    mReservationCount = 0;
+  }
+
+  /**
+   * @return the entry of the item, created if there is none, neither linked nor counted as a
+   * reservation.
+   */
+  private Entry detach(long itemId, Entry entry) {
+    if (entry == null) {
+      entry = new Entry();
+      entry.mItemId = itemId;
+      mEntries.put(itemId, entry);
+    } else if (entry.mModel != null) {
+      unlink(entry);
+    } else {
+      mReservationCount--;
+    }
+    return entry;
+  }
+
+  private void linkFirst(Entry entry) {
+    entry.mPrevious = mHead;
+    entry.mNext = mHead.mNext;
+    mHead.mNext.mPrevious = entry;
+    mHead.mNext = entry;
+  }
+
+  private static void unlink(Entry entry) {
+    entry.mPrevious.mNext = entry.mNext;
+    entry.mNext.mPrevious = entry.mPrevious;
+  }
+}
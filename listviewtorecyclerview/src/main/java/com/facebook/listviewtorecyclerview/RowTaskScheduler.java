@@ -0,0 +1,186 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.os.AsyncTask;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs background work for rows, closest to the visible range first.
+ *
+ * Tasks are queued here instead of in the executor: every submission only hands the executor a
+ * pump, and each pump picks the best queued task at the time it runs. That way tasks are
+ * reprioritized whenever the viewport moves, rows ahead of the scroll direction win ties, and
+ * tasks for rows further than the drop distance from the viewport are discarded without running.
+ * A {@link DroppableTask} is told when it is discarded, so it can release what was set up for it.
+ *
+ * Positions are the same as {@link ScrollingViewProxy#getFirstVisiblePosition()}.
+ * This class is thread safe.
+ */
+public class RowTaskScheduler {
+
+  public static final int DEFAULT_DROP_DISTANCE = 50;
+
+  /**
+   * A task which is told when it is dropped without running.
+   */
+  public interface DroppableTask extends Runnable {
+
+    /**
+     * Called instead of {@link #run()}, while the scheduler holds its lock, so it must be quick
+     * and must not call back into the scheduler.
+     */
+    void onDropped();
+  }
+
+  private static class Task {
+
+    final int mPosition;
+    final Runnable mRunnable;
+    final CancellationToken mToken;
+
+    Task(int position, Runnable runnable, CancellationToken token) {
+      mPosition = position;
+      mRunnable = runnable;
+      mToken = token;
+    }
+  }
+
+  private final Executor mExecutor;
+  private final ArrayList<Task> mTasks = new ArrayList<>();
+  private final Runnable mPump = new Runnable() {
+    @Override
+    public void run() {
+      Task task = takeNextTask();
+      if (task != null) {
+        task.mRunnable.run();
+      }
+    }
+  };
+
+  private int mFirstVisiblePosition;
+  private int mLastVisiblePosition;
+  private int mScrollDirection;
+  private int mDropDistance = DEFAULT_DROP_DISTANCE;
+
+  public RowTaskScheduler() {
+    this(AsyncTask.THREAD_POOL_EXECUTOR);
+  }
+
+  public RowTaskScheduler(Executor executor) {
+    mExecutor = executor;
+  }
+
+  /**
+   * @param dropDistance how many rows away from the visible range a task may be before it is
+   * dropped.
+   */
+  public synchronized void setDropDistance(int dropDistance) {
+    mDropDistance = dropDistance;
+  }
+
+  public void submit(int position, Runnable task) {
+    submit(position, task, null);
+  }
+
+  /**
+   * Queues {@code task} for the row at {@code position}. The task is dropped without running if
+   * {@code token} is cancelled first.
+   */
+  public void submit(int position, Runnable task, CancellationToken token) {
+    synchronized (this) {
+      mTasks.add(new Task(position, task, token));
+    }
+    mExecutor.execute(mPump);
+  }
+
+  /**
+   * Drops every queued task. Tasks that are already running are not interrupted.
+   */
+  public synchronized void clear() {
+    for (int i = 0; i < mTasks.size(); i++) {
+      drop(mTasks.get(i));
+    }
+    mTasks.clear();
+  }
+
+  /**
+   * Called by the proxy whenever the visible range changes.
+   * @param scrollDirection positive when scrolling towards the end of the list, negative when
+   * scrolling towards the start.
+   */
+  synchronized void onViewportChanged(
+      int firstVisiblePosition,
+      int lastVisiblePosition,
+      int scrollDirection) {
+    mFirstVisiblePosition = firstVisiblePosition;
+    mLastVisiblePosition = lastVisiblePosition;
+    if (scrollDirection != 0) {
+      mScrollDirection = scrollDirection;
+    }
+    for (int i = mTasks.size() - 1; i >= 0; i--) {
+      if (shouldDrop(mTasks.get(i))) {
+        drop(mTasks.remove(i));
+      }
+    }
+  }
+
+  private synchronized Task takeNextTask() {
+    int bestIndex = -1;
+    int bestPriority = Integer.MAX_VALUE;
+    for (int i = mTasks.size() - 1; i >= 0; i--) {
+      Task task = mTasks.get(i);
+      if (shouldDrop(task)) {
+        drop(mTasks.remove(i));
+        if (bestIndex != -1) {
+          bestIndex--;
+        }
+        continue;
+      }
+      // Iterating backwards with <= keeps submission order between tasks of equal priority.
+      int priority = getPriority(task.mPosition);
+      if (priority <= bestPriority) {
+        bestPriority = priority;
+        bestIndex = i;
+      }
+    }
+    return bestIndex == -1 ? null : mTasks.remove(bestIndex);
+  }
+
+  private static void drop(Task task) {
+    if (task.mRunnable instanceof DroppableTask) {
+      ((DroppableTask) task.mRunnable).onDropped();
+    }
+  }
+
+  private boolean shouldDrop(Task task) {
+    return (task.mToken != null && task.mToken.isCancelled())
+        || getDistance(task.mPosition) > mDropDistance;
+  }
+
+  /**
+   * Lower is more urgent. Rows in the visible range come first, then rows by distance, rows ahead
+   * of the scroll direction before rows behind it at the same distance.
+   */
+  private int getPriority(int position) {
+    int distance = getDistance(position);
+    boolean isBehind = (mScrollDirection > 0 && position < mFirstVisiblePosition)
+        || (mScrollDirection < 0 && position > mLastVisiblePosition);
+    return distance * 2 + (isBehind ? 1 : 0);
+  }
+
+  private int getDistance(int position) {
+    if (position < mFirstVisiblePosition) {
+      return mFirstVisiblePosition - position;
+    }
+    return position > mLastVisiblePosition ? position - mLastVisiblePosition : 0;
+  }
+}
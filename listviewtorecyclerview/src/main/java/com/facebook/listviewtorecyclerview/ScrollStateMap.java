@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import java.util.Arrays;
+
+/**
+ * A compact map from an item id to a scroll position and offset, stored as sorted primitive arrays
+ * so entries cost 20 bytes and lookups are a binary search without boxing.
+ *
+ * At most {@code maxSize} entries are kept. Once full, adding an entry evicts the least recently
+ * used one, so ids of items which are gone do not pile up.
+ */
+final class ScrollStateMap {
+
+  static final int NO_POSITION = -1;
+  static final int DEFAULT_MAX_SIZE = 256;
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final int mMaxSize;
+  private long[] mIds = new long[INITIAL_CAPACITY];
+  private long[] mStates = new long[INITIAL_CAPACITY];
+  /** When each entry was last put or looked up, in ticks of {@link #mClock}. */
+  private int[] mLastUses = new int[INITIAL_CAPACITY];
+  private int mSize;
+  private int mClock;
+
+  ScrollStateMap() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  ScrollStateMap(int maxSize) {
+    mMaxSize = maxSize;
+  }
+
+  void put(long id, int position, int offset) {
+    long state = ((long) position << 32) | (offset & 0xFFFFFFFFL);
+    int index = Arrays.binarySearch(mIds, 0, mSize, id);
+    if (index >= 0) {
+      mStates[index] = state;
+      mLastUses[index] = ++mClock;
+      return;
+    }
+    if (mSize >= mMaxSize) {
+      removeAt(leastRecentlyUsedIndex());
+      index = Arrays.binarySearch(mIds, 0, mSize, id);
+    }
+    index = ~index;
+    if (mSize == mIds.length) {
+      mIds = Arrays.copyOf(mIds, mSize * 2);
+      mStates = Arrays.copyOf(mStates, mSize * 2);
+      mLastUses = Arrays.copyOf(mLastUses, mSize * 2);
+    }
+    System.arraycopy(mIds, index, mIds, index + 1, mSize - index);
+    System.arraycopy(mStates, index, mStates, index + 1, mSize - index);
+    System.arraycopy(mLastUses, index, mLastUses, index + 1, mSize - index);
+    mIds[index] = id;
+    mStates[index] = state;
+    mLastUses[index] = ++mClock;
+    mSize++;
+  }
+
+  /**
+   * @return the saved position for {@code id}, or {@link #NO_POSITION}.
+   */
+  int getPosition(long id) {
+    int index = Arrays.binarySearch(mIds, 0, mSize, id);
+    if (index < 0) {
+      return NO_POSITION;
+    }
+    mLastUses[index] = ++mClock;
+    return (int) (mStates[index] >> 32);
+  }
+
+  /**
+   * @return the saved offset for {@code id}, or 0.
+   */
+  int getOffset(long id) {
+    int index = Arrays.binarySearch(mIds, 0, mSize, id);
+    return index >= 0 ? (int) mStates[index] : 0;
+  }
+
+  int size() {
+    return mSize;
+  }
+
+  void clear() {
+    mSize = 0;
+  }
+
+  private int leastRecentlyUsedIndex() {
+    int eldest = 0;
+    for (int i = 1; i < mSize; i++) {
+      // Compared by difference so that the clock may wrap around.
+      if (mLastUses[i] - mLastUses[eldest] < 0) {
+        eldest = i;
+      }
+    }
+    return eldest;
+  }
+
+  private void removeAt(int index) {
+    System.arraycopy(mIds, index + 1, mIds, index, mSize - index - 1);
+    System.arraycopy(mStates, index + 1, mStates, index, mSize - index - 1);
+    System.arraycopy(mLastUses, index + 1, mLastUses, index, mSize - index - 1);
+    mSize--;
+  }
+}
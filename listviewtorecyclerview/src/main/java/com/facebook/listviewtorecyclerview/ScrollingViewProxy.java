@@ -14,6 +14,7 @@ import android.support.v7.widget.RecyclerView;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.AbsListView;
+import android.widget.AdapterView;
 import android.widget.ListAdapter;
 import android.widget.ListView;
 
@@ -71,6 +72,144 @@ public interface ScrollingViewProxy {
         int position, Object item, View view, int itemViewType, ViewGroup parent);
   }
 
+  /**
+   * An optional extension of {@link Adapter} for adapters with view types that always have the
+   * same height. Views of a fixed size type are given exact layout params when they are created,
+   * so rebinding them does not change their size and they can be laid out without re-measuring.
+   */
+  interface FixedSizeAdapter extends Adapter {
+
+    int NO_FIXED_SIZE = -1;
+
+    /**
+     * @param itemViewType the type of view.
+     * @return the height in pixels of every view of this type, or {@link #NO_FIXED_SIZE} if views
+     * of this type size themselves.
+     */
+    int getFixedItemHeight(int itemViewType);
+  }
+
+  /**
+   * An optional extension of {@link Adapter} for adapters that can cheaply fingerprint the content
+   * of an item. Two items with the same id and the same fingerprint must render identically.
+   *
+   * A {@link RecyclerViewProxy} skips binding a view which was last bound to an item with the same
+   * id and fingerprint, so that a full data set change only binds the rows that did change. Such a
+   * row may have moved, {@link #bindView} is then skipped even though only its position changed.
+   * Views which were recycled since they were bound are always bound again.
+   */
+  interface FingerprintAdapter extends Adapter {
+
+    /**
+     * @param position the position of the item in the Adapter.
+     * @return a 64-bit hash of everything {@link #bindView} reads from the item.
+     */
+    long getItemFingerprint(int position);
+  }
+
+  /**
+   * An optional extension of {@link FingerprintAdapter} for adapters which bind in two phases:
+   * preparing an immutable render model of an item off the main thread, such as parsed text with
+   * its spans or formatted dates, then applying it to a view in {@link #bindView}, which receives
+   * the model as its item.
+   *
+   * A {@link RecyclerViewProxy} prepares models for the rows ahead of the viewport with its
+   * {@link RowTaskScheduler}, and keeps them in a bounded cache keyed by item id and fingerprint.
+   * A row which is bound before its model is ready has it prepared on the main thread. Under a
+   * {@link ListViewProxy}, {@link BaseAdapter#getView} prepares on the main thread, without
+   * caching.
+   */
+  interface PreparingAdapter extends FingerprintAdapter {
+
+    /**
+     * Called on a worker thread, or on the main thread for a row whose model is not ready. Must
+     * not touch views or the adapter, only the item.
+     * @param item the data of a row, as returned by {@link #getItem(int)}.
+     * @return the immutable render model of the item, not null.
+     */
+    Object prepareItem(Object item);
+  }
+
+  /**
+   * An optional extension of {@link Adapter} for adapters that can render a cheap placeholder
+   * for an item. When deferred binding is enabled on {@link RecyclerViewProxy}, views that are
+   * bound during a fling only get a placeholder bind, and are fully bound once scrolling settles.
+   */
+  interface PlaceholderAdapter extends Adapter {
+
+    /**
+     * Callback to cheaply bind a view for a given position, without any expensive work such as
+     * decoding images or building spans.
+     * @param position the position of the view in the Adapter.
+     * @param item the data to bind.
+     * @param view the view to bind to.
+     * @param itemViewType the type of view.
+     * @param parent the future parent of the view.
+     */
+    void bindPlaceholderView(
+        int position, Object item, View view, int itemViewType, ViewGroup parent);
+  }
+
+  /**
+   * An optional extension of {@link Adapter} for adapters that start background work for a row,
+   * such as loading an image. Each bind is handed a {@link CancellationToken} which is cancelled
+   * when the row is recycled, rebound or detached, for both ListView and RecyclerView.
+   *
+   * {@link BaseAdapter} calls {@link #startAsyncWork} after every bind. Adapters which implement
+   * {@link ListAdapter#getView(int, View, ViewGroup)} themselves must call
+   * {@link BaseAdapter#bindWithAsyncWork} instead of {@link Adapter#bindView} to get tokens.
+   */
+  interface CancellableBindAdapter extends Adapter {
+
+    /**
+     * Callback to start background work for a view that was just bound.
+     * @param position the position of the view in the Adapter.
+     * @param item the data that was bound.
+     * @param view the view that was bound.
+     * @param itemViewType the type of view.
+     * @param token cancelled once {@code view} no longer shows {@code item}.
+     */
+    void startAsyncWork(
+        int position, Object item, View view, int itemViewType, CancellationToken token);
+  }
+
+  /**
+   * An optional extension of {@link Adapter} for adapters which notify item range changes through
+   * a {@link RangeDataSetObservable}. A {@link ListViewProxy} then rebinds only the visible rows
+   * of a changed range, other adapters are handed to the ListView as they are.
+   */
+  interface RangeAdapter extends Adapter {
+  }
+
+  /**
+   * An optional extension of {@link Adapter} for adapters whose items are grouped into sections.
+   * {@link RecyclerViewProxy#setStickySectionHeadersEnabled(boolean)} pins the header of the
+   * section at the top of the list, and the next section's header pushes it up.
+   *
+   * Section headers are not items of the adapter. Each section header view type gets a single
+   * view, which is only rebound when the pinned section changes.
+   */
+  interface SectionedAdapter extends Adapter {
+
+    int NO_SECTION = -1;
+
+    /**
+     * Section boundaries are the positions where the returned section changes.
+     * @param position the position of the item in the Adapter.
+     * @return the section of the item, or {@link #NO_SECTION} if no header is pinned over it.
+     */
+    int getSectionForPosition(int position);
+
+    /**
+     * @return the type of the section header, in [0, number of section header types).
+     */
+    int getSectionHeaderViewType(int section);
+
+    View createSectionHeaderView(int sectionHeaderViewType, ViewGroup parent);
+
+    void bindSectionHeaderView(int section, View view);
+  }
+
   /**
    * Basic implementation of Adapter which maps the getView into bindView and createView.
    */
@@ -82,9 +221,34 @@ public interface ScrollingViewProxy {
       if (convertView == null) {
         convertView = createView(itemViewType, parent);
       }
-      bindView(position, getItem(position), convertView, itemViewType, parent);
+      Object item = getItem(position);
+      if (this instanceof PreparingAdapter) {
+        item = ((PreparingAdapter) this).prepareItem(item);
+      }
+      bindWithAsyncWork(this, position, item, convertView, itemViewType, parent);
       return convertView;
     }
+
+    /**
+     * Binds {@code view} and, for a {@link CancellableBindAdapter}, cancels the async work of its
+     * previous bind and starts the async work of this one.
+     */
+    public static void bindWithAsyncWork(
+        Adapter adapter,
+        int position,
+        Object item,
+        View view,
+        int itemViewType,
+        ViewGroup parent) {
+      if (!(adapter instanceof CancellableBindAdapter)) {
+        adapter.bindView(position, item, view, itemViewType, parent);
+        return;
+      }
+      CancellationToken token = CancellationToken.renew(view);
+      adapter.bindView(position, item, view, itemViewType, parent);
+      ((CancellableBindAdapter) adapter)
+          .startAsyncWork(position, item, view, itemViewType, token);
+    }
   }
 
   /** @See {@link AbsListView.OnScrollListener}. */
@@ -123,6 +287,17 @@ public interface ScrollingViewProxy {
     boolean onItemLongClick(ViewGroup parent, View view, int position, long id);
   }
 
+  /**
+   * Creates a header or footer view when it is first shown, instead of when it is added. A
+   * {@link RecyclerViewProxy} may drop a provided view while it is far off-screen, see
+   * {@link RecyclerViewProxy#releaseOffscreenAuxiliaryViews(int)}, and asks for a new one when it
+   * comes back.
+   */
+  interface ViewProvider {
+
+    View createView(ViewGroup parent);
+  }
+
   int CHOICE_MODE_NONE = 0;
 
   int CHOICE_MODE_SINGLE = 1;
@@ -131,6 +306,15 @@ public interface ScrollingViewProxy {
 
   int CHOICE_MODE_MULTIPLE_MODAL = 3;
 
+  int TRANSCRIPT_MODE_DISABLED = 0;
+
+  /**
+   * The list scrolls to show new items at the end only if it was already scrolled to the end.
+   */
+  int TRANSCRIPT_MODE_NORMAL = 1;
+
+  int TRANSCRIPT_MODE_ALWAYS_SCROLL = 2;
+
   /**
    * @return The view being used under this proxy.
    */
@@ -169,6 +353,14 @@ public interface ScrollingViewProxy {
 
   void removeFooterView(View view);
 
+  void addHeaderViewProvider(ViewProvider provider);
+
+  void addFooterViewProvider(ViewProvider provider);
+
+  void removeHeaderViewProvider(ViewProvider provider);
+
+  void removeFooterViewProvider(ViewProvider provider);
+
   void setOnScrollListener(OnScrollListener onScrollListener);
 
   void setVisibility(int visibility);
@@ -273,6 +465,30 @@ public interface ScrollingViewProxy {
 
   long getItemIdAtPosition(int position);
 
+  /**
+   * The inverse of {@link #getItemIdAtPosition(int)} for adapter items.
+   * @return the position of the item with {@code id}, including header views, or
+   * {@link AdapterView#INVALID_POSITION} if there is no such item.
+   */
+  int getPositionForItemId(long id);
+
+  /**
+   * Attaches a monitor of frame times while this list scrolls, or detaches it if null.
+   */
+  void setFrameMonitor(FrameMonitor frameMonitor);
+
+  /**
+   * Keeps {@code textLayoutCache} in sync with this list's width and configuration, or stops
+   * doing so for the previous cache if null.
+   */
+  void setTextLayoutCache(TextLayoutCache textLayoutCache);
+
+  /**
+   * @return a tracker of item impressions in this list, which is not started. The adapter must
+   * have stable ids.
+   */
+  ViewabilityTracker createViewabilityTracker(ViewabilityTracker.Listener listener);
+
   Parcelable onSaveInstanceState();
 
   void onRestoreInstanceState(Parcelable state);
@@ -280,4 +496,21 @@ public interface ScrollingViewProxy {
   int getChoiceMode();
 
   void setChoiceMode(int choiceMode);
+
+  int getTranscriptMode();
+
+  /**
+   * Sets how the list scrolls when items are added at its end, one of
+   * {@link #TRANSCRIPT_MODE_DISABLED}, {@link #TRANSCRIPT_MODE_NORMAL} or
+   * {@link #TRANSCRIPT_MODE_ALWAYS_SCROLL}. Items inserted above the visible rows in a single range
+   * notification keep the visible rows in place, whatever the mode.
+   */
+  void setTranscriptMode(int mode);
+
+  boolean isStackFromBottom();
+
+  /**
+   * Whether the items fill the list from its bottom, as in a chat screen.
+   */
+  void setStackFromBottom(boolean stackFromBottom);
 }
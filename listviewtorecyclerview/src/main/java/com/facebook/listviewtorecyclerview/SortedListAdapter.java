@@ -0,0 +1,313 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.database.DataSetObserver;
+import android.support.v4.util.LongSparseArray;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * A {@link ScrollingViewProxy.Adapter} over a collection kept sorted as items arrive, such as a
+ * feed whose stories arrive out of order.
+ *
+ * Items are deduplicated by {@link #getStableId(Object)}: adding an item whose id is already
+ * present replaces it, and moves it if its order changed. Every change is notified as a range
+ * insert, move, change or removal, so the list is never reset.
+ *
+ * A batch of k items added with {@link #addAll(Collection)} costs O(k log n) comparisons. Its
+ * items are sorted, located with binary searches that resume from the previous insertion point,
+ * and merged into the existing items in a single pass.
+ *
+ * This class is not thread safe, it must be used on the main thread.
+ */
+public abstract class SortedListAdapter<T> extends ScrollingViewProxy.BaseAdapter
+    implements ScrollingViewProxy.RangeAdapter {
+
+  private static final Object[] EMPTY = new Object[0];
+
+  private final RangeDataSetObservable mObservable = new RangeDataSetObservable();
+  private final LongSparseArray<T> mItemsById = new LongSparseArray<>();
+  private final Comparator<Object> mComparator = new Comparator<Object>() {
+    @Override
+    @SuppressWarnings("unchecked")
+    public int compare(Object lhs, Object rhs) {
+      return SortedListAdapter.this.compare((T) lhs, (T) rhs);
+    }
+  };
+
+  private Object[] mItems = EMPTY;
+  private int mSize;
+
+  /**
+   * Orders the items. Items which compare as equal keep the order in which they were added.
+   */
+  protected abstract int compare(T lhs, T rhs);
+
+  /**
+   * @return an id which stays the same when an updated version of the item is added.
+   */
+  protected abstract long getStableId(T item);
+
+  public void add(T item) {
+    int existingPosition = replaceExisting(item);
+    if (existingPosition >= 0) {
+      return;
+    }
+    int position = findInsertionPoint(item, 0);
+    insertAt(position, item);
+    mItemsById.put(getStableId(item), item);
+    mObservable.notifyItemRangeInserted(position, 1);
+  }
+
+  /**
+   * Adds a batch of items. Items already present, by id, are replaced in place or moved, and the
+   * new ones are merged with the existing items in one pass.
+   */
+  @SuppressWarnings("unchecked")
+  public void addAll(Collection<? extends T> items) {
+    Object[] batch = items.toArray();
+
+    // The latest version of a duplicated id wins, whatever its order, so duplicates are removed
+    // before sorting.
+    LongSparseArray<Integer> lastIndexById = new LongSparseArray<>(batch.length);
+    for (int i = 0; i < batch.length; i++) {
+      lastIndexById.put(getStableId((T) batch[i]), i);
+    }
+    int count = 0;
+    for (int i = 0; i < batch.length; i++) {
+      if (lastIndexById.get(getStableId((T) batch[i])) == i) {
+        batch[count++] = batch[i];
+      }
+    }
+    Arrays.sort(batch, 0, count, mComparator);
+
+    // Updates of existing items are applied one by one, the rest are merged.
+    int newCount = 0;
+    for (int i = 0; i < count; i++) {
+      T item = (T) batch[i];
+      if (replaceExisting(item) < 0) {
+        batch[newCount++] = item;
+      }
+    }
+    if (newCount == 0) {
+      return;
+    }
+
+    int[] insertionPoints = new int[newCount];
+    int searchStart = 0;
+    for (int i = 0; i < newCount; i++) {
+      searchStart = findInsertionPoint((T) batch[i], searchStart);
+      insertionPoints[i] = searchStart;
+      mItemsById.put(getStableId((T) batch[i]), (T) batch[i]);
+    }
+    merge(batch, insertionPoints, newCount);
+
+    int inserted = 0;
+    int runStart = 0;
+    for (int i = 1; i <= newCount; i++) {
+      if (i == newCount || insertionPoints[i] != insertionPoints[runStart]) {
+        mObservable.notifyItemRangeInserted(insertionPoints[runStart] + inserted, i - runStart);
+        inserted += i - runStart;
+        runStart = i;
+      }
+    }
+  }
+
+  /**
+   * @return true if an item with the same id as {@code item} was removed.
+   */
+  public boolean remove(T item) {
+    T existing = mItemsById.get(getStableId(item));
+    if (existing == null) {
+      return false;
+    }
+    int position = positionOf(existing);
+    removeAt(position);
+    mItemsById.remove(getStableId(existing));
+    mObservable.notifyItemRangeRemoved(position, 1);
+    return true;
+  }
+
+  public void clear() {
+    int count = mSize;
+    mItems = EMPTY;
+    mSize = 0;
+    mItemsById.clear();
+    if (count > 0) {
+      mObservable.notifyItemRangeRemoved(0, count);
+    }
+  }
+
+  /**
+   * @return the position of the item with the same id as {@code item}, or -1 if there is none.
+   */
+  public int indexOf(T item) {
+    T existing = mItemsById.get(getStableId(item));
+    return existing != null ? positionOf(existing) : -1;
+  }
+
+  @Override
+  public boolean areAllItemsEnabled() {
+    return true;
+  }
+
+  @Override
+  public boolean isEnabled(int position) {
+    return true;
+  }
+
+  @Override
+  public void registerDataSetObserver(DataSetObserver observer) {
+    mObservable.registerObserver(observer);
+  }
+
+  @Override
+  public void unregisterDataSetObserver(DataSetObserver observer) {
+    mObservable.unregisterObserver(observer);
+  }
+
+  @Override
+  public int getCount() {
+    return mSize;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T getItem(int position) {
+    return (T) mItems[position];
+  }
+
+  @Override
+  public long getItemId(int position) {
+    return getStableId(getItem(position));
+  }
+
+  @Override
+  public boolean hasStableIds() {
+    return true;
+  }
+
+  @Override
+  public int getItemViewType(int position) {
+    return 0;
+  }
+
+  @Override
+  public int getViewTypeCount() {
+    return 1;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return mSize == 0;
+  }
+
+  /**
+   * Replaces the item with the same id as {@code item}, if any, and notifies the change and move.
+   *
+   * @return the new position of the replaced item, or -1 if {@code item} is new.
+   */
+  private int replaceExisting(T item) {
+    long id = getStableId(item);
+    T existing = mItemsById.get(id);
+    if (existing == null) {
+      return -1;
+    }
+    mItemsById.put(id, item);
+    int position = positionOf(existing);
+    boolean inOrder = (position == 0 || compare(getItem(position - 1), item) <= 0)
+        && (position == mSize - 1 || compare(item, getItem(position + 1)) <= 0);
+    if (inOrder) {
+      mItems[position] = item;
+      mObservable.notifyItemRangeChanged(position, 1);
+      return position;
+    }
+
+    removeAt(position);
+    int newPosition = findInsertionPoint(item, 0);
+    insertAt(newPosition, item);
+    mObservable.notifyItemMoved(position, newPosition);
+    mObservable.notifyItemRangeChanged(newPosition, 1);
+    return newPosition;
+  }
+
+  /**
+   * @return the position of the {@code existing} instance.
+   */
+  private int positionOf(T existing) {
+    int position = Arrays.binarySearch(mItems, 0, mSize, existing, mComparator);
+    // Scan the run of items that compare as equal for the instance.
+    for (int i = position; i >= 0 && mComparator.compare(mItems[i], existing) == 0; i--) {
+      if (mItems[i] == existing) {
+        return i;
+      }
+    }
+    for (int i = position + 1; i < mSize && mComparator.compare(mItems[i], existing) == 0; i++) {
+      if (mItems[i] == existing) {
+        return i;
+      }
+    }
+    throw new IllegalStateException("Item order changed without being added again");
+  }
+
+  /**
+   * @return the position after every item that is not greater than {@code item}, searching from
+   * {@code start}.
+   */
+  private int findInsertionPoint(T item, int start) {
+    int low = start;
+    int high = mSize;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (mComparator.compare(mItems[middle], item) <= 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Inserts the sorted {@code batch} at {@code insertionPoints}, copying every existing item at
+   * most once.
+   */
+  private void merge(Object[] batch, int[] insertionPoints, int count) {
+    Object[] items = new Object[Math.max(mSize + count, mItems.length)];
+    int copied = 0;
+    int written = 0;
+    for (int i = 0; i < count; i++) {
+      int length = insertionPoints[i] - copied;
+      System.arraycopy(mItems, copied, items, written, length);
+      copied += length;
+      written += length;
+      items[written++] = batch[i];
+    }
+    System.arraycopy(mItems, copied, items, written, mSize - copied);
+    mItems = items;
+    mSize += count;
+  }
+
+  private void insertAt(int position, T item) {
+    if (mSize == mItems.length) {
+      mItems = Arrays.copyOf(mItems, Math.max(4, mSize * 2));
+    }
+    System.arraycopy(mItems, position, mItems, position + 1, mSize - position);
+    mItems[position] = item;
+    mSize++;
+  }
+
+  private void removeAt(int position) {
+    System.arraycopy(mItems, position + 1, mItems, position, mSize - position - 1);
+    mItems[--mSize] = null;
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.database.DataSetObserver;
+import android.graphics.Canvas;
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.View;
+import android.widget.ListAdapter;
+
+import com.facebook.listviewtorecyclerview.ScrollingViewProxy.SectionedAdapter;
+
+import static android.support.v7.widget.RecyclerView.NO_POSITION;
+
+/**
+ * Draws the header of the topmost section of a {@link SectionedAdapter} over a
+ * {@link RecyclerView}. When the first row of the next section reaches the bottom of the pinned
+ * header, the header is pushed up with it.
+ *
+ * One header view is kept per section header type. It is measured and rebound only when the
+ * pinned section or the list width changes, so drawing a frame does not allocate.
+ */
+final class StickySectionHeaderDecoration extends RecyclerView.ItemDecoration {
+
+  private final SparseArray<View> mHeaderViews = new SparseArray<>();
+  private final SparseIntArray mBoundSections = new SparseIntArray();
+  private final DataSetObserver mObserver = new DataSetObserver() {
+    @Override
+    public void onChanged() {
+      mBoundSections.clear();
+    }
+
+    @Override
+    public void onInvalidated() {
+      mBoundSections.clear();
+    }
+  };
+
+  private SectionedAdapter mAdapter;
+  private int mMeasuredWidth;
+
+  void setAdapter(ListAdapter adapter) {
+    if (mAdapter != null) {
+      mAdapter.unregisterDataSetObserver(mObserver);
+    }
+    mAdapter = adapter instanceof SectionedAdapter ? (SectionedAdapter) adapter : null;
+    if (mAdapter != null) {
+      mAdapter.registerDataSetObserver(mObserver);
+    }
+    mHeaderViews.clear();
+    mBoundSections.clear();
+  }
+
+  @Override
+  public void onDrawOver(Canvas canvas, RecyclerView parent, RecyclerView.State state) {
+    if (mAdapter == null || !(parent.getAdapter() instanceof LinearRecyclerViewAdapter)) {
+      return;
+    }
+    int headerCount = ((LinearRecyclerViewAdapter) parent.getAdapter()).getHeaderItemCount();
+    int count = mAdapter.getCount();
+    int top = parent.getPaddingTop();
+
+    // The pinned section is the one of the row covering the top of the list.
+    int topPosition = NO_POSITION;
+    for (int i = 0; i < parent.getChildCount(); i++) {
+      View child = parent.getChildAt(i);
+      int position = parent.getChildAdapterPosition(child) - headerCount;
+      if (child.getBottom() > top
+          && position >= 0
+          && position < count
+          && (topPosition == NO_POSITION || position < topPosition)) {
+        topPosition = position;
+      }
+    }
+    if (topPosition == NO_POSITION) {
+      return;
+    }
+    int section = mAdapter.getSectionForPosition(topPosition);
+    if (section == SectionedAdapter.NO_SECTION) {
+      return;
+    }
+
+    int width = parent.getWidth() - parent.getPaddingLeft() - parent.getPaddingRight();
+    View header = getHeaderView(parent, section, width);
+    int headerHeight = header.getHeight();
+
+    // The first row of a later section pushes the pinned header up.
+    int offset = 0;
+    for (int i = 0; i < parent.getChildCount(); i++) {
+      View child = parent.getChildAt(i);
+      int position = parent.getChildAdapterPosition(child) - headerCount;
+      if (position > topPosition
+          && position < count
+          && mAdapter.getSectionForPosition(position) != section) {
+        offset = Math.min(offset, child.getTop() - top - headerHeight);
+      }
+    }
+
+    int saveCount = canvas.save();
+    canvas.translate(parent.getPaddingLeft(), top + offset);
+    header.draw(canvas);
+    canvas.restoreToCount(saveCount);
+  }
+
+  private View getHeaderView(RecyclerView parent, int section, int width) {
+    if (width != mMeasuredWidth) {
+      mMeasuredWidth = width;
+      mBoundSections.clear();
+    }
+    int viewType = mAdapter.getSectionHeaderViewType(section);
+    View header = mHeaderViews.get(viewType);
+    if (header == null) {
+      header = mAdapter.createSectionHeaderView(viewType, parent);
+      mHeaderViews.put(viewType, header);
+    } else if (mBoundSections.get(viewType, SectionedAdapter.NO_SECTION) == section) {
+      return header;
+    }
+
+    mAdapter.bindSectionHeaderView(section, header);
+    mBoundSections.put(viewType, section);
+    header.measure(
+        View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+    header.layout(0, 0, header.getMeasuredWidth(), header.getMeasuredHeight());
+    return header;
+  }
+}
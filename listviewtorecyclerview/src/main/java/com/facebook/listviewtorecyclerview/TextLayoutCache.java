@@ -0,0 +1,326 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.AsyncTask;
+import android.support.v4.view.ViewCompat;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.view.View;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * A cache of text layouts keyed by (text, style, width), for rows which draw their text with a
+ * {@link TextLayoutView} instead of laying it out in a TextView on every bind.
+ *
+ * Layouts can be computed ahead of time on a background thread with
+ * {@link #prefetch(CharSequence, TextStyle, int)}, or from
+ * {@link ScrollingViewProxy.PreparingAdapter#prepareItem(Object)} with
+ * {@link #get(CharSequence, TextStyle, int)}, which builds missing layouts on the calling thread.
+ * The least recently used layouts are evicted once their estimated size goes over a byte budget.
+ *
+ * Once set on a proxy with {@link ScrollingViewProxy#setTextLayoutCache(TextLayoutCache)}, the
+ * cache is cleared when the list's width or the configuration changes, and {@link #getWidth()}
+ * reports the list's width to compute text widths from. Texts are compared with
+ * {@link Object#equals(Object)}, so spanned texts only match themselves unless they implement it.
+ *
+ * This class is thread safe.
+ */
+public class TextLayoutCache {
+
+  public static final int DEFAULT_MAX_BYTES = 512 * 1024;
+
+  // Rough sizes of a layout: its object, and the line starts, tops and directions of every line.
+  private static final int LAYOUT_OVERHEAD_BYTES = 128;
+  private static final int BYTES_PER_LINE = 32;
+
+  /**
+   * What a layout depends on besides its text and width. The paint is copied, so a style never
+   * changes once created. Create one per kind of text and reuse it, styles are compared by
+   * identity.
+   */
+  public static final class TextStyle {
+
+    final TextPaint mPaint;
+    final Layout.Alignment mAlignment;
+    final float mSpacingMultiplier;
+    final float mSpacingAddition;
+    final boolean mIncludePad;
+
+    public TextStyle(TextPaint paint) {
+      this(paint, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, true);
+    }
+
+    public TextStyle(
+        TextPaint paint,
+        Layout.Alignment alignment,
+        float spacingMultiplier,
+        float spacingAddition,
+        boolean includePad) {
+      mPaint = new TextPaint(paint);
+      mAlignment = alignment;
+      mSpacingMultiplier = spacingMultiplier;
+      mSpacingAddition = spacingAddition;
+      mIncludePad = includePad;
+    }
+  }
+
+  private static final class Key {
+
+    CharSequence mText;
+    TextStyle mStyle;
+    int mWidth;
+
+    Key(CharSequence text, TextStyle style, int width) {
+      mText = text;
+      mStyle = style;
+      mWidth = width;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return mWidth == other.mWidth && mStyle == other.mStyle && mText.equals(other.mText);
+    }
+
+    @Override
+    public int hashCode() {
+      return (mText.hashCode() * 31 + System.identityHashCode(mStyle)) * 31 + mWidth;
+    }
+  }
+
+  private static final class Entry {
+
+    final Layout mLayout;
+    final int mBytes;
+
+    Entry(Layout layout, int bytes) {
+      mLayout = layout;
+      mBytes = bytes;
+    }
+  }
+
+  private final Executor mExecutor;
+  private final int mMaxBytes;
+  private final LinkedHashMap<Key, Entry> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+  private final HashSet<Key> mPendingKeys = new HashSet<>();
+  /** Reused for lookups, so that hits do not allocate. Guarded by this. */
+  private final Key mLookupKey = new Key(null, null, 0);
+  private int mBytes;
+  private volatile int mWidth;
+
+  private final View.OnLayoutChangeListener mOnLayoutChangeListener =
+      new View.OnLayoutChangeListener() {
+        @Override
+        public void onLayoutChange(
+            View view,
+            int left,
+            int top,
+            int right,
+            int bottom,
+            int oldLeft,
+            int oldTop,
+            int oldRight,
+            int oldBottom) {
+          setWidth(right - left);
+        }
+      };
+
+  private final ComponentCallbacks mComponentCallbacks = new ComponentCallbacks() {
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+      clear();
+    }
+
+    @Override
+    public void onLowMemory() {
+      clear();
+    }
+  };
+
+  private final View.OnAttachStateChangeListener mOnAttachStateChangeListener =
+      new View.OnAttachStateChangeListener() {
+        @Override
+        public void onViewAttachedToWindow(View view) {
+          view.getContext().getApplicationContext().registerComponentCallbacks(mComponentCallbacks);
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View view) {
+          unregisterComponentCallbacks(view.getContext());
+        }
+      };
+
+  public TextLayoutCache() {
+    this(DEFAULT_MAX_BYTES);
+  }
+
+  public TextLayoutCache(int maxBytes) {
+    this(maxBytes, AsyncTask.THREAD_POOL_EXECUTOR);
+  }
+
+  /**
+   * @param executor where to build prefetched layouts.
+   */
+  public TextLayoutCache(int maxBytes, Executor executor) {
+    mMaxBytes = maxBytes;
+    mExecutor = executor;
+  }
+
+  /**
+   * @return the width of the list this cache is set on, or 0 if it was not laid out yet.
+   */
+  public int getWidth() {
+    return mWidth;
+  }
+
+  /**
+   * @return the layout of {@code text}, from the cache or built on the calling thread.
+   */
+  public Layout get(CharSequence text, TextStyle style, int width) {
+    synchronized (this) {
+      Entry entry = mEntries.get(lookUpKey(text, style, width));
+      mLookupKey.mText = null;
+      if (entry != null) {
+        return entry.mLayout;
+      }
+    }
+    Layout layout = buildLayout(text, style, width);
+    put(new Key(text, style, width), layout);
+    return layout;
+  }
+
+  /**
+   * Builds the layout of {@code text} in the background, unless it is cached or being built.
+   */
+  public void prefetch(CharSequence text, TextStyle style, int width) {
+    final Key key = new Key(text, style, width);
+    synchronized (this) {
+      if (mEntries.containsKey(key) || !mPendingKeys.add(key)) {
+        return;
+      }
+    }
+    mExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        Layout layout = buildLayout(key.mText, key.mStyle, key.mWidth);
+        synchronized (TextLayoutCache.this) {
+          if (!mPendingKeys.remove(key)) {
+            // The cache was cleared while building, the layout may be stale.
+            return;
+          }
+        }
+        put(key, layout);
+      }
+    });
+  }
+
+  /**
+   * @return the estimated size of the cached layouts.
+   */
+  public synchronized int getSizeBytes() {
+    return mBytes;
+  }
+
+  /**
+   * Evicts the least recently used layouts until their estimated size is at most {@code bytes}.
+   * @return the estimated size of the evicted layouts.
+   */
+  public synchronized int trimToSize(int bytes) {
+    int trimmed = 0;
+    Iterator<Entry> iterator = mEntries.values().iterator();
+    while (mBytes > bytes && iterator.hasNext()) {
+      Entry entry = iterator.next();
+      iterator.remove();
+      mBytes -= entry.mBytes;
+      trimmed += entry.mBytes;
+    }
+    return trimmed;
+  }
+
+  public synchronized void clear() {
+    trimToSize(0);
+    mPendingKeys.clear();
+  }
+
+  /**
+   * Clears the cache when {@code list} changes width, and when the configuration changes while
+   * {@code list} is attached.
+   */
+  void attach(View list) {
+    list.addOnLayoutChangeListener(mOnLayoutChangeListener);
+    list.addOnAttachStateChangeListener(mOnAttachStateChangeListener);
+    if (ViewCompat.isAttachedToWindow(list)) {
+      mOnAttachStateChangeListener.onViewAttachedToWindow(list);
+    }
+    setWidth(list.getWidth());
+  }
+
+  void detach(View list) {
+    list.removeOnLayoutChangeListener(mOnLayoutChangeListener);
+    list.removeOnAttachStateChangeListener(mOnAttachStateChangeListener);
+    unregisterComponentCallbacks(list.getContext());
+  }
+
+  private void setWidth(int width) {
+    if (width != mWidth) {
+      mWidth = width;
+      clear();
+    }
+  }
+
+  private void unregisterComponentCallbacks(Context context) {
+    context.getApplicationContext().unregisterComponentCallbacks(mComponentCallbacks);
+  }
+
+  private synchronized void put(Key key, Layout layout) {
+    int bytes = LAYOUT_OVERHEAD_BYTES
+        + key.mText.length() * 2
+        + layout.getLineCount() * BYTES_PER_LINE;
+    if (bytes > mMaxBytes) {
+      return;
+    }
+    Entry previous = mEntries.put(key, new Entry(layout, bytes));
+    if (previous != null) {
+      mBytes -= previous.mBytes;
+    }
+    mBytes += bytes;
+    trimToSize(mMaxBytes);
+  }
+
+  private Key lookUpKey(CharSequence text, TextStyle style, int width) {
+    mLookupKey.mText = text;
+    mLookupKey.mStyle = style;
+    mLookupKey.mWidth = width;
+    return mLookupKey;
+  }
+
+  @SuppressWarnings("deprecation")
+  private static Layout buildLayout(CharSequence text, TextStyle style, int width) {
+    return new StaticLayout(
+        text,
+        style.mPaint,
+        Math.max(width, 0),
+        style.mAlignment,
+        style.mSpacingMultiplier,
+        style.mSpacingAddition,
+        style.mIncludePad);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.text.Layout;
+import android.util.AttributeSet;
+import android.view.View;
+
+/**
+ * A view which draws a text {@link Layout} computed ahead of time, typically by a
+ * {@link TextLayoutCache}, so that binding a row does not measure or lay out its text.
+ *
+ * The view is as tall as the layout plus its padding, and as wide as the layout unless its
+ * parent imposes an exact width.
+ */
+public class TextLayoutView extends View {
+
+  private Layout mLayout;
+
+  public TextLayoutView(Context context) {
+    super(context);
+  }
+
+  public TextLayoutView(Context context, AttributeSet attrs) {
+    super(context, attrs);
+  }
+
+  public TextLayoutView(Context context, AttributeSet attrs, int defStyle) {
+    super(context, attrs, defStyle);
+  }
+
+  public Layout getLayout() {
+    return mLayout;
+  }
+
+  public void setLayout(Layout layout) {
+    if (layout == mLayout) {
+      return;
+    }
+    boolean sizeChanged = mLayout == null
+        || layout == null
+        || layout.getWidth() != mLayout.getWidth()
+        || layout.getHeight() != mLayout.getHeight();
+    mLayout = layout;
+    setContentDescription(layout != null ? layout.getText() : null);
+    if (sizeChanged) {
+      requestLayout();
+    }
+    invalidate();
+  }
+
+  @Override
+  protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+    int width = getPaddingLeft() + getPaddingRight();
+    int height = getPaddingTop() + getPaddingBottom();
+    if (mLayout != null) {
+      width += mLayout.getWidth();
+      height += mLayout.getHeight();
+    }
+    setMeasuredDimension(
+        resolveSize(Math.max(width, getSuggestedMinimumWidth()), widthMeasureSpec),
+        resolveSize(Math.max(height, getSuggestedMinimumHeight()), heightMeasureSpec));
+  }
+
+  @Override
+  protected void onDraw(Canvas canvas) {
+    if (mLayout == null) {
+      return;
+    }
+    int saveCount = canvas.save();
+    canvas.translate(getPaddingLeft(), getPaddingTop());
+    mLayout.draw(canvas);
+    canvas.restoreToCount(saveCount);
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.v4.util.LongSparseArray;
+import android.util.SparseArray;
+import android.view.View;
+
+import java.util.Arrays;
+
+/**
+ * The view state of rows which were recycled, such as typed text or an inner scroll position,
+ * keyed by the stable id of their item. States are saved with
+ * {@link View#saveHierarchyState(SparseArray)}, so only views with an id keep theirs.
+ *
+ * A state is handed back once, when a row with its id is bound again, and the row keeps it from
+ * there. At most {@link #getMaxSize()} states are kept, the oldest saved ones are dropped first.
+ *
+ * Must only be used from the main thread.
+ */
+final class TransientStateStore {
+
+  static final int DEFAULT_MAX_SIZE = 64;
+
+  private final LongSparseArray<SparseArray<Parcelable>> mStates = new LongSparseArray<>();
+  /** The ids of the saved states, oldest first. */
+  private long[] mSaveOrder = new long[8];
+  private int mMaxSize;
+
+  TransientStateStore(int maxSize) {
+    mMaxSize = maxSize;
+  }
+
+  int getMaxSize() {
+    return mMaxSize;
+  }
+
+  void setMaxSize(int maxSize) {
+    mMaxSize = maxSize;
+    trimToSize(maxSize);
+  }
+
+  /**
+   * Saves the state of {@code view}, the row of {@code itemId}, replacing any older one.
+   */
+  void save(long itemId, View view) {
+    SparseArray<Parcelable> state = new SparseArray<>();
+    view.saveHierarchyState(state);
+    put(itemId, state);
+  }
+
+  /**
+   * Restores the state saved for {@code itemId} into {@code view}, if there is one.
+   */
+  void restore(long itemId, View view) {
+    SparseArray<Parcelable> state = mStates.get(itemId);
+    if (state == null) {
+      return;
+    }
+    remove(itemId);
+    view.restoreHierarchyState(state);
+  }
+
+  int size() {
+    return mStates.size();
+  }
+
+  void clear() {
+    mStates.clear();
+  }
+
+  /**
+   * Adds the states of {@code other}, as if they were saved after the states of this store.
+   */
+  void putAll(TransientStateStore other) {
+    for (int i = 0; i < other.mStates.size(); i++) {
+      long itemId = other.mSaveOrder[i];
+      put(itemId, other.mStates.get(itemId));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  void writeToParcel(Parcel dest) {
+    dest.writeInt(mMaxSize);
+    dest.writeInt(mStates.size());
+    for (int i = 0; i < mStates.size(); i++) {
+      long itemId = mSaveOrder[i];
+      dest.writeLong(itemId);
+      dest.writeSparseArray((SparseArray) mStates.get(itemId));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  static TransientStateStore createFromParcel(Parcel source, ClassLoader loader) {
+    TransientStateStore store = new TransientStateStore(source.readInt());
+    int size = source.readInt();
+    for (int i = 0; i < size; i++) {
+      long itemId = source.readLong();
+      store.put(itemId, (SparseArray<Parcelable>) source.readSparseArray(loader));
+    }
+    return store;
+  }
+
+  private void put(long itemId, SparseArray<Parcelable> state) {
+    remove(itemId);
+    if (state.size() == 0 || mMaxSize <= 0) {
+      return;
+    }
+    int size = mStates.size();
+    if (size == mSaveOrder.length) {
+      mSaveOrder = Arrays.copyOf(mSaveOrder, size * 2);
+    }
+    mSaveOrder[size] = itemId;
+    mStates.put(itemId, state);
+    trimToSize(mMaxSize);
+  }
+
+  /**
+   * Drops the state saved for {@code itemId}, if there is one.
+   */
+  void remove(long itemId) {
+    if (mStates.indexOfKey(itemId) < 0) {
+      return;
+    }
+    int size = mStates.size();
+    mStates.remove(itemId);
+    for (int i = 0; i < size; i++) {
+      if (mSaveOrder[i] == itemId) {
+        System.arraycopy(mSaveOrder, i + 1, mSaveOrder, i, size - i - 1);
+        return;
+      }
+    }
+  }
+
+  private void trimToSize(int maxSize) {
+    while (mStates.size() > Math.max(maxSize, 0)) {
+      remove(mSaveOrder[0]);
+    }
+  }
+}
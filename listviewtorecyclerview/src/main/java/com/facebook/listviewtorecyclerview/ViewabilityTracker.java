@@ -0,0 +1,226 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+
+import java.util.Arrays;
+
+/**
+ * Reports impressions of the items of a {@link ScrollingViewProxy}: items which stayed at least
+ * {@link #setMinVisibleFraction(float) partially visible} for at least
+ * {@link #setMinDwellMillis(long) some time}. Header and footer views are never reported.
+ *
+ * Visible fractions are computed from the bounds of the rows once per frame, before drawing,
+ * however many scroll events the frame had. Dwell timers are kept by item id in primitive arrays
+ * sized for the visible rows. Items which become impressions during a frame are reported together
+ * in one {@link Listener#onImpressions(long[], int)} call. An item is reported again only after it
+ * has left the viewport.
+ *
+ * Items are told apart by their ids only, so the adapter must have
+ * {@link android.widget.Adapter#hasStableIds() stable ids}. Otherwise a row rebound to another
+ * item keeps the timer of the previous one, and impressions are reported for the wrong items.
+ *
+ * Create one with {@link ScrollingViewProxy#createViewabilityTracker(Listener)}.
+ */
+public class ViewabilityTracker {
+
+  public static final float DEFAULT_MIN_VISIBLE_FRACTION = 0.5f;
+  public static final long DEFAULT_MIN_DWELL_MILLIS = 1000;
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  public interface Listener {
+
+    /**
+     * @param itemIds the ids of the new impressions, only valid during this call.
+     * @param count the number of ids in {@code itemIds}.
+     */
+    void onImpressions(long[] itemIds, int count);
+  }
+
+  /**
+   * The rows of a list, implemented by the proxies.
+   */
+  interface Rows {
+
+    int getRowCount();
+
+    View getRowAt(int index);
+
+    /**
+     * @return false for header and footer views, and for rows which are being removed.
+     */
+    boolean isItemRow(int index);
+
+    long getRowItemId(int index);
+  }
+
+  private final ViewGroup mParent;
+  private final Rows mRows;
+  private final Listener mListener;
+
+  private final ViewTreeObserver.OnPreDrawListener mOnPreDrawListener =
+      new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+          update();
+          return true;
+        }
+      };
+  private final Runnable mDwellCheck = new Runnable() {
+    @Override
+    public void run() {
+      mDwellCheckScheduled = false;
+      update();
+    }
+  };
+
+  private float mMinVisibleFraction = DEFAULT_MIN_VISIBLE_FRACTION;
+  private long mMinDwellMillis = DEFAULT_MIN_DWELL_MILLIS;
+  private boolean mTracking;
+  private boolean mDwellCheckScheduled;
+
+  // The items currently visible enough, in parallel arrays.
+  private long[] mIds = new long[INITIAL_CAPACITY];
+  private long[] mVisibleSince = new long[INITIAL_CAPACITY];
+  private int[] mLastSeenFrames = new int[INITIAL_CAPACITY];
+  private boolean[] mReported = new boolean[INITIAL_CAPACITY];
+  private int mSize;
+  private int mFrame;
+
+  private long[] mImpressions = new long[INITIAL_CAPACITY];
+
+  ViewabilityTracker(ViewGroup parent, Rows rows, Listener listener) {
+    mParent = parent;
+    mRows = rows;
+    mListener = listener;
+  }
+
+  public void setMinVisibleFraction(float minVisibleFraction) {
+    mMinVisibleFraction = minVisibleFraction;
+  }
+
+  public void setMinDwellMillis(long minDwellMillis) {
+    mMinDwellMillis = minDwellMillis;
+  }
+
+  public void start() {
+    if (mTracking) {
+      return;
+    }
+    mTracking = true;
+    mParent.getViewTreeObserver().addOnPreDrawListener(mOnPreDrawListener);
+  }
+
+  /**
+   * Stops tracking and forgets the timers of the visible items, which will be reported again if
+   * tracking is restarted.
+   */
+  public void stop() {
+    if (!mTracking) {
+      return;
+    }
+    mTracking = false;
+    mParent.getViewTreeObserver().removeOnPreDrawListener(mOnPreDrawListener);
+    mParent.removeCallbacks(mDwellCheck);
+    mDwellCheckScheduled = false;
+    mSize = 0;
+  }
+
+  private void update() {
+    if (!mTracking) {
+      return;
+    }
+    if (!mParent.isShown()) {
+      mSize = 0;
+      return;
+    }
+
+    long now = SystemClock.uptimeMillis();
+    int frame = ++mFrame;
+    int top = mParent.getPaddingTop();
+    int bottom = mParent.getHeight() - mParent.getPaddingBottom();
+    for (int i = 0; i < mRows.getRowCount(); i++) {
+      View row = mRows.getRowAt(i);
+      int height = row.getHeight();
+      if (height == 0 || !mRows.isItemRow(i)) {
+        continue;
+      }
+      int visibleHeight = Math.min(row.getBottom(), bottom) - Math.max(row.getTop(), top);
+      if (visibleHeight >= mMinVisibleFraction * height) {
+        markVisible(mRows.getRowItemId(i), now, frame);
+      }
+    }
+
+    // Drop the items that were not visible enough in this frame, and collect impressions.
+    int impressionCount = 0;
+    long nextDeadline = Long.MAX_VALUE;
+    for (int i = mSize - 1; i >= 0; i--) {
+      if (mLastSeenFrames[i] != frame) {
+        removeAt(i);
+        continue;
+      }
+      if (mReported[i]) {
+        continue;
+      }
+      long deadline = mVisibleSince[i] + mMinDwellMillis;
+      if (deadline <= now) {
+        mReported[i] = true;
+        if (impressionCount == mImpressions.length) {
+          mImpressions = Arrays.copyOf(mImpressions, impressionCount * 2);
+        }
+        mImpressions[impressionCount++] = mIds[i];
+      } else {
+        nextDeadline = Math.min(nextDeadline, deadline);
+      }
+    }
+
+    // A list at rest draws no frames, so the next dwell deadline needs its own check.
+    if (nextDeadline != Long.MAX_VALUE && !mDwellCheckScheduled) {
+      mDwellCheckScheduled = true;
+      mParent.postDelayed(mDwellCheck, nextDeadline - now);
+    }
+    if (impressionCount > 0) {
+      mListener.onImpressions(mImpressions, impressionCount);
+    }
+  }
+
+  private void markVisible(long id, long now, int frame) {
+    for (int i = 0; i < mSize; i++) {
+      if (mIds[i] == id) {
+        mLastSeenFrames[i] = frame;
+        return;
+      }
+    }
+    if (mSize == mIds.length) {
+      int capacity = mSize * 2;
+      mIds = Arrays.copyOf(mIds, capacity);
+      mVisibleSince = Arrays.copyOf(mVisibleSince, capacity);
+      mLastSeenFrames = Arrays.copyOf(mLastSeenFrames, capacity);
+      mReported = Arrays.copyOf(mReported, capacity);
+    }
+    mIds[mSize] = id;
+    mVisibleSince[mSize] = now;
+    mLastSeenFrames[mSize] = frame;
+    mReported[mSize] = false;
+    mSize++;
+  }
+
+  private void removeAt(int index) {
+    int last = --mSize;
+    mIds[index] = mIds[last];
+    mVisibleSince[index] = mVisibleSince[last];
+    mLastSeenFrames[index] = mLastSeenFrames[last];
+    mReported[index] = mReported[last];
+  }
+}
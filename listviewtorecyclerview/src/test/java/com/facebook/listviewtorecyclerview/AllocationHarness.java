@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Counts the bytes allocated by the current thread during each frame of a script.
+ *
+ * Allocations are read from the JVM's per-thread allocation counter, which is cheap enough to
+ * read around every frame and does not allocate itself. Warm-up frames are run first and not
+ * counted, so that pools, caches and lazily created objects are in place before measuring.
+ */
+final class AllocationHarness {
+
+  /**
+   * One frame of a script, such as a scroll by a few pixels.
+   */
+  interface Frame {
+
+    void run(int frame);
+  }
+
+  static final class Result {
+
+    private final long[] mFrameBytes;
+
+    private Result(long[] frameBytes) {
+      mFrameBytes = frameBytes;
+    }
+
+    long getTotalBytes() {
+      long total = 0;
+      for (long bytes : mFrameBytes) {
+        total += bytes;
+      }
+      return total;
+    }
+
+    long getBytesPerFrame() {
+      return getTotalBytes() / mFrameBytes.length;
+    }
+
+    int getWorstFrame() {
+      int worst = 0;
+      for (int i = 1; i < mFrameBytes.length; i++) {
+        if (mFrameBytes[i] > mFrameBytes[worst]) {
+          worst = i;
+        }
+      }
+      return worst;
+    }
+
+    long getFrameBytes(int frame) {
+      return mFrameBytes[frame];
+    }
+  }
+
+  private final int mWarmUpFrames;
+  private final int mMeasuredFrames;
+
+  AllocationHarness(int warmUpFrames, int measuredFrames) {
+    mWarmUpFrames = warmUpFrames;
+    mMeasuredFrames = measuredFrames;
+  }
+
+  /**
+   * @return false if this JVM does not count allocations per thread.
+   */
+  static boolean isSupported() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+      return false;
+    }
+    com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+    if (!allocationBean.isThreadAllocatedMemorySupported()) {
+      return false;
+    }
+    allocationBean.setThreadAllocatedMemoryEnabled(true);
+    return true;
+  }
+
+  /**
+   * Runs the warm-up frames, then the measured frames, numbered on from the warm-up ones.
+   */
+  Result run(Frame frame) {
+    com.sun.management.ThreadMXBean bean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    for (int i = 0; i < mWarmUpFrames; i++) {
+      frame.run(i);
+    }
+
+    long[] frameBytes = new long[mMeasuredFrames];
+    long before = bean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < mMeasuredFrames; i++) {
+      frame.run(mWarmUpFrames + i);
+      long after = bean.getThreadAllocatedBytes(threadId);
+      frameBytes[i] = after - before;
+      before = after;
+    }
+    return new Result(frameBytes);
+  }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.app.Activity;
+import android.content.Context;
+import android.database.DataSetObservable;
+import android.database.DataSetObserver;
+import android.graphics.Rect;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link CachingLinearLayoutManager}.
+ */
+@Config(manifest=Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class CachingLinearLayoutManagerTest {
+
+  private static final int WIDTH = 100;
+  private static final int HEIGHT = 100;
+  private static final int ROW_HEIGHT = 10;
+  private static final int COUNT = 3;
+
+  /** Counts its measures, and remembers the height mode of the last one. */
+  private static class CountingView extends View {
+
+    int mMeasureCount;
+    int mLastHeightMode;
+
+    CountingView(Context context) {
+      super(context);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+      mMeasureCount++;
+      mLastHeightMode = MeasureSpec.getMode(heightMeasureSpec);
+      setMeasuredDimension(MeasureSpec.getSize(widthMeasureSpec), ROW_HEIGHT);
+    }
+  }
+
+  private static class TestAdapter extends ScrollingViewProxy.BaseAdapter
+      implements ScrollingViewProxy.FingerprintAdapter {
+
+    final DataSetObservable mObservable = new DataSetObservable();
+    final long[] mFingerprints = new long[COUNT];
+
+    @Override
+    public View createView(int itemViewType, ViewGroup parent) {
+      View view = new CountingView(parent.getContext());
+      view.setLayoutParams(new RecyclerView.LayoutParams(
+          ViewGroup.LayoutParams.MATCH_PARENT,
+          ViewGroup.LayoutParams.WRAP_CONTENT));
+      return view;
+    }
+
+    @Override
+    public void bindView(
+        int position, Object item, View view, int itemViewType, ViewGroup parent) {
+      // As binding new content does.
+      view.requestLayout();
+    }
+
+    @Override
+    public long getItemFingerprint(int position) {
+      return mFingerprints[position];
+    }
+
+    @Override
+    public boolean areAllItemsEnabled() {
+      return true;
+    }
+
+    @Override
+    public boolean isEnabled(int position) {
+      return true;
+    }
+
+    @Override
+    public void registerDataSetObserver(DataSetObserver observer) {
+      mObservable.registerObserver(observer);
+    }
+
+    @Override
+    public void unregisterDataSetObserver(DataSetObserver observer) {
+      mObservable.unregisterObserver(observer);
+    }
+
+    @Override
+    public int getCount() {
+      return COUNT;
+    }
+
+    @Override
+    public Object getItem(int position) {
+      return position;
+    }
+
+    @Override
+    public long getItemId(int position) {
+      return position;
+    }
+
+    @Override
+    public boolean hasStableIds() {
+      return true;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+      return 0;
+    }
+
+    @Override
+    public int getViewTypeCount() {
+      return 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return false;
+    }
+  }
+
+  private LinearRecyclerView mRecyclerView;
+  private CachingLinearLayoutManager mLayoutManager;
+  private TestAdapter mAdapter;
+
+  @Before
+  public void setup() {
+    Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+    mRecyclerView = new LinearRecyclerView(activity);
+    mLayoutManager = new CachingLinearLayoutManager(activity);
+    mRecyclerView.setLayoutManager(mLayoutManager);
+    mAdapter = new TestAdapter();
+    new RecyclerViewProxy(mRecyclerView).setAdapter(mAdapter);
+    layout(WIDTH);
+  }
+
+  @Test
+  public void testUnchangedRowIsNotMeasuredAgain() {
+    mAdapter.mObservable.notifyChanged();
+    layout(WIDTH);
+
+    for (int i = 0; i < COUNT; i++) {
+      assertThat(getRow(i).mMeasureCount).isEqualTo(1);
+    }
+  }
+
+  @Test
+  public void testRowIsMeasuredAgainAfterFingerprintChange() {
+    mAdapter.mFingerprints[0] = 1;
+    mAdapter.mObservable.notifyChanged();
+    layout(WIDTH);
+
+    assertThat(getRow(0).mMeasureCount).isEqualTo(2);
+    assertThat(getRow(0).mLastHeightMode).isNotEqualTo(View.MeasureSpec.EXACTLY);
+    assertThat(getRow(1).mMeasureCount).isEqualTo(1);
+  }
+
+  @Test
+  public void testRowsAreMeasuredAgainAfterWidthChange() {
+    layout(WIDTH / 2);
+
+    for (int i = 0; i < COUNT; i++) {
+      assertThat(getRow(i).mMeasureCount).isEqualTo(2);
+      assertThat(getRow(i).getMeasuredWidth()).isEqualTo(WIDTH / 2);
+    }
+  }
+
+  @Test
+  public void testRowsAreMeasuredAgainAfterDecorationInsetChange() {
+    mRecyclerView.addItemDecoration(new RecyclerView.ItemDecoration() {
+      @Override
+      public void getItemOffsets(
+          Rect outRect, View view, RecyclerView parent, RecyclerView.State state) {
+        outRect.set(10, 0, 0, 0);
+      }
+    });
+    layout(WIDTH);
+
+    for (int i = 0; i < COUNT; i++) {
+      assertThat(getRow(i).mMeasureCount).isEqualTo(2);
+      assertThat(getRow(i).getMeasuredWidth()).isEqualTo(WIDTH - 10);
+    }
+  }
+
+  @Test
+  public void testCachedHeightIsUsedForRowRequestingLayout() {
+    CountingView row = getRow(0);
+    row.requestLayout();
+
+    mLayoutManager.measureChildWithMargins(row, 0, 0);
+
+    assertThat(row.mMeasureCount).isEqualTo(2);
+    assertThat(row.mLastHeightMode).isEqualTo(View.MeasureSpec.EXACTLY);
+    assertThat(row.getMeasuredHeight()).isEqualTo(ROW_HEIGHT);
+  }
+
+  @Test
+  public void testInvalidatedCacheMeasuresAgain() {
+    CountingView row = getRow(0);
+    row.requestLayout();
+    mLayoutManager.invalidateMeasurementCache();
+
+    mLayoutManager.measureChildWithMargins(row, 0, 0);
+
+    assertThat(row.mMeasureCount).isEqualTo(2);
+    assertThat(row.mLastHeightMode).isNotEqualTo(View.MeasureSpec.EXACTLY);
+  }
+
+  private CountingView getRow(int position) {
+    return (CountingView) mRecyclerView.getChildAt(position);
+  }
+
+  private void layout(int width) {
+    mRecyclerView.measure(
+        View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+    mRecyclerView.layout(0, 0, width, HEIGHT);
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.app.Activity;
+import android.database.DataSetObserver;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.FrameLayout;
+import android.widget.ListView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests {@link CancellationToken}.
+ */
+@Config(manifest=Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class CancellationTokenTest {
+
+  private static final int ROW_HEIGHT = 10;
+
+  private static class TestAdapter extends ScrollingViewProxy.BaseAdapter
+      implements ScrollingViewProxy.CancellableBindAdapter {
+
+    final List<CancellationToken> mTokens = new ArrayList<>();
+
+    @Override
+    public View createView(int itemViewType, ViewGroup parent) {
+      View view = new View(parent.getContext());
+      view.setLayoutParams(
+          new AbsListView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+      return view;
+    }
+
+    @Override
+    public void bindView(
+        int position, Object item, View view, int itemViewType, ViewGroup parent) {
+    }
+
+    @Override
+    public void startAsyncWork(
+        int position, Object item, View view, int itemViewType, CancellationToken token) {
+      mTokens.add(token);
+    }
+
+    @Override
+    public boolean areAllItemsEnabled() {
+      return true;
+    }
+
+    @Override
+    public boolean isEnabled(int position) {
+      return true;
+    }
+
+    @Override
+    public void registerDataSetObserver(DataSetObserver observer) {
+    }
+
+    @Override
+    public void unregisterDataSetObserver(DataSetObserver observer) {
+    }
+
+    @Override
+    public int getCount() {
+      return 3;
+    }
+
+    @Override
+    public Object getItem(int position) {
+      return position;
+    }
+
+    @Override
+    public long getItemId(int position) {
+      return position;
+    }
+
+    @Override
+    public boolean hasStableIds() {
+      return true;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+      return 0;
+    }
+
+    @Override
+    public int getViewTypeCount() {
+      return 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return false;
+    }
+  }
+
+  private Activity mActivity;
+  private TestAdapter mAdapter;
+
+  @Before
+  public void setup() {
+    mActivity = Robolectric.buildActivity(Activity.class).create().start().resume().visible().get();
+    mAdapter = new TestAdapter();
+  }
+
+  @Test
+  public void testRenewCancelsPreviousToken() {
+    View view = new View(mActivity);
+
+    CancellationToken first = CancellationToken.renew(view);
+    CancellationToken second = CancellationToken.renew(view);
+
+    assertThat(first.isCancelled()).isTrue();
+    assertThat(second.isCancelled()).isFalse();
+    assertThat(CancellationToken.forView(view)).isSameAs(second);
+  }
+
+  @Test
+  public void testCancelListenerIsCalledOnce() {
+    CancellationToken token = new CancellationToken();
+    CancellationToken.OnCancelListener listener = mock(CancellationToken.OnCancelListener.class);
+    token.setOnCancelListener(listener);
+
+    token.cancel();
+    token.cancel();
+
+    verify(listener).onCancel();
+  }
+
+  @Test
+  public void testCancelListenerSetAfterCancellationIsCalledImmediately() {
+    CancellationToken token = new CancellationToken();
+    CancellationToken.OnCancelListener listener = mock(CancellationToken.OnCancelListener.class);
+    token.cancel();
+
+    token.setOnCancelListener(listener);
+
+    verify(listener).onCancel();
+  }
+
+  @Test
+  public void testRebindCancelsPreviousBind() {
+    View view = mAdapter.createView(0, new FrameLayout(mActivity));
+
+    mAdapter.getView(0, view, null);
+    mAdapter.getView(1, view, null);
+
+    assertThat(mAdapter.mTokens).hasSize(2);
+    assertThat(mAdapter.mTokens.get(0).isCancelled()).isTrue();
+    assertThat(mAdapter.mTokens.get(1).isCancelled()).isFalse();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testRecycleCancelsToken() {
+    LinearRecyclerView recyclerView = new LinearRecyclerView(mActivity);
+    recyclerView.setLayoutManager(new LinearLayoutManager(mActivity));
+    new RecyclerViewProxy(recyclerView).setAdapter(mAdapter);
+    RecyclerView.Adapter recyclerAdapter = recyclerView.getAdapter();
+    RecyclerView.ViewHolder holder = recyclerAdapter.onCreateViewHolder(recyclerView, 0);
+
+    recyclerAdapter.onBindViewHolder(holder, 0);
+    CancellationToken token = CancellationToken.forView(holder.itemView);
+    assertThat(token.isCancelled()).isFalse();
+
+    recyclerAdapter.onViewRecycled(holder);
+
+    assertThat(token.isCancelled()).isTrue();
+  }
+
+  @Test
+  public void testDetachCancelsTokensOfChildren() {
+    FrameLayout container = new FrameLayout(mActivity);
+    mActivity.setContentView(container);
+    ListView listView = new ListView(mActivity);
+    new ListViewProxy(listView).setAdapter(mAdapter);
+    container.addView(listView);
+    listView.measure(
+        View.MeasureSpec.makeMeasureSpec(100, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(ROW_HEIGHT * 5, View.MeasureSpec.EXACTLY));
+    listView.layout(0, 0, 100, ROW_HEIGHT * 5);
+    assertThat(CancellationToken.hasCancelledChild(listView)).isFalse();
+    assertThat(mAdapter.mTokens).isNotEmpty();
+
+    container.removeView(listView);
+
+    for (CancellationToken token : mAdapter.mTokens) {
+      assertThat(token.isCancelled()).isTrue();
+    }
+    assertThat(CancellationToken.hasCancelledChild(listView)).isTrue();
+  }
+}
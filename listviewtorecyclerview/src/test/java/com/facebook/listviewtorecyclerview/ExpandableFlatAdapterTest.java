@@ -0,0 +1,212 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.database.DataSetObserver;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ExpandableListView;
+
+import com.facebook.listviewtorecyclerview.ExpandableScrollingViewProxy.ExpandableAdapter;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests {@link ExpandableFlatAdapter}.
+ */
+@Config(manifest=Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class ExpandableFlatAdapterTest {
+
+  private static final int[] CHILDREN_COUNTS = new int[] { 2, 0, 3, 1 };
+
+  private ExpandableFlatAdapter mFlatAdapter;
+  private DataSetRangeObserver mObserver;
+
+  @Before
+  public void setup() {
+    mFlatAdapter = new ExpandableFlatAdapter(new FakeExpandableAdapter());
+    mObserver = mock(DataSetRangeObserver.class);
+    mFlatAdapter.registerDataSetObserver(mObserver);
+  }
+
+  @Test
+  public void testCollapsedGroupsAreFlat() {
+    assertThat(mFlatAdapter.getCount()).isEqualTo(4);
+    assertThat(mFlatAdapter.getItem(2)).isEqualTo("group 2");
+  }
+
+  @Test
+  public void testExpandGroupNotifiesInsertedChildren() {
+    assertThat(mFlatAdapter.expandGroup(2)).isTrue();
+
+    assertThat(mFlatAdapter.getCount()).isEqualTo(7);
+    InOrder inOrder = inOrder(mObserver);
+    inOrder.verify(mObserver).onItemRangeChanged(2, 1);
+    inOrder.verify(mObserver).onItemRangeInserted(3, 3);
+    verify(mObserver, never()).onChanged();
+  }
+
+  @Test
+  public void testExpandGroupTwice() {
+    mFlatAdapter.expandGroup(0);
+
+    assertThat(mFlatAdapter.expandGroup(0)).isFalse();
+    assertThat(mFlatAdapter.getCount()).isEqualTo(6);
+  }
+
+  @Test
+  public void testCollapseGroupNotifiesRemovedChildren() {
+    mFlatAdapter.expandGroup(0);
+    mFlatAdapter.expandGroup(2);
+
+    assertThat(mFlatAdapter.collapseGroup(0)).isTrue();
+
+    assertThat(mFlatAdapter.getCount()).isEqualTo(7);
+    verify(mObserver).onItemRangeRemoved(1, 2);
+  }
+
+  @Test
+  public void testFlatToPackedPositions() {
+    mFlatAdapter.expandGroup(0);
+    mFlatAdapter.expandGroup(2);
+
+    // group 0, child 0, child 1, group 1, group 2, child 0, child 1, child 2, group 3
+    assertThat(mFlatAdapter.getPackedPosition(2))
+        .isEqualTo(ExpandableListView.getPackedPositionForChild(0, 1));
+    assertThat(mFlatAdapter.getPackedPosition(3))
+        .isEqualTo(ExpandableListView.getPackedPositionForGroup(1));
+    assertThat(mFlatAdapter.getPackedPosition(7))
+        .isEqualTo(ExpandableListView.getPackedPositionForChild(2, 2));
+    assertThat(mFlatAdapter.getPackedPosition(8))
+        .isEqualTo(ExpandableListView.getPackedPositionForGroup(3));
+    assertThat(mFlatAdapter.getItem(6)).isEqualTo("child 2.1");
+  }
+
+  @Test
+  public void testPackedToFlatPositions() {
+    mFlatAdapter.expandGroup(2);
+
+    assertThat(mFlatAdapter.getFlatPosition(ExpandableListView.getPackedPositionForGroup(3)))
+        .isEqualTo(6);
+    assertThat(mFlatAdapter.getFlatPosition(ExpandableListView.getPackedPositionForChild(2, 1)))
+        .isEqualTo(4);
+    assertThat(mFlatAdapter.getFlatPosition(ExpandableListView.getPackedPositionForChild(0, 1)))
+        .isEqualTo(-1);
+  }
+
+  @Test
+  public void testGroupAndChildIdsDoNotCollide() {
+    mFlatAdapter.expandGroup(0);
+
+    assertThat(mFlatAdapter.getItemId(0)).isNotEqualTo(mFlatAdapter.getItemId(1));
+  }
+
+  private static class FakeExpandableAdapter implements ExpandableAdapter {
+
+    @Override
+    public int getGroupCount() {
+      return CHILDREN_COUNTS.length;
+    }
+
+    @Override
+    public int getChildrenCount(int groupPosition) {
+      return CHILDREN_COUNTS[groupPosition];
+    }
+
+    @Override
+    public Object getGroup(int groupPosition) {
+      return "group " + groupPosition;
+    }
+
+    @Override
+    public Object getChild(int groupPosition, int childPosition) {
+      return "child " + groupPosition + "." + childPosition;
+    }
+
+    @Override
+    public long getGroupId(int groupPosition) {
+      return groupPosition;
+    }
+
+    @Override
+    public long getChildId(int groupPosition, int childPosition) {
+      return childPosition;
+    }
+
+    @Override
+    public boolean hasStableIds() {
+      return true;
+    }
+
+    @Override
+    public int getGroupType(int groupPosition) {
+      return 0;
+    }
+
+    @Override
+    public int getGroupTypeCount() {
+      return 1;
+    }
+
+    @Override
+    public int getChildType(int groupPosition, int childPosition) {
+      return 0;
+    }
+
+    @Override
+    public int getChildTypeCount() {
+      return 1;
+    }
+
+    @Override
+    public View createGroupView(int groupType, ViewGroup parent) {
+      return null;
+    }
+
+    @Override
+    public void bindGroupView(
+        int groupPosition, boolean isExpanded, Object group, View view, ViewGroup parent) {
+    }
+
+    @Override
+    public View createChildView(int childType, ViewGroup parent) {
+      return null;
+    }
+
+    @Override
+    public void bindChildView(
+        int groupPosition,
+        int childPosition,
+        boolean isLastChild,
+        Object child,
+        View view,
+        ViewGroup parent) {
+    }
+
+    @Override
+    public void registerDataSetObserver(DataSetObserver observer) {
+    }
+
+    @Override
+    public void unregisterDataSetObserver(DataSetObserver observer) {
+    }
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.database.DataSetObservable;
+import android.database.DataSetObserver;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests {@link FilteringAdapter}.
+ */
+public class FilteringAdapterTest {
+
+  private static final String[] ITEMS = new String[] { "apple", "banana", "apricot", "cherry" };
+
+  private final List<Runnable> mBackgroundTasks = new ArrayList<>();
+  private final List<Runnable> mMainThreadTasks = new ArrayList<>();
+  private final List<Object> mTestedItems = new ArrayList<>();
+
+  private FilteringAdapter mFilteringAdapter;
+  private DataSetRangeObserver mObserver;
+
+  @Before
+  public void setup() {
+    mFilteringAdapter = new FilteringAdapter(
+        new FakeAdapter(),
+        new FilteringAdapter.ItemFilter() {
+          @Override
+          public boolean matches(Object item, CharSequence constraint) {
+            mTestedItems.add(item);
+            return item.toString().contains(constraint);
+          }
+        },
+        new Executor() {
+          @Override
+          public void execute(Runnable command) {
+            mBackgroundTasks.add(command);
+          }
+        },
+        new Executor() {
+          @Override
+          public void execute(Runnable command) {
+            mMainThreadTasks.add(command);
+          }
+        });
+    mObserver = mock(DataSetRangeObserver.class);
+    mFilteringAdapter.registerDataSetObserver(mObserver);
+  }
+
+  @Test
+  public void testEmptyConstraintShowsEverything() {
+    assertThat(mFilteringAdapter.getCount()).isEqualTo(ITEMS.length);
+    assertThat(mTestedItems).isEmpty();
+  }
+
+  @Test
+  public void testPublishesRemovedRanges() {
+    filterAndRunAll("ap");
+
+    assertThat(mFilteringAdapter.getCount()).isEqualTo(2);
+    assertThat(mFilteringAdapter.getItem(1)).isEqualTo("apricot");
+    assertThat(mFilteringAdapter.getSourcePosition(1)).isEqualTo(2);
+    InOrder inOrder = inOrder(mObserver);
+    inOrder.verify(mObserver).onItemRangeRemoved(1, 1);
+    inOrder.verify(mObserver).onItemRangeRemoved(2, 1);
+    verify(mObserver, never()).onChanged();
+  }
+
+  @Test
+  public void testPublishesInsertedRanges() {
+    filterAndRunAll("apr");
+    filterAndRunAll("a");
+
+    assertThat(mFilteringAdapter.getCount()).isEqualTo(3);
+    InOrder inOrder = inOrder(mObserver);
+    inOrder.verify(mObserver).onItemRangeInserted(0, 2);
+    verify(mObserver, never()).onChanged();
+  }
+
+  @Test
+  public void testGrowingConstraintOnlyTestsShownItems() {
+    filterAndRunAll("ap");
+    mTestedItems.clear();
+
+    filterAndRunAll("apr");
+
+    assertThat(mTestedItems).containsExactly("apple", "apricot");
+    assertThat(mFilteringAdapter.getCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testOvertakenFilterIsDropped() {
+    mFilteringAdapter.filter("an");
+    mFilteringAdapter.filter("ch");
+    runAll();
+
+    assertThat(mFilteringAdapter.getConstraint().toString()).isEqualTo("ch");
+    assertThat(mFilteringAdapter.getCount()).isEqualTo(1);
+    assertThat(mFilteringAdapter.getItem(0)).isEqualTo("cherry");
+    assertThat(mTestedItems).hasSize(ITEMS.length);
+  }
+
+  private void filterAndRunAll(String constraint) {
+    mFilteringAdapter.filter(constraint);
+    runAll();
+  }
+
+  private void runAll() {
+    while (!mBackgroundTasks.isEmpty()) {
+      mBackgroundTasks.remove(0).run();
+    }
+    while (!mMainThreadTasks.isEmpty()) {
+      mMainThreadTasks.remove(0).run();
+    }
+  }
+
+  private static class FakeAdapter extends ScrollingViewProxy.BaseAdapter {
+
+    private final DataSetObservable mObservable = new DataSetObservable();
+
+    @Override
+    public View createView(int itemViewType, ViewGroup parent) {
+      return null;
+    }
+
+    @Override
+    public void bindView(
+        int position, Object item, View view, int itemViewType, ViewGroup parent) {
+    }
+
+    @Override
+    public boolean areAllItemsEnabled() {
+      return true;
+    }
+
+    @Override
+    public boolean isEnabled(int position) {
+      return true;
+    }
+
+    @Override
+    public void registerDataSetObserver(DataSetObserver observer) {
+      mObservable.registerObserver(observer);
+    }
+
+    @Override
+    public void unregisterDataSetObserver(DataSetObserver observer) {
+      mObservable.unregisterObserver(observer);
+    }
+
+    @Override
+    public int getCount() {
+      return ITEMS.length;
+    }
+
+    @Override
+    public Object getItem(int position) {
+      return ITEMS[position];
+    }
+
+    @Override
+    public long getItemId(int position) {
+      return position;
+    }
+
+    @Override
+    public boolean hasStableIds() {
+      return true;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+      return 0;
+    }
+
+    @Override
+    public int getViewTypeCount() {
+      return 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return ITEMS.length == 0;
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link FrameMonitor}.
+ *
+ * Frames are fed to the monitor directly, and the frame callbacks it posts are held back by
+ * pausing the main looper.
+ */
+@Config(manifest=Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class FrameMonitorTest {
+
+  private static final int SCROLL_STATE_IDLE =
+      ScrollingViewProxy.OnScrollListener.SCROLL_STATE_IDLE;
+  private static final int SCROLL_STATE_TOUCH_SCROLL =
+      ScrollingViewProxy.OnScrollListener.SCROLL_STATE_TOUCH_SCROLL;
+  private static final int SCROLL_STATE_FLING =
+      ScrollingViewProxy.OnScrollListener.SCROLL_STATE_FLING;
+
+  private FrameMonitor mFrameMonitor;
+  private long mFrameTimeNanos;
+
+  @Before
+  public void setup() {
+    Robolectric.getForegroundThreadScheduler().pause();
+    mFrameMonitor = new FrameMonitor();
+    mFrameTimeNanos = TimeUnit.SECONDS.toNanos(1);
+  }
+
+  @Test
+  public void testClassifiesJankyAndFrozenFrames() {
+    mFrameMonitor.onScrollStateChanged(SCROLL_STATE_FLING);
+    frame(0);
+    frame(16);
+    // More than one and a half refresh periods at 60fps.
+    frame(30);
+    frame(FrameMonitor.FROZEN_FRAME_MILLIS + 1);
+
+    FrameMonitor.Snapshot snapshot = mFrameMonitor.getSnapshot();
+    assertThat(snapshot.getFrames(SCROLL_STATE_FLING)).isEqualTo(3);
+    assertThat(snapshot.getJankyFrames(SCROLL_STATE_FLING)).isEqualTo(2);
+    assertThat(snapshot.getFrozenFrames(SCROLL_STATE_FLING)).isEqualTo(1);
+    assertThat(snapshot.getFrames(SCROLL_STATE_IDLE)).isEqualTo(0);
+  }
+
+  @Test
+  public void testJankThresholdFollowsRefreshRate() {
+    mFrameMonitor.setRefreshRate(120f);
+    mFrameMonitor.onScrollStateChanged(SCROLL_STATE_FLING);
+    frame(0);
+    frame(16);
+
+    assertThat(mFrameMonitor.getSnapshot().getJankyFrames(SCROLL_STATE_FLING)).isEqualTo(1);
+  }
+
+  @Test
+  public void testFramesAreCountedInTheirScrollState() {
+    mFrameMonitor.onScrollStateChanged(SCROLL_STATE_TOUCH_SCROLL);
+    frame(0);
+    mFrameMonitor.onScrollStateChanged(SCROLL_STATE_FLING);
+    // This frame started while dragging.
+    frame(16);
+    frame(16);
+
+    FrameMonitor.Snapshot snapshot = mFrameMonitor.getSnapshot();
+    assertThat(snapshot.getFrames(SCROLL_STATE_TOUCH_SCROLL)).isEqualTo(1);
+    assertThat(snapshot.getFrames(SCROLL_STATE_FLING)).isEqualTo(1);
+  }
+
+  @Test
+  public void testWorkIsAttributedToJankyFrames() {
+    mFrameMonitor.onScrollStateChanged(SCROLL_STATE_FLING);
+    frame(0);
+    mFrameMonitor.onViewCreated(7);
+    frame(16);
+    mFrameMonitor.onViewBound(3);
+    mFrameMonitor.onViewBound(5);
+    frame(40);
+
+    FrameMonitor.Snapshot snapshot = mFrameMonitor.getSnapshot();
+    assertThat(snapshot.getCreates(SCROLL_STATE_FLING)).isEqualTo(1);
+    assertThat(snapshot.getJankyFrameCreates(SCROLL_STATE_FLING)).isEqualTo(0);
+    assertThat(snapshot.getBinds(SCROLL_STATE_FLING)).isEqualTo(2);
+    assertThat(snapshot.getJankyFrameBinds(SCROLL_STATE_FLING)).isEqualTo(2);
+    assertThat(snapshot.getJankyFrameBindNanos(SCROLL_STATE_FLING)).isEqualTo(8);
+  }
+
+  @Test
+  public void testIdleWorkIsCountedWithoutFrames() {
+    mFrameMonitor.onViewBound(5);
+
+    FrameMonitor.Snapshot snapshot = mFrameMonitor.getSnapshot();
+    assertThat(snapshot.getBinds(SCROLL_STATE_IDLE)).isEqualTo(1);
+    assertThat(snapshot.getBindNanos(SCROLL_STATE_IDLE)).isEqualTo(5);
+    assertThat(snapshot.getFrames(SCROLL_STATE_IDLE)).isEqualTo(0);
+  }
+
+  @Test
+  public void testResetClearsCounters() {
+    mFrameMonitor.onScrollStateChanged(SCROLL_STATE_FLING);
+    frame(0);
+    frame(30);
+
+    mFrameMonitor.reset();
+
+    assertThat(mFrameMonitor.getSnapshot().getFrames(SCROLL_STATE_FLING)).isEqualTo(0);
+    assertThat(mFrameMonitor.getSnapshot().getJankyFrames(SCROLL_STATE_FLING)).isEqualTo(0);
+  }
+
+  /**
+   * Delivers a frame callback {@code intervalMillis} after the previous one.
+   */
+  private void frame(long intervalMillis) {
+    mFrameTimeNanos += TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+    mFrameMonitor.onFrame(mFrameTimeNanos);
+  }
+}
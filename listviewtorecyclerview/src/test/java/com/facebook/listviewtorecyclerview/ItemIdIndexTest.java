@@ -0,0 +1,140 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.widget.ListAdapter;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link ItemIdIndex}.
+ */
+public class ItemIdIndexTest {
+
+  private final List<Long> mIds = new ArrayList<>();
+
+  private ItemIdIndex mIndex;
+
+  @Before
+  public void setup() {
+    ListAdapter adapter = mock(ListAdapter.class);
+    when(adapter.getCount()).thenAnswer(new Answer<Integer>() {
+      @Override
+      public Integer answer(InvocationOnMock invocation) {
+        return mIds.size();
+      }
+    });
+    when(adapter.getItemId(anyInt())).thenAnswer(new Answer<Long>() {
+      @Override
+      public Long answer(InvocationOnMock invocation) {
+        return mIds.get((Integer) invocation.getArguments()[0]);
+      }
+    });
+    for (long id = 100; id < 200; id++) {
+      mIds.add(id);
+    }
+    mIndex = new ItemIdIndex(adapter);
+  }
+
+  @Test
+  public void testFindsEveryId() {
+    for (int i = 0; i < mIds.size(); i++) {
+      assertThat(mIndex.getPosition(mIds.get(i))).isEqualTo(i);
+    }
+    assertThat(mIndex.getPosition(7)).isEqualTo(ItemIdIndex.NO_POSITION);
+  }
+
+  @Test
+  public void testShiftsPositionsOnInsertAndRemove() {
+    mIndex.getPosition(100);
+
+    mIds.add(10, 1L);
+    mIds.add(11, 2L);
+    mIndex.onItemRangeInserted(10, 2);
+    mIds.subList(0, 5).clear();
+    mIndex.onItemRangeRemoved(0, 5);
+
+    assertThat(mIndex.getPosition(1)).isEqualTo(5);
+    assertThat(mIndex.getPosition(150)).isEqualTo(47);
+    assertThat(mIndex.getPosition(102)).isEqualTo(ItemIdIndex.NO_POSITION);
+  }
+
+  @Test
+  public void testChangedIds() {
+    mIndex.getPosition(100);
+
+    mIds.set(3, 5L);
+    mIndex.onItemRangeChanged(3, 1);
+
+    assertThat(mIndex.getPosition(5)).isEqualTo(3);
+    assertThat(mIndex.getPosition(103)).isEqualTo(ItemIdIndex.NO_POSITION);
+  }
+
+  @Test
+  public void testMove() {
+    mIndex.getPosition(100);
+
+    mIds.add(50, mIds.remove(0));
+    mIndex.onItemMoved(0, 50);
+
+    assertThat(mIndex.getPosition(100)).isEqualTo(50);
+    assertThat(mIndex.getPosition(101)).isEqualTo(0);
+  }
+
+  @Test
+  public void testRebuildsWhenShiftLogIsFull() {
+    mIndex.getPosition(100);
+
+    for (int i = 0; i < 100; i++) {
+      mIds.add(0, (long) i);
+      mIndex.onItemRangeInserted(0, 1);
+    }
+
+    assertThat(mIndex.getPosition(0)).isEqualTo(99);
+    assertThat(mIndex.getPosition(199)).isEqualTo(199);
+  }
+
+  @Test
+  public void testRebuildsOnMissAfterUnreportedChange() {
+    mIndex.getPosition(100);
+
+    // Only the insert is reported, the id which changed at the same time is not.
+    mIds.add(0, 1L);
+    mIds.set(50, 2L);
+    mIndex.onItemRangeInserted(0, 1);
+
+    assertThat(mIndex.getPosition(2)).isEqualTo(50);
+    assertThat(mIndex.getPosition(149)).isEqualTo(ItemIdIndex.NO_POSITION);
+  }
+
+  @Test
+  public void testDropsChangedAwayIds() {
+    mIndex.getPosition(100);
+
+    for (long id = 1000; id < 1500; id++) {
+      mIds.set(0, id);
+      mIndex.onItemRangeChanged(0, 1);
+    }
+
+    assertThat(mIndex.getPosition(1499)).isEqualTo(0);
+    assertThat(mIndex.getPosition(1000)).isEqualTo(ItemIdIndex.NO_POSITION);
+    assertThat(mIndex.getPosition(199)).isEqualTo(99);
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.app.Activity;
+import android.database.DataSetObserver;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.HeaderViewListAdapter;
+import android.widget.ListView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests {@link ListViewRangeAdapter}.
+ */
+@Config(manifest=Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class ListViewRangeAdapterTest {
+
+  private static final int ROW_HEIGHT = 10;
+
+  private static class TestAdapter extends ScrollingViewProxy.BaseAdapter
+      implements ScrollingViewProxy.RangeAdapter {
+
+    final RangeDataSetObservable mObservable = new RangeDataSetObservable();
+    final List<Integer> mBoundPositions = new ArrayList<>();
+
+    @Override
+    public View createView(int itemViewType, ViewGroup parent) {
+      View view = new View(parent.getContext());
+      view.setLayoutParams(
+          new AbsListView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+      return view;
+    }
+
+    @Override
+    public void bindView(
+        int position, Object item, View view, int itemViewType, ViewGroup parent) {
+      mBoundPositions.add(position);
+    }
+
+    @Override
+    public boolean areAllItemsEnabled() {
+      return true;
+    }
+
+    @Override
+    public boolean isEnabled(int position) {
+      return true;
+    }
+
+    @Override
+    public void registerDataSetObserver(DataSetObserver observer) {
+      mObservable.registerObserver(observer);
+    }
+
+    @Override
+    public void unregisterDataSetObserver(DataSetObserver observer) {
+      mObservable.unregisterObserver(observer);
+    }
+
+    @Override
+    public int getCount() {
+      return 100;
+    }
+
+    @Override
+    public Object getItem(int position) {
+      return position;
+    }
+
+    @Override
+    public long getItemId(int position) {
+      return position;
+    }
+
+    @Override
+    public boolean hasStableIds() {
+      return true;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+      return 0;
+    }
+
+    @Override
+    public int getViewTypeCount() {
+      return 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return false;
+    }
+  }
+
+  private ListView mListView;
+  private ListViewProxy mListViewProxy;
+  private TestAdapter mAdapter;
+
+  @Before
+  public void setup() {
+    Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+    mListView = new ListView(activity);
+    mListViewProxy = new ListViewProxy(mListView);
+    mAdapter = new TestAdapter();
+    mListViewProxy.addHeaderView(new View(activity));
+    mListViewProxy.setAdapter(mAdapter);
+    layout();
+    mAdapter.mBoundPositions.clear();
+  }
+
+  @Test
+  public void testGetAdapterReturnsUnwrappedAdapter() {
+    assertThat(mListViewProxy.getAdapter()).isSameAs(mAdapter);
+    assertThat(((HeaderViewListAdapter) mListView.getAdapter()).getWrappedAdapter())
+        .isInstanceOf(ListViewRangeAdapter.class);
+  }
+
+  @Test
+  public void testAdapterWithoutRangesIsNotWrapped() {
+    ScrollingViewProxy.Adapter adapter = mock(ScrollingViewProxy.Adapter.class);
+
+    mListViewProxy.setAdapter(adapter);
+
+    assertThat(mListViewProxy.getAdapter()).isSameAs(adapter);
+    assertThat(((HeaderViewListAdapter) mListView.getAdapter()).getWrappedAdapter())
+        .isSameAs(adapter);
+  }
+
+  @Test
+  public void testRangeChangeRebindsVisibleRowsOnly() {
+    int lastVisibleItem = mListView.getLastVisiblePosition() - mListView.getHeaderViewsCount();
+
+    mAdapter.mObservable.notifyItemRangeChanged(lastVisibleItem, 50);
+
+    assertThat(mAdapter.mBoundPositions).containsExactly(lastVisibleItem);
+    assertThat(mListView.isLayoutRequested()).isFalse();
+  }
+
+  @Test
+  public void testStructuralChangeResetsListView() {
+    mAdapter.mObservable.notifyItemRangeInserted(0, 1);
+
+    assertThat(mAdapter.mBoundPositions).isEmpty();
+    assertThat(mListView.isLayoutRequested()).isTrue();
+  }
+
+  private void layout() {
+    mListView.measure(
+        View.MeasureSpec.makeMeasureSpec(100, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(ROW_HEIGHT * 5, View.MeasureSpec.EXACTLY));
+    mListView.layout(0, 0, 100, ROW_HEIGHT * 5);
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link MeasurementCache}.
+ */
+public class MeasurementCacheTest {
+
+  private static final int WIDTH = 100;
+
+  private MeasurementCache mCache;
+
+  @Before
+  public void setup() {
+    mCache = new MeasurementCache();
+  }
+
+  @Test
+  public void testHit() {
+    mCache.put(7, 0, WIDTH, 42, 30);
+
+    assertThat(mCache.get(7, 0, WIDTH, 42)).isEqualTo(30);
+  }
+
+  @Test
+  public void testMissOnAnyKeyOrFingerprintChange() {
+    assertThat(mCache.get(7, 0, WIDTH, 42)).isEqualTo(MeasurementCache.MISS);
+
+    mCache.put(7, 0, WIDTH, 42, 30);
+
+    assertThat(mCache.get(8, 0, WIDTH, 42)).isEqualTo(MeasurementCache.MISS);
+    assertThat(mCache.get(7, 1, WIDTH, 42)).isEqualTo(MeasurementCache.MISS);
+    assertThat(mCache.get(7, 0, WIDTH + 1, 42)).isEqualTo(MeasurementCache.MISS);
+    assertThat(mCache.get(7, 0, WIDTH, 43)).isEqualTo(MeasurementCache.MISS);
+  }
+
+  @Test
+  public void testNewFingerprintReplacesEntry() {
+    mCache.put(7, 0, WIDTH, 42, 30);
+
+    mCache.put(7, 0, WIDTH, 43, 40);
+
+    assertThat(mCache.get(7, 0, WIDTH, 42)).isEqualTo(MeasurementCache.MISS);
+    assertThat(mCache.get(7, 0, WIDTH, 43)).isEqualTo(40);
+  }
+
+  @Test
+  public void testCollisionOverwritesEntry() {
+    MeasurementCache cache = new MeasurementCache(2);
+    cache.put(0, 0, WIDTH, 42, 30);
+
+    // With two entries, one of the next ids maps to the entry of id 0.
+    long collidingId = -1;
+    for (long id = 1; id < 64 && collidingId == -1; id++) {
+      cache.put(id, 0, WIDTH, 42, 40);
+      if (cache.get(0, 0, WIDTH, 42) == MeasurementCache.MISS) {
+        collidingId = id;
+      }
+    }
+
+    assertThat(collidingId).isNotEqualTo(-1);
+    assertThat(cache.get(collidingId, 0, WIDTH, 42)).isEqualTo(40);
+  }
+
+  @Test
+  public void testClearEvictsEveryEntry() {
+    mCache.put(7, 0, WIDTH, 42, 30);
+    mCache.put(8, 0, WIDTH, 42, 30);
+
+    mCache.clear();
+
+    assertThat(mCache.get(7, 0, WIDTH, 42)).isEqualTo(MeasurementCache.MISS);
+    assertThat(mCache.get(8, 0, WIDTH, 42)).isEqualTo(MeasurementCache.MISS);
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.app.Activity;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link NestedListSupport}.
+ */
+@Config(manifest=Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class NestedListSupportTest {
+
+  private static final int ROW_HEIGHT = 10;
+  private static final int WIDTH = 100;
+  private static final int HEIGHT = ROW_HEIGHT * 5;
+
+  /** The adapter of the nested lists, which counts the views it creates. */
+  private static class InnerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+    int mCreateCount;
+
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+      mCreateCount++;
+      View view = new View(parent.getContext());
+      view.setLayoutParams(
+          new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+      return new RecyclerView.ViewHolder(view) {};
+    }
+
+    @Override
+    public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+    }
+
+    @Override
+    public int getItemCount() {
+      return 20;
+    }
+  }
+
+  private Activity mActivity;
+  private NestedListSupport mNestedListSupport;
+  private InnerAdapter mInnerAdapter;
+
+  @Before
+  public void setup() {
+    mActivity = Robolectric.buildActivity(Activity.class).create().get();
+    mNestedListSupport = new NestedListSupport();
+    mInnerAdapter = new InnerAdapter();
+  }
+
+  @Test
+  public void testScrollPositionIsRestoredByOuterItemId() {
+    LinearRecyclerView nestedList = createNestedList();
+    bind(nestedList, 1);
+    nestedList.scrollBy(0, ROW_HEIGHT * 3 + 5);
+
+    bind(nestedList, 2);
+    assertThat(getFirstVisiblePosition(nestedList)).isEqualTo(0);
+    assertThat(nestedList.getChildAt(0).getTop()).isEqualTo(0);
+
+    bind(nestedList, 1);
+    assertThat(getFirstVisiblePosition(nestedList)).isEqualTo(3);
+    assertThat(nestedList.getChildAt(0).getTop()).isEqualTo(-5);
+  }
+
+  @Test
+  public void testScrollPositionFollowsOuterItemToAnotherNestedList() {
+    LinearRecyclerView nestedList = createNestedList();
+    bind(nestedList, 1);
+    nestedList.scrollBy(0, ROW_HEIGHT * 3 + 5);
+
+    LinearRecyclerView otherNestedList = createNestedList();
+    bind(otherNestedList, 1);
+
+    assertThat(getFirstVisiblePosition(otherNestedList)).isEqualTo(3);
+    assertThat(otherNestedList.getChildAt(0).getTop()).isEqualTo(-5);
+    assertThat(otherNestedList.getRecycledViewPool())
+        .isSameAs(mNestedListSupport.getSharedPool());
+  }
+
+  @Test
+  public void testClearScrollStates() {
+    LinearRecyclerView nestedList = createNestedList();
+    bind(nestedList, 1);
+    nestedList.scrollBy(0, ROW_HEIGHT * 3 + 5);
+
+    mNestedListSupport.clearScrollStates();
+    bind(nestedList, 1);
+
+    assertThat(getFirstVisiblePosition(nestedList)).isEqualTo(0);
+  }
+
+  @Test
+  public void testPrefetchFillsSharedPoolUpToLimit() {
+    // More than the pool keeps of a type by default.
+    mNestedListSupport.setInitialPrefetchItemCount(8);
+    LinearRecyclerView parent = createNestedList();
+
+    mNestedListSupport.prefetch(mInnerAdapter, parent, 0);
+    mNestedListSupport.prefetch(mInnerAdapter, parent, 0);
+
+    assertThat(mNestedListSupport.getSharedPool().getRecycledViewCount(0)).isEqualTo(8);
+    assertThat(mInnerAdapter.mCreateCount).isEqualTo(8);
+    assertThat(mNestedListSupport.getSharedPool().getRecycledViewCount(1)).isEqualTo(0);
+  }
+
+  @Test
+  public void testPrefetchOnlyAddsMissingViews() {
+    mNestedListSupport.setInitialPrefetchItemCount(3);
+    LinearRecyclerView parent = createNestedList();
+    mNestedListSupport.getSharedPool()
+        .putRecycledView(mInnerAdapter.createViewHolder(parent, 0));
+
+    mNestedListSupport.prefetch(mInnerAdapter, parent, 0);
+
+    assertThat(mNestedListSupport.getSharedPool().getRecycledViewCount(0)).isEqualTo(3);
+    assertThat(mInnerAdapter.mCreateCount).isEqualTo(3);
+  }
+
+  private LinearRecyclerView createNestedList() {
+    LinearRecyclerView nestedList = new LinearRecyclerView(mActivity);
+    nestedList.setLayoutManager(new LinearLayoutManager(mActivity));
+    nestedList.setAdapter(mInnerAdapter);
+    return nestedList;
+  }
+
+  /**
+   * Binds {@code nestedList} as the row of {@code outerItemId} would, then lays it out.
+   */
+  private void bind(LinearRecyclerView nestedList, long outerItemId) {
+    mNestedListSupport.bindNestedList(nestedList, outerItemId);
+    nestedList.measure(
+        View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+    nestedList.layout(0, 0, WIDTH, HEIGHT);
+  }
+
+  private static int getFirstVisiblePosition(LinearRecyclerView nestedList) {
+    return nestedList.getLinearLayoutManager().findFirstVisibleItemPosition();
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link PersistentVector}.
+ */
+public class PersistentVectorTest {
+
+  @Test
+  public void testMatchesArrayListUnderRandomEdits() {
+    Random random = new Random(42);
+    List<Integer> expected = new ArrayList<>();
+    PersistentVector<Integer> vector = PersistentVector.empty();
+    for (int i = 0; i < 5000; i++) {
+      int operation = random.nextInt(4);
+      if (operation < 2 || expected.isEmpty()) {
+        int index = random.nextInt(expected.size() + 1);
+        expected.add(index, i);
+        vector = vector.insert(index, i);
+      } else if (operation == 2) {
+        int index = random.nextInt(expected.size());
+        expected.remove(index);
+        vector = vector.remove(index);
+      } else {
+        int index = random.nextInt(expected.size());
+        expected.set(index, -i);
+        vector = vector.set(index, -i);
+      }
+    }
+
+    assertThat(vector.size()).isEqualTo(expected.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertThat(vector.get(i)).isEqualTo(expected.get(i));
+    }
+  }
+
+  @Test
+  public void testSnapshotsAreNotModified() {
+    PersistentVector<String> snapshot = PersistentVector.<String>empty().add("a").add("b");
+
+    PersistentVector<String> next = snapshot.set(0, "c").insert(1, "d").remove(2);
+
+    assertThat(snapshot.size()).isEqualTo(2);
+    assertThat(snapshot.get(0)).isEqualTo("a");
+    assertThat(snapshot.get(1)).isEqualTo("b");
+    assertThat(next.size()).isEqualTo(2);
+    assertThat(next.get(0)).isEqualTo("c");
+    assertThat(next.get(1)).isEqualTo("d");
+  }
+
+  @Test
+  public void testRemovingEverythingThenAdding() {
+    PersistentVector<Integer> vector = PersistentVector.empty();
+    for (int i = 0; i < 1000; i++) {
+      vector = vector.add(i);
+    }
+    while (!vector.isEmpty()) {
+      vector = vector.remove(vector.size() / 2);
+    }
+
+    vector = vector.add(7);
+
+    assertThat(vector.size()).isEqualTo(1);
+    assertThat(vector.get(0)).isEqualTo(7);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetOutOfBounds() {
+    PersistentVector.empty().add("a").get(1);
+  }
+}
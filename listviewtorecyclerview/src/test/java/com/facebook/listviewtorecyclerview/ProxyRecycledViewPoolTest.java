@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.app.Activity;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link ProxyRecycledViewPool}.
+ */
+@Config(manifest=Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class ProxyRecycledViewPoolTest {
+
+  /** Creates holders with their view type set, as the pool reads it. */
+  private static class HolderFactory extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+      return new RecyclerView.ViewHolder(new View(parent.getContext())) {};
+    }
+
+    @Override
+    public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+    }
+
+    @Override
+    public int getItemCount() {
+      return 0;
+    }
+  }
+
+  private final HolderFactory mHolderFactory = new HolderFactory();
+  private ViewGroup mParent;
+  private ProxyRecycledViewPool mPool;
+  private RecyclerPoolStats mStats;
+
+  @Before
+  public void setup() {
+    Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+    mParent = new FrameLayout(activity);
+    mPool = new ProxyRecycledViewPool();
+    mStats = new RecyclerPoolStats();
+    mPool.setStats(mStats);
+  }
+
+  @Test
+  public void testCountsHitsAndMisses() {
+    assertThat(mPool.getRecycledView(0)).isNull();
+
+    RecyclerView.ViewHolder holder = createHolder(0);
+    mPool.putRecycledView(holder);
+    assertThat(mPool.getRecycledViewCount(0)).isEqualTo(1);
+    assertThat(mPool.getRecycledView(0)).isSameAs(holder);
+    assertThat(mPool.getRecycledViewCount(0)).isEqualTo(0);
+
+    RecyclerPoolStats.Snapshot snapshot = mStats.getSnapshot();
+    assertThat(snapshot.getPoolMisses(0)).isEqualTo(1);
+    assertThat(snapshot.getPoolHits(0)).isEqualTo(1);
+    assertThat(snapshot.getPoolHits(1)).isEqualTo(0);
+  }
+
+  @Test
+  public void testCountsDropsWhenFull() {
+    mPool.setMaxRecycledViews(0, 1);
+
+    mPool.putRecycledView(createHolder(0));
+    mPool.putRecycledView(createHolder(0));
+    mPool.putRecycledView(createHolder(1));
+
+    assertThat(mPool.getRecycledViewCount(0)).isEqualTo(1);
+    assertThat(mPool.getRecycledViewCount(1)).isEqualTo(1);
+    assertThat(mStats.getSnapshot().getPoolFullDrops(0)).isEqualTo(1);
+    assertThat(mStats.getSnapshot().getPoolFullDrops(1)).isEqualTo(0);
+  }
+
+  private RecyclerView.ViewHolder createHolder(int viewType) {
+    return mHolderFactory.createViewHolder(mParent, viewType);
+  }
+}
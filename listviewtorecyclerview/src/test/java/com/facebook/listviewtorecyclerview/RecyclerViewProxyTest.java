@@ -9,12 +9,15 @@
 package com.facebook.listviewtorecyclerview;
 
 import android.app.Activity;
+import android.content.ComponentCallbacks2;
 import android.database.DataSetObserver;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.support.v7.widget.RecyclerView.Adapter;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewGroup;
+import android.widget.EditText;
 
 import com.facebook.listviewtorecyclerview.ScrollingViewProxy.OnItemClickListener;
 import com.facebook.listviewtorecyclerview.ScrollingViewProxy.OnItemLongClickListener;
@@ -28,16 +31,23 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.same;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -129,6 +139,46 @@ public class RecyclerViewProxyTest {
     verify(mRecyclerView).setAdapter(null);
   }
 
+  @Test
+  public void testSwapAdapterKeepsViewsForCompatibleViewTypes() {
+    ScrollingViewProxy.Adapter newAdapter = mock(ScrollingViewProxy.Adapter.class);
+    when(mAdapter.getViewTypeCount()).thenReturn(2);
+    when(newAdapter.getViewTypeCount()).thenReturn(2);
+    mRecyclerViewProxy.setAdapter(mAdapter);
+
+    mRecyclerViewProxy.swapAdapter(newAdapter, true, true);
+
+    verify(mRecyclerView).setAdapter(any(Adapter.class));
+    verify(mRecyclerView).swapAdapter(any(Adapter.class), eq(false));
+    assertThat(mRecyclerViewProxy.getAdapter()).isSameAs(newAdapter);
+  }
+
+  @Test
+  public void testSwapAdapterFallsBackToSetAdapterUnlessViewTypesAreCompatible() {
+    ScrollingViewProxy.Adapter newAdapter = mock(ScrollingViewProxy.Adapter.class);
+    when(mAdapter.getViewTypeCount()).thenReturn(2);
+    when(newAdapter.getViewTypeCount()).thenReturn(2);
+    mRecyclerViewProxy.setAdapter(mAdapter);
+
+    mRecyclerViewProxy.swapAdapter(newAdapter, true, false);
+
+    verify(mRecyclerView, times(2)).setAdapter(any(Adapter.class));
+    assertThat(mRecyclerViewProxy.getAdapter()).isSameAs(newAdapter);
+  }
+
+  @Test
+  public void testSwapAdapterFallsBackToSetAdapterForIncompatibleViewTypes() {
+    ScrollingViewProxy.Adapter newAdapter = mock(ScrollingViewProxy.Adapter.class);
+    when(mAdapter.getViewTypeCount()).thenReturn(1);
+    when(newAdapter.getViewTypeCount()).thenReturn(2);
+    mRecyclerViewProxy.setAdapter(mAdapter);
+
+    mRecyclerViewProxy.swapAdapter(newAdapter, true, true);
+
+    verify(mRecyclerView, times(2)).setAdapter(any(Adapter.class));
+    assertThat(mRecyclerViewProxy.getAdapter()).isSameAs(newAdapter);
+  }
+
   @Test(expected = Exception.class)
   public void testCrashForNonLinearLayoutManagerOnInit() {
     LinearRecyclerView recyclerView = createLinearRecyclerView();
@@ -152,6 +202,48 @@ public class RecyclerViewProxyTest {
     verify(mockObserver).onChanged();
   }
 
+  @Test
+  public void testCoalescedDataSetChanges() {
+    ArgumentCaptor<Adapter> recyclerAdapter = ArgumentCaptor.forClass(Adapter.class);
+    RecyclerView.AdapterDataObserver mockObserver = mock(RecyclerView.AdapterDataObserver.class);
+    ArgumentCaptor<DataSetObserver> observer = ArgumentCaptor.forClass(DataSetObserver.class);
+    ArgumentCaptor<Runnable> frameCallback = ArgumentCaptor.forClass(Runnable.class);
+
+    mRecyclerViewProxy.setCoalesceDataSetChanges(true);
+    mRecyclerViewProxy.setAdapter(mAdapter);
+    verify(mRecyclerView).setAdapter(recyclerAdapter.capture());
+    recyclerAdapter.getValue().registerAdapterDataObserver(mockObserver);
+    verify(mAdapter).registerDataSetObserver(observer.capture());
+
+    observer.getValue().onChanged();
+    observer.getValue().onChanged();
+    observer.getValue().onInvalidated();
+    verifyZeroInteractions(mockObserver);
+
+    verify(mRecyclerView).postOnAnimation(frameCallback.capture());
+    frameCallback.getValue().run();
+    verify(mockObserver).onChanged();
+  }
+
+  @Test
+  public void testTranscriptModeScrollsToEndOnlyWhenAtEnd() {
+    ArgumentCaptor<DataSetObserver> observer = ArgumentCaptor.forClass(DataSetObserver.class);
+
+    mRecyclerViewProxy.setTranscriptMode(ScrollingViewProxy.TRANSCRIPT_MODE_NORMAL);
+    mRecyclerViewProxy.setAdapter(mAdapter);
+    verify(mAdapter).registerDataSetObserver(observer.capture());
+
+    when(mAdapter.getCount()).thenReturn(5);
+    when(mRecyclerView.canScrollVertically(1)).thenReturn(false);
+    observer.getValue().onChanged();
+    verify(mRecyclerView).scrollToPosition(4);
+
+    when(mAdapter.getCount()).thenReturn(6);
+    when(mRecyclerView.canScrollVertically(1)).thenReturn(true);
+    observer.getValue().onChanged();
+    verify(mRecyclerView, times(0)).scrollToPosition(5);
+  }
+
   @Test
   public void testScrollTo() {
     when(mRecyclerView.getScrollX()).thenReturn(10);
@@ -246,6 +338,295 @@ public class RecyclerViewProxyTest {
     assertThat(recyclerView.getAdapter().getItemCount()).isEqualTo(5);
   }
 
+  @Test
+  public void testHeaderViewProvidersCreateViewsOnFirstUse() {
+    LinearRecyclerView recyclerView = createLinearRecyclerView();
+    RecyclerViewProxy proxy = new RecyclerViewProxy(recyclerView);
+    ScrollingViewProxy.ViewProvider provider = mock(ScrollingViewProxy.ViewProvider.class);
+    View header = mock(View.class);
+    when(provider.createView(any(ViewGroup.class))).thenReturn(header);
+
+    when(mAdapter.getCount()).thenReturn(5);
+    proxy.addHeaderViewProvider(provider);
+    proxy.setAdapter(mAdapter);
+    verifyZeroInteractions(provider);
+
+    RecyclerView.ViewHolder holder = dumpViewHolder(recyclerView, 0);
+    assertThat(holder.itemView).isSameAs(header);
+    assertThat(holder.isRecyclable()).isFalse();
+    assertThat(recyclerView.getAdapter().getItemCount()).isEqualTo(6);
+
+    // Nothing is laid out, so the header is off-screen.
+    assertThat(proxy.releaseOffscreenAuxiliaryViews(1)).isEqualTo(1);
+    dumpViewHolder(recyclerView, 0);
+    verify(provider, times(2)).createView(recyclerView);
+
+    proxy.removeHeaderViewProvider(provider);
+    assertThat(recyclerView.getAdapter().getItemCount()).isEqualTo(5);
+  }
+
+  @Test
+  public void testTrimMemoryReleasesOffscreenHeaders() {
+    LinearRecyclerView recyclerView = createLinearRecyclerView();
+    RecyclerViewProxy proxy = new RecyclerViewProxy(recyclerView);
+    ScrollingViewProxy.ViewProvider provider = mock(ScrollingViewProxy.ViewProvider.class);
+    RecyclerViewProxy.OnTrimMemoryListener listener =
+        mock(RecyclerViewProxy.OnTrimMemoryListener.class);
+    when(provider.createView(any(ViewGroup.class))).thenReturn(mock(View.class));
+    when(mAdapter.getCount()).thenReturn(5);
+    proxy.addHeaderViewProvider(provider);
+    proxy.setAdapter(mAdapter);
+    proxy.setOnTrimMemoryListener(listener);
+
+    proxy.setMemoryTrimmingEnabled(true);
+    assertThat(recyclerView.getRecycledViewPool()).isInstanceOf(ProxyRecycledViewPool.class);
+    dumpViewHolder(recyclerView, 0);
+
+    assertThat(proxy.trimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND)).isGreaterThan(0);
+    verify(listener).onTrimMemory(eq(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND), anyInt());
+    assertThat(proxy.releaseOffscreenAuxiliaryViews(1)).isEqualTo(0);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testBindIsSkippedWhenFingerprintIsUnchanged() {
+    LinearRecyclerView recyclerView = createLinearRecyclerView();
+    RecyclerViewProxy proxy = new RecyclerViewProxy(recyclerView);
+    ScrollingViewProxy.FingerprintAdapter adapter =
+        mock(ScrollingViewProxy.FingerprintAdapter.class);
+    when(adapter.getCount()).thenReturn(1);
+    when(adapter.getItemId(0)).thenReturn(7L);
+    when(adapter.getItemFingerprint(0)).thenReturn(42L);
+    when(adapter.createView(anyInt(), any(ViewGroup.class))).thenReturn(mChildView);
+    proxy.setAdapter(adapter);
+
+    Adapter recyclerAdapter = recyclerView.getAdapter();
+    RecyclerView.ViewHolder holder = dumpViewHolder(recyclerView, 0);
+    recyclerAdapter.onBindViewHolder(holder, 0);
+    recyclerAdapter.onBindViewHolder(holder, 0);
+    verify(adapter).getView(0, holder.itemView, recyclerView);
+
+    when(adapter.getItemFingerprint(0)).thenReturn(43L);
+    recyclerAdapter.onBindViewHolder(holder, 0);
+    verify(adapter, times(2)).getView(0, holder.itemView, recyclerView);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testRecycledViewIsBoundAgain() {
+    LinearRecyclerView recyclerView = createLinearRecyclerView();
+    RecyclerViewProxy proxy = new RecyclerViewProxy(recyclerView);
+    ScrollingViewProxy.FingerprintAdapter adapter = mockSingleItemAdapter(7L, 42L);
+    when(adapter.createView(anyInt(), any(ViewGroup.class))).thenReturn(mChildView);
+    proxy.setAdapter(adapter);
+    Adapter recyclerAdapter = recyclerView.getAdapter();
+    RecyclerView.ViewHolder holder = dumpViewHolder(recyclerView, 0);
+    recyclerAdapter.onBindViewHolder(holder, 0);
+
+    // The recycler listener may have released the view's content.
+    recyclerAdapter.onViewRecycled(holder);
+    recyclerAdapter.onBindViewHolder(holder, 0);
+
+    verify(adapter, times(2)).getView(0, holder.itemView, recyclerView);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSwapAdapterRebindsKeptViews() {
+    LinearRecyclerView recyclerView = createLinearRecyclerView();
+    RecyclerViewProxy proxy = new RecyclerViewProxy(recyclerView);
+    ScrollingViewProxy.FingerprintAdapter adapter = mockSingleItemAdapter(7L, 42L);
+    ScrollingViewProxy.FingerprintAdapter newAdapter = mockSingleItemAdapter(7L, 42L);
+    when(adapter.createView(anyInt(), any(ViewGroup.class))).thenReturn(mChildView);
+    proxy.setAdapter(adapter);
+    RecyclerView.ViewHolder holder = dumpViewHolder(recyclerView, 0);
+    recyclerView.getAdapter().onBindViewHolder(holder, 0);
+
+    proxy.swapAdapter(newAdapter, false, true);
+    recyclerView.getAdapter().onBindViewHolder(holder, 0);
+
+    // The ids and fingerprints match, but were those of the previous adapter.
+    verify(newAdapter).getView(0, holder.itemView, recyclerView);
+  }
+
+  @Test
+  public void testShownRowsAreSavedIntoSnapshotOnly() {
+    LinearRecyclerView recyclerView = createLinearRecyclerView();
+    RecyclerViewProxy proxy = new RecyclerViewProxy(recyclerView);
+    when(mAdapter.getCount()).thenReturn(3);
+    when(mAdapter.hasStableIds()).thenReturn(true);
+    when(mAdapter.getItemId(anyInt())).thenAnswer(new Answer<Long>() {
+      @Override
+      public Long answer(InvocationOnMock invocation) {
+        return (long) (Integer) invocation.getArguments()[0];
+      }
+    });
+    when(mAdapter.createView(anyInt(), any(ViewGroup.class))).thenAnswer(new Answer<View>() {
+      @Override
+      public View answer(InvocationOnMock invocation) {
+        View view = new View(mActivity);
+        view.setId(1);
+        view.setLayoutParams(
+            new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 10));
+        return view;
+      }
+    });
+    proxy.setAdapter(mAdapter);
+    TransientStateStore store = new TransientStateStore(8);
+    ((LinearRecyclerViewAdapter) recyclerView.getAdapter()).setTransientStateStore(store);
+    recyclerView.measure(
+        View.MeasureSpec.makeMeasureSpec(100, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(100, View.MeasureSpec.EXACTLY));
+    recyclerView.layout(0, 0, 100, 100);
+
+    TransientStateStore snapshot = new TransientStateStore(8);
+    ((LinearRecyclerViewAdapter) recyclerView.getAdapter()).saveTransientStates(snapshot);
+
+    assertThat(snapshot.size()).isEqualTo(3);
+    assertThat(store.size()).isEqualTo(0);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testEditsAfterRebindOfRecycledRowAreSaved() {
+    LinearRecyclerView recyclerView = createLinearRecyclerView();
+    RecyclerViewProxy proxy = new RecyclerViewProxy(recyclerView);
+    ScrollingViewProxy.FingerprintAdapter adapter = mockSingleItemAdapter(7L, 42L);
+    when(adapter.hasStableIds()).thenReturn(true);
+    EditText row = createEditText("");
+    when(adapter.createView(anyInt(), any(ViewGroup.class))).thenReturn(row);
+    proxy.setAdapter(adapter);
+    LinearRecyclerViewAdapter recyclerAdapter =
+        (LinearRecyclerViewAdapter) recyclerView.getAdapter();
+    TransientStateStore store = new TransientStateStore(8);
+    recyclerAdapter.setTransientStateStore(store);
+    RecyclerView.ViewHolder holder = dumpViewHolder(recyclerView, 0);
+    recyclerAdapter.onBindViewHolder(holder, 0);
+    row.setText("first");
+    recyclerAdapter.onViewRecycled(holder);
+
+    // The same item with the same fingerprint comes back to the pooled row.
+    recyclerAdapter.onBindViewHolder(holder, 0);
+    assertThat(store.size()).isEqualTo(0);
+    row.setText("second");
+    recyclerAdapter.onViewRecycled(holder);
+
+    EditText restored = createEditText("");
+    store.restore(7L, restored);
+    assertThat(restored.getText().toString()).isEqualTo("second");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSkippedBindDropsStaleSavedState() {
+    LinearRecyclerView recyclerView = createLinearRecyclerView();
+    RecyclerViewProxy proxy = new RecyclerViewProxy(recyclerView);
+    ScrollingViewProxy.FingerprintAdapter adapter = mockSingleItemAdapter(7L, 42L);
+    when(adapter.hasStableIds()).thenReturn(true);
+    EditText row = createEditText("");
+    when(adapter.createView(anyInt(), any(ViewGroup.class))).thenReturn(row);
+    proxy.setAdapter(adapter);
+    LinearRecyclerViewAdapter recyclerAdapter =
+        (LinearRecyclerViewAdapter) recyclerView.getAdapter();
+    RecyclerView.ViewHolder holder = dumpViewHolder(recyclerView, 0);
+    recyclerAdapter.onBindViewHolder(holder, 0);
+    TransientStateStore store = new TransientStateStore(8);
+    store.save(7L, createEditText("stale"));
+    recyclerAdapter.setTransientStateStore(store);
+
+    recyclerAdapter.onBindViewHolder(holder, 0);
+    row.setText("edited");
+    recyclerAdapter.onViewRecycled(holder);
+
+    verify(adapter).getView(0, row, recyclerView);
+    EditText restored = createEditText("");
+    store.restore(7L, restored);
+    assertThat(restored.getText().toString()).isEqualTo("edited");
+  }
+
+  @Test
+  public void testPlaceholderBindWhileSettling() {
+    ScrollingViewProxy.PlaceholderAdapter adapter = mockPlaceholderAdapter(1);
+    LinearRecyclerViewAdapter recyclerAdapter = setDeferringAdapter(adapter);
+    RecyclerView.ViewHolder holder = recyclerAdapter.createViewHolder(mRecyclerView, 0);
+
+    setScrollState(RecyclerView.SCROLL_STATE_SETTLING);
+    recyclerAdapter.onBindViewHolder(holder, 0);
+
+    verify(adapter).bindPlaceholderView(0, mItem, holder.itemView, 0, mRecyclerView);
+    verify(adapter, never()).getView(anyInt(), any(View.class), any(ViewGroup.class));
+    assertThat(recyclerAdapter.hasDeferredBinds()).isTrue();
+  }
+
+  @Test
+  public void testPendingFullBindIsDroppedOnRecycle() {
+    ScrollingViewProxy.PlaceholderAdapter adapter = mockPlaceholderAdapter(1);
+    LinearRecyclerViewAdapter recyclerAdapter = setDeferringAdapter(adapter);
+    RecyclerView.ViewHolder holder = recyclerAdapter.createViewHolder(mRecyclerView, 0);
+    setScrollState(RecyclerView.SCROLL_STATE_SETTLING);
+    recyclerAdapter.onBindViewHolder(holder, 0);
+
+    recyclerAdapter.onViewRecycled(holder);
+
+    assertThat(recyclerAdapter.hasDeferredBinds()).isFalse();
+  }
+
+  @Test
+  public void testPendingFullBindIsDroppedOnDirectFullBind() {
+    ScrollingViewProxy.PlaceholderAdapter adapter = mockPlaceholderAdapter(1);
+    LinearRecyclerViewAdapter recyclerAdapter = setDeferringAdapter(adapter);
+    RecyclerView.ViewHolder holder = recyclerAdapter.createViewHolder(mRecyclerView, 0);
+    setScrollState(RecyclerView.SCROLL_STATE_SETTLING);
+    recyclerAdapter.onBindViewHolder(holder, 0);
+
+    setScrollState(RecyclerView.SCROLL_STATE_IDLE);
+    recyclerAdapter.onBindViewHolder(holder, 0);
+
+    verify(adapter).getView(0, holder.itemView, mRecyclerView);
+    assertThat(recyclerAdapter.hasDeferredBinds()).isFalse();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testDeferredBindsDrainClosestToVisibleRangeFirst() {
+    LinearRecyclerView recyclerView = createLinearRecyclerView();
+    ScrollingViewProxy.PlaceholderAdapter adapter = mockPlaceholderAdapter(20);
+    LinearRecyclerViewAdapter recyclerAdapter =
+        layOutPlaceholders(new RecyclerViewProxy(recyclerView), recyclerView, adapter);
+
+    boolean hasDeferredBinds = true;
+    while (hasDeferredBinds) {
+      hasDeferredBinds = recyclerAdapter.bindNextDeferredView(2, 2);
+    }
+
+    ArgumentCaptor<Integer> positions = ArgumentCaptor.forClass(Integer.class);
+    verify(adapter, times(5)).getView(positions.capture(), any(View.class), same(recyclerView));
+    List<Integer> order = positions.getAllValues();
+    assertThat(order.get(0)).isEqualTo(2);
+    for (int i = 1; i < order.size(); i++) {
+      assertThat(Math.abs(order.get(i) - 2)).isGreaterThanOrEqualTo(Math.abs(order.get(i - 1) - 2));
+    }
+  }
+
+  @Test
+  public void testDeferredBindsStopAtEndOfTimeSlice() {
+    LinearRecyclerView recyclerView = createLinearRecyclerView();
+    RecyclerViewProxy proxy = new RecyclerViewProxy(recyclerView);
+    ScrollingViewProxy.PlaceholderAdapter adapter = mockPlaceholderAdapter(20);
+    LinearRecyclerViewAdapter recyclerAdapter =
+        layOutPlaceholders(proxy, recyclerView, adapter);
+
+    // Views are not fully bound while binds are deferred.
+    recyclerAdapter.setDeferFullBinds(true);
+    assertThat(proxy.bindDeferredViews(TimeUnit.SECONDS.toNanos(10))).isFalse();
+    recyclerAdapter.setDeferFullBinds(false);
+    assertThat(proxy.bindDeferredViews(0)).isTrue();
+    verify(adapter, never()).getView(anyInt(), any(View.class), any(ViewGroup.class));
+
+    assertThat(proxy.bindDeferredViews(TimeUnit.SECONDS.toNanos(10))).isFalse();
+    verify(adapter, times(5)).getView(anyInt(), any(View.class), same(recyclerView));
+  }
+
   @Test
   public void testGetHeaderViewsCount() {
     mRecyclerViewProxy.addHeaderView(mFirstHeaderView);
@@ -335,6 +716,81 @@ public class RecyclerViewProxyTest {
     return adapter.onCreateViewHolder(recyclerView, itemViewType);
   }
 
+  private static ScrollingViewProxy.FingerprintAdapter mockSingleItemAdapter(
+      long itemId,
+      long fingerprint) {
+    ScrollingViewProxy.FingerprintAdapter adapter =
+        mock(ScrollingViewProxy.FingerprintAdapter.class);
+    when(adapter.getCount()).thenReturn(1);
+    when(adapter.getItemId(0)).thenReturn(itemId);
+    when(adapter.getItemFingerprint(0)).thenReturn(fingerprint);
+    return adapter;
+  }
+
+  private ScrollingViewProxy.PlaceholderAdapter mockPlaceholderAdapter(int count) {
+    ScrollingViewProxy.PlaceholderAdapter adapter =
+        mock(ScrollingViewProxy.PlaceholderAdapter.class);
+    when(adapter.getCount()).thenReturn(count);
+    when(adapter.getItem(anyInt())).thenReturn(mItem);
+    when(adapter.createView(anyInt(), any(ViewGroup.class))).thenAnswer(new Answer<View>() {
+      @Override
+      public View answer(InvocationOnMock invocation) {
+        View view = new View(mActivity);
+        view.setLayoutParams(
+            new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 10));
+        return view;
+      }
+    });
+    return adapter;
+  }
+
+  /**
+   * Sets {@code adapter} on the mocked RecyclerView, with binds deferred while flinging.
+   */
+  private LinearRecyclerViewAdapter setDeferringAdapter(
+      ScrollingViewProxy.PlaceholderAdapter adapter) {
+    mRecyclerViewProxy.setDeferBindsWhileFlinging(true);
+    mRecyclerViewProxy.setAdapter(adapter);
+    ArgumentCaptor<Adapter> recyclerAdapter = ArgumentCaptor.forClass(Adapter.class);
+    verify(mRecyclerView).setAdapter(recyclerAdapter.capture());
+    verify(mRecyclerView).addOnScrollListener(mOnScrollListenerCaptor.capture());
+    return (LinearRecyclerViewAdapter) recyclerAdapter.getValue();
+  }
+
+  private void setScrollState(int scrollState) {
+    mOnScrollListenerCaptor.getValue().onScrollStateChanged(mRecyclerView, scrollState);
+  }
+
+  /**
+   * Lays out five rows of {@code adapter} which only get a placeholder bind.
+   */
+  private static LinearRecyclerViewAdapter layOutPlaceholders(
+      RecyclerViewProxy proxy,
+      LinearRecyclerView recyclerView,
+      ScrollingViewProxy.PlaceholderAdapter adapter) {
+    proxy.setAdapter(adapter);
+    LinearRecyclerViewAdapter recyclerAdapter =
+        (LinearRecyclerViewAdapter) recyclerView.getAdapter();
+    recyclerAdapter.setDeferFullBinds(true);
+    layOut(recyclerView);
+    recyclerAdapter.setDeferFullBinds(false);
+    return recyclerAdapter;
+  }
+
+  private static void layOut(LinearRecyclerView recyclerView) {
+    recyclerView.measure(
+        View.MeasureSpec.makeMeasureSpec(100, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(50, View.MeasureSpec.EXACTLY));
+    recyclerView.layout(0, 0, 100, 50);
+  }
+
+  private EditText createEditText(String text) {
+    EditText editText = new EditText(mActivity);
+    editText.setId(1);
+    editText.setText(text);
+    return editText;
+  }
+
   private LinearRecyclerView createLinearRecyclerView() {
     LinearRecyclerView recyclerView = new LinearRecyclerView(mActivity);
     recyclerView.setLayoutManager(new LinearLayoutManager(mActivity));
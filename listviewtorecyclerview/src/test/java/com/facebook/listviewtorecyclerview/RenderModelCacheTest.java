@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link RenderModelCache}.
+ */
+public class RenderModelCacheTest {
+
+  private RenderModelCache mCache;
+
+  @Before
+  public void setup() {
+    mCache = new RenderModelCache(3);
+  }
+
+  @Test
+  public void testGetMatchesFingerprint() {
+    mCache.put(1, 10, "a");
+
+    assertThat(mCache.get(1, 10)).isEqualTo("a");
+    assertThat(mCache.get(1, 11)).isNull();
+    assertThat(mCache.get(2, 10)).isNull();
+
+    mCache.put(1, 11, "b");
+
+    assertThat(mCache.get(1, 10)).isNull();
+    assertThat(mCache.get(1, 11)).isEqualTo("b");
+    assertThat(mCache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    mCache.put(1, 0, "a");
+    mCache.put(2, 0, "b");
+    mCache.put(3, 0, "c");
+    mCache.get(1, 0);
+
+    mCache.put(4, 0, "d");
+
+    assertThat(mCache.get(2, 0)).isNull();
+    assertThat(mCache.get(1, 0)).isEqualTo("a");
+    assertThat(mCache.get(3, 0)).isEqualTo("c");
+    assertThat(mCache.get(4, 0)).isEqualTo("d");
+  }
+
+  @Test
+  public void testReservedEntriesAreNotReservedTwice() {
+    assertThat(mCache.reserve(1, 10)).isTrue();
+    assertThat(mCache.reserve(1, 10)).isFalse();
+    assertThat(mCache.get(1, 10)).isNull();
+
+    mCache.put(1, 10, "a");
+
+    assertThat(mCache.reserve(1, 10)).isFalse();
+    assertThat(mCache.get(1, 10)).isEqualTo("a");
+    assertThat(mCache.reserve(1, 11)).isTrue();
+  }
+
+  @Test
+  public void testReservationsDoNotCountTowardsSize() {
+    mCache.reserve(1, 0);
+    mCache.reserve(2, 0);
+    mCache.reserve(3, 0);
+    mCache.reserve(4, 0);
+    mCache.put(5, 0, "e");
+    mCache.put(6, 0, "f");
+    mCache.put(7, 0, "g");
+
+    assertThat(mCache.size()).isEqualTo(3);
+    assertThat(mCache.get(5, 0)).isEqualTo("e");
+    assertThat(mCache.reserve(1, 0)).isFalse();
+
+    mCache.put(1, 0, "a");
+
+    assertThat(mCache.size()).isEqualTo(3);
+    assertThat(mCache.get(1, 0)).isEqualTo("a");
+    assertThat(mCache.get(6, 0)).isNull();
+  }
+
+  @Test
+  public void testReleaseOnlyRemovesUnfilledReservation() {
+    mCache.reserve(1, 10);
+    mCache.release(1, 10);
+
+    assertThat(mCache.reserve(1, 10)).isTrue();
+
+    mCache.put(1, 10, "a");
+    mCache.release(1, 10);
+    mCache.reserve(2, 10);
+    mCache.reserve(2, 11);
+    mCache.release(2, 10);
+
+    assertThat(mCache.get(1, 10)).isEqualTo("a");
+    assertThat(mCache.reserve(2, 11)).isFalse();
+  }
+
+  @Test
+  public void testTrimToSize() {
+    mCache.put(1, 0, "a");
+    mCache.put(2, 0, "b");
+
+    mCache.trimToSize(1);
+
+    assertThat(mCache.size()).isEqualTo(1);
+    assertThat(mCache.get(2, 0)).isEqualTo("b");
+
+    mCache.clear();
+
+    assertThat(mCache.size()).isEqualTo(0);
+  }
+}
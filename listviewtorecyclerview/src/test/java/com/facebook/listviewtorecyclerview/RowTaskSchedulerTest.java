@@ -0,0 +1,157 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link RowTaskScheduler}.
+ */
+public class RowTaskSchedulerTest {
+
+  private final List<Runnable> mPumps = new ArrayList<>();
+  private final List<Integer> mRunPositions = new ArrayList<>();
+
+  private RowTaskScheduler mScheduler;
+
+  @Before
+  public void setup() {
+    mScheduler = new RowTaskScheduler(new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        mPumps.add(command);
+      }
+    });
+  }
+
+  @Test
+  public void testVisibleRowsRunFirst() {
+    mScheduler.onViewportChanged(10, 20, 0);
+    submit(30);
+    submit(15);
+    submit(5);
+
+    runAll();
+
+    assertThat(mRunPositions).containsExactly(15, 5, 30);
+  }
+
+  @Test
+  public void testReprioritizesQueuedTasksWhenViewportMoves() {
+    mScheduler.onViewportChanged(0, 10, 0);
+    submit(5);
+    submit(40);
+
+    mScheduler.onViewportChanged(35, 45, 1);
+    runAll();
+
+    assertThat(mRunPositions).containsExactly(40, 5);
+  }
+
+  @Test
+  public void testRowsAheadOfScrollDirectionWinTies() {
+    mScheduler.onViewportChanged(10, 20, -1);
+    submit(25);
+    submit(5);
+
+    runAll();
+
+    assertThat(mRunPositions).containsExactly(5, 25);
+  }
+
+  @Test
+  public void testDropsTasksOutsideWindow() {
+    mScheduler.setDropDistance(10);
+    mScheduler.onViewportChanged(0, 10, 0);
+    submit(15);
+    submit(100);
+
+    runAll();
+
+    assertThat(mRunPositions).containsExactly(15);
+  }
+
+  @Test
+  public void testDropsCancelledTasks() {
+    CancellationToken token = new CancellationToken();
+    mScheduler.onViewportChanged(0, 10, 0);
+    mScheduler.submit(1, new RecordingTask(1), token);
+    submit(2);
+
+    token.cancel();
+    runAll();
+
+    assertThat(mRunPositions).containsExactly(2);
+  }
+
+  @Test
+  public void testDroppedTasksAreNotified() {
+    final List<Integer> droppedPositions = new ArrayList<>();
+    CancellationToken token = new CancellationToken();
+    mScheduler.setDropDistance(10);
+    mScheduler.onViewportChanged(0, 10, 0);
+    for (final int position : new int[] {1, 2, 3, 100}) {
+      mScheduler.submit(
+          position,
+          new RowTaskScheduler.DroppableTask() {
+            @Override
+            public void run() {
+              mRunPositions.add(position);
+            }
+
+            @Override
+            public void onDropped() {
+              droppedPositions.add(position);
+            }
+          },
+          position == 2 ? token : null);
+    }
+
+    token.cancel();
+    mScheduler.onViewportChanged(0, 10, 0);
+    assertThat(droppedPositions).containsExactly(100, 2);
+    mPumps.get(0).run();
+    mScheduler.clear();
+
+    assertThat(mRunPositions).containsExactly(1);
+    assertThat(droppedPositions).containsExactly(100, 2, 3);
+  }
+
+  private void submit(int position) {
+    mScheduler.submit(position, new RecordingTask(position));
+  }
+
+  private void runAll() {
+    for (Runnable pump : mPumps) {
+      pump.run();
+    }
+    mPumps.clear();
+  }
+
+  private class RecordingTask implements Runnable {
+
+    private final int mPosition;
+
+    RecordingTask(int position) {
+      mPosition = position;
+    }
+
+    @Override
+    public void run() {
+      mRunPositions.add(mPosition);
+    }
+  }
+}
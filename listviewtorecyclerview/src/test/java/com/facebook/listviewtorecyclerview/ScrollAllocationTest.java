@@ -0,0 +1,255 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that steady-state scrolling through a {@link RecyclerViewProxy} stays within an
+ * allocation budget.
+ *
+ * The script drags the list with touch events, then flings it and lets the fling run frame by
+ * frame, so that the scroll goes through the same states as a user's. The same script is run
+ * through a plain {@link RecyclerView} with an equivalent adapter, and only the bytes allocated on
+ * top of it are counted against the budget, so that allocations of the framework and of
+ * Robolectric's shadows do not make the test flaky.
+ */
+@Config(manifest=Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class ScrollAllocationTest {
+
+  /**
+   * The bytes per frame that the proxy may allocate on top of a plain RecyclerView once its pool
+   * is warm. Raise this only together with the change which needs it.
+   */
+  private static final long BUDGET_BYTES_PER_FRAME = 64;
+
+  private static final int WIDTH = 480;
+  private static final int HEIGHT = 800;
+  private static final int ROW_HEIGHT = 100;
+  private static final int ITEM_COUNT = 1000;
+
+  // Sweeps down and up again, far enough to recycle every visible row several times. Each sweep
+  // drags for half of its frames, then flings until the end of the sweep.
+  private static final long FRAME_MILLIS = 16;
+  private static final int SCROLL_STEP = 17;
+  private static final int FRAMES_PER_SWEEP = 120;
+  private static final int DRAG_FRAMES = FRAMES_PER_SWEEP / 2;
+  private static final int FLING_VELOCITY = 4000;
+  private static final int WARM_UP_FRAMES = 2 * FRAMES_PER_SWEEP;
+  private static final int MEASURED_FRAMES = 4 * FRAMES_PER_SWEEP;
+
+  private static final Object[] ITEMS = new Object[ITEM_COUNT];
+
+  static {
+    for (int i = 0; i < ITEM_COUNT; i++) {
+      ITEMS[i] = "Item " + i;
+    }
+  }
+
+  /** Records which scroll states a script went through. */
+  private static class ScrollStateRecorder extends RecyclerView.OnScrollListener {
+
+    private final boolean[] mSeenStates = new boolean[3];
+
+    @Override
+    public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+      mSeenStates[newState] = true;
+    }
+
+    boolean hasSeen(int scrollState) {
+      return mSeenStates[scrollState];
+    }
+  }
+
+  private Activity mActivity;
+  private AllocationHarness mHarness;
+  private long mDownTime;
+  private float mTouchY;
+
+  @Before
+  public void setup() {
+    Assume.assumeTrue(AllocationHarness.isSupported());
+    mActivity = Robolectric.buildActivity(Activity.class).create().start().resume().visible().get();
+    mHarness = new AllocationHarness(WARM_UP_FRAMES, MEASURED_FRAMES);
+  }
+
+  @Test
+  public void testScrollingStaysWithinBudget() {
+    RecyclerView baselineView = new RecyclerView(mActivity);
+    baselineView.setLayoutManager(new LinearLayoutManager(mActivity));
+    baselineView.setAdapter(new BaselineAdapter());
+    AllocationHarness.Result baseline = runScript(baselineView);
+
+    LinearRecyclerView recyclerView = new LinearRecyclerView(mActivity);
+    recyclerView.setLayoutManager(new LinearLayoutManager(mActivity));
+    RecyclerViewProxy proxy = new RecyclerViewProxy(recyclerView);
+    proxy.setPoolStatsEnabled(true);
+    proxy.setFrameMonitor(new FrameMonitor());
+    proxy.setOnScrollListener(new ScrollingViewProxy.OnScrollListener() {
+      @Override
+      public void onScrollStateChanged(ScrollingViewProxy view, int scrollState) {
+      }
+
+      @Override
+      public void onScroll(
+          ScrollingViewProxy view,
+          int firstVisibleItem,
+          int visibleItemCount,
+          int totalItemCount) {
+      }
+    });
+    proxy.setOnItemClickListener(new ScrollingViewProxy.OnItemClickListener() {
+      @Override
+      public void onItemClick(ViewGroup parent, View view, int position, long id) {
+      }
+    });
+    proxy.setAdapter(new ProxyAdapter());
+    AllocationHarness.Result result = runScript(recyclerView);
+
+    long overhead = result.getBytesPerFrame() - baseline.getBytesPerFrame();
+    int worstFrame = result.getWorstFrame();
+    assertTrue(
+        "Scrolling allocated " + overhead + " bytes per frame over a plain RecyclerView, more "
+            + "than the budget of " + BUDGET_BYTES_PER_FRAME + ". The worst frame was "
+            + worstFrame + " with " + result.getFrameBytes(worstFrame) + " bytes.",
+        overhead <= BUDGET_BYTES_PER_FRAME);
+  }
+
+  private AllocationHarness.Result runScript(final RecyclerView recyclerView) {
+    // Flings are animated with callbacks posted to the window, so the list must be attached.
+    mActivity.setContentView(recyclerView);
+    recyclerView.measure(
+        View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+    recyclerView.layout(0, 0, WIDTH, HEIGHT);
+    ScrollStateRecorder scrollStates = new ScrollStateRecorder();
+    recyclerView.addOnScrollListener(scrollStates);
+    AllocationHarness.Result result = mHarness.run(new AllocationHarness.Frame() {
+      @Override
+      public void run(int frame) {
+        Robolectric.getForegroundThreadScheduler().advanceBy(FRAME_MILLIS);
+        int sweepFrame = frame % FRAMES_PER_SWEEP;
+        // The finger moves up to scroll down.
+        int direction = (frame / FRAMES_PER_SWEEP) % 2 == 0 ? 1 : -1;
+        if (sweepFrame == 0) {
+          mDownTime = SystemClock.uptimeMillis();
+          mTouchY = HEIGHT / 2;
+          touch(recyclerView, MotionEvent.ACTION_DOWN);
+        } else if (sweepFrame < DRAG_FRAMES) {
+          mTouchY -= direction * SCROLL_STEP;
+          touch(recyclerView, MotionEvent.ACTION_MOVE);
+        } else if (sweepFrame == DRAG_FRAMES) {
+          touch(recyclerView, MotionEvent.ACTION_UP);
+          recyclerView.fling(0, direction * FLING_VELOCITY);
+        } else if (sweepFrame == FRAMES_PER_SWEEP - 1) {
+          recyclerView.stopScroll();
+        }
+      }
+    });
+    recyclerView.removeOnScrollListener(scrollStates);
+
+    assertTrue(
+        "The script did not drag the list",
+        scrollStates.hasSeen(RecyclerView.SCROLL_STATE_DRAGGING));
+    assertTrue(
+        "The script did not fling the list",
+        scrollStates.hasSeen(RecyclerView.SCROLL_STATE_SETTLING));
+    return result;
+  }
+
+  private void touch(RecyclerView recyclerView, int action) {
+    MotionEvent event = MotionEvent.obtain(
+        mDownTime, SystemClock.uptimeMillis(), action, WIDTH / 2, mTouchY, 0);
+    recyclerView.dispatchTouchEvent(event);
+    event.recycle();
+  }
+
+  private static View createRow(ViewGroup parent) {
+    View view = new View(parent.getContext());
+    view.setLayoutParams(
+        new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+    return view;
+  }
+
+  private static void bindRow(View view, Object item) {
+    view.setTag(item);
+  }
+
+  private static class ProxyAdapter extends BaseAdapter implements ScrollingViewProxy.Adapter {
+
+    @Override
+    public int getCount() {
+      return ITEM_COUNT;
+    }
+
+    @Override
+    public Object getItem(int position) {
+      return ITEMS[position];
+    }
+
+    @Override
+    public long getItemId(int position) {
+      return position;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+      View view = convertView != null ? convertView : createView(0, parent);
+      bindView(position, getItem(position), view, 0, parent);
+      return view;
+    }
+
+    @Override
+    public View createView(int itemViewType, ViewGroup parent) {
+      return createRow(parent);
+    }
+
+    @Override
+    public void bindView(
+        int position, Object item, View view, int itemViewType, ViewGroup parent) {
+      bindRow(view, item);
+    }
+  }
+
+  private static class BaselineAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+      return new RecyclerView.ViewHolder(createRow(parent)) {};
+    }
+
+    @Override
+    public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+      bindRow(holder.itemView, ITEMS[position]);
+    }
+
+    @Override
+    public int getItemCount() {
+      return ITEM_COUNT;
+    }
+  }
+}
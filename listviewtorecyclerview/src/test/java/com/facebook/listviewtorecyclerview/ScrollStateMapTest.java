@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link ScrollStateMap}.
+ */
+public class ScrollStateMapTest {
+
+  private ScrollStateMap mMap;
+
+  @Before
+  public void setup() {
+    mMap = new ScrollStateMap(3);
+  }
+
+  @Test
+  public void testPutAndGet() {
+    mMap.put(5, 2, -30);
+    mMap.put(1, 7, 0);
+    mMap.put(5, 3, -40);
+
+    assertThat(mMap.size()).isEqualTo(2);
+    assertThat(mMap.getPosition(5)).isEqualTo(3);
+    assertThat(mMap.getOffset(5)).isEqualTo(-40);
+    assertThat(mMap.getPosition(1)).isEqualTo(7);
+    assertThat(mMap.getPosition(2)).isEqualTo(ScrollStateMap.NO_POSITION);
+    assertThat(mMap.getOffset(2)).isEqualTo(0);
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    mMap.put(1, 1, 0);
+    mMap.put(2, 2, 0);
+    mMap.put(3, 3, 0);
+    mMap.getPosition(1);
+
+    mMap.put(4, 4, 0);
+
+    assertThat(mMap.size()).isEqualTo(3);
+    assertThat(mMap.getPosition(2)).isEqualTo(ScrollStateMap.NO_POSITION);
+    assertThat(mMap.getPosition(1)).isEqualTo(1);
+    assertThat(mMap.getPosition(3)).isEqualTo(3);
+    assertThat(mMap.getPosition(4)).isEqualTo(4);
+  }
+
+  @Test
+  public void testGrowsPastInitialCapacity() {
+    ScrollStateMap map = new ScrollStateMap(100);
+    for (int i = 0; i < 100; i++) {
+      map.put(100 - i, i, -i);
+    }
+
+    assertThat(map.size()).isEqualTo(100);
+    for (int i = 0; i < 100; i++) {
+      assertThat(map.getPosition(100 - i)).isEqualTo(i);
+      assertThat(map.getOffset(100 - i)).isEqualTo(-i);
+    }
+  }
+}
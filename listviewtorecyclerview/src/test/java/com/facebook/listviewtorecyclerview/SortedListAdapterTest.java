@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.Arrays;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests {@link SortedListAdapter}.
+ */
+public class SortedListAdapterTest {
+
+  private StoryAdapter mAdapter;
+  private DataSetRangeObserver mObserver;
+
+  @Before
+  public void setup() {
+    mAdapter = new StoryAdapter();
+    mAdapter.addAll(Arrays.asList(new Story(1, 10), new Story(2, 20), new Story(3, 30)));
+    mObserver = mock(DataSetRangeObserver.class);
+    mAdapter.registerDataSetObserver(mObserver);
+  }
+
+  @Test
+  public void testAddInsertsInOrder() {
+    mAdapter.add(new Story(4, 25));
+
+    assertThat(mAdapter.getItemId(2)).isEqualTo(4);
+    verify(mObserver).onItemRangeInserted(2, 1);
+  }
+
+  @Test
+  public void testAddAllMergesBatchIntoRanges() {
+    mAdapter.addAll(Arrays.asList(
+        new Story(7, 35), new Story(4, 5), new Story(5, 15), new Story(6, 16)));
+
+    assertThat(mAdapter.getCount()).isEqualTo(7);
+    assertThat(idsInOrder()).containsExactly(4L, 1L, 5L, 6L, 2L, 3L, 7L);
+    InOrder inOrder = inOrder(mObserver);
+    inOrder.verify(mObserver).onItemRangeInserted(0, 1);
+    inOrder.verify(mObserver).onItemRangeInserted(2, 2);
+    inOrder.verify(mObserver).onItemRangeInserted(6, 1);
+    verify(mObserver, never()).onChanged();
+  }
+
+  @Test
+  public void testExistingIdIsReplacedInPlace() {
+    Story updated = new Story(2, 20);
+    mAdapter.addAll(Arrays.asList(updated));
+
+    assertThat(mAdapter.getCount()).isEqualTo(3);
+    assertThat(mAdapter.getItem(1)).isSameAs(updated);
+    verify(mObserver).onItemRangeChanged(1, 1);
+  }
+
+  @Test
+  public void testExistingIdIsMovedWhenItsOrderChanges() {
+    mAdapter.add(new Story(1, 40));
+
+    assertThat(idsInOrder()).containsExactly(2L, 3L, 1L);
+    verify(mObserver).onItemRangeMoved(0, 2, 1);
+  }
+
+  @Test
+  public void testDuplicatesInBatchKeepLatest() {
+    Story latest = new Story(4, 12);
+    mAdapter.addAll(Arrays.asList(new Story(4, 11), latest));
+
+    assertThat(mAdapter.getCount()).isEqualTo(4);
+    assertThat(mAdapter.getItem(1)).isSameAs(latest);
+  }
+
+  @Test
+  public void testDuplicatesInBatchKeepLatestWhenItSortsFirst() {
+    Story latest = new Story(4, 11);
+    mAdapter.addAll(Arrays.asList(new Story(4, 12), latest));
+
+    assertThat(mAdapter.getCount()).isEqualTo(4);
+    assertThat(mAdapter.getItem(1)).isSameAs(latest);
+  }
+
+  @Test
+  public void testDuplicatesOfExistingIdKeepLatest() {
+    Story latest = new Story(2, 5);
+    mAdapter.addAll(Arrays.asList(new Story(2, 40), latest));
+
+    assertThat(idsInOrder()).containsExactly(2L, 1L, 3L);
+    assertThat(mAdapter.getItem(0)).isSameAs(latest);
+  }
+
+  @Test
+  public void testRemove() {
+    assertThat(mAdapter.remove(new Story(2, 0))).isTrue();
+
+    assertThat(idsInOrder()).containsExactly(1L, 3L);
+    verify(mObserver).onItemRangeRemoved(1, 1);
+  }
+
+  private Long[] idsInOrder() {
+    Long[] ids = new Long[mAdapter.getCount()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = mAdapter.getItemId(i);
+    }
+    return ids;
+  }
+
+  private static class Story {
+
+    final long mId;
+    final long mTime;
+
+    Story(long id, long time) {
+      mId = id;
+      mTime = time;
+    }
+  }
+
+  private static class StoryAdapter extends SortedListAdapter<Story> {
+
+    @Override
+    protected int compare(Story lhs, Story rhs) {
+      return lhs.mTime < rhs.mTime ? -1 : (lhs.mTime == rhs.mTime ? 0 : 1);
+    }
+
+    @Override
+    protected long getStableId(Story item) {
+      return item.mId;
+    }
+
+    @Override
+    public View createView(int itemViewType, ViewGroup parent) {
+      return null;
+    }
+
+    @Override
+    public void bindView(
+        int position, Object item, View view, int itemViewType, ViewGroup parent) {
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.app.Activity;
+import android.database.DataSetObserver;
+import android.graphics.Canvas;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.facebook.listviewtorecyclerview.ScrollingViewProxy.SectionedAdapter;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link StickySectionHeaderDecoration}.
+ */
+@Config(manifest=Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class StickySectionHeaderDecorationTest {
+
+  private static final int ROW_HEIGHT = 30;
+  private static final int HEADER_HEIGHT = 20;
+  private static final int ROWS_PER_SECTION = 3;
+
+  @Mock public SectionedAdapter mAdapter;
+  @Mock public RecyclerView mParent;
+  @Mock public Canvas mCanvas;
+
+  private Activity mActivity;
+  private View mHeader;
+  private StickySectionHeaderDecoration mDecoration;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    mActivity = Robolectric.buildActivity(Activity.class).create().get();
+    mHeader = new View(mActivity);
+    mHeader.setMinimumHeight(HEADER_HEIGHT);
+
+    when(mAdapter.getCount()).thenReturn(10);
+    for (int i = 0; i < 10; i++) {
+      when(mAdapter.getSectionForPosition(i)).thenReturn(i / ROWS_PER_SECTION);
+    }
+    when(mAdapter.getSectionHeaderViewType(anyInt())).thenReturn(0);
+    when(mAdapter.createSectionHeaderView(eq(0), any(ViewGroup.class))).thenReturn(mHeader);
+
+    LinearRecyclerView recyclerView = new LinearRecyclerView(mActivity);
+    recyclerView.setLayoutManager(new LinearLayoutManager(mActivity));
+    when(mParent.getAdapter()).thenReturn(new LinearRecyclerViewAdapter(recyclerView, mAdapter));
+
+    mDecoration = new StickySectionHeaderDecoration();
+    mDecoration.setAdapter(mAdapter);
+  }
+
+  @Test
+  public void testHeaderIsBoundOnlyWhenPinnedSectionChanges() {
+    showRows(0, 0);
+    mDecoration.onDrawOver(mCanvas, mParent, null);
+    showRows(1, -10);
+    mDecoration.onDrawOver(mCanvas, mParent, null);
+
+    verify(mAdapter).createSectionHeaderView(eq(0), any(ViewGroup.class));
+    verify(mAdapter, times(1)).bindSectionHeaderView(0, mHeader);
+
+    showRows(ROWS_PER_SECTION, 0);
+    mDecoration.onDrawOver(mCanvas, mParent, null);
+
+    verify(mAdapter).bindSectionHeaderView(1, mHeader);
+    verify(mAdapter).createSectionHeaderView(eq(0), any(ViewGroup.class));
+  }
+
+  @Test
+  public void testDataChangeRebindsHeader() {
+    ArgumentCaptor<DataSetObserver> observer = ArgumentCaptor.forClass(DataSetObserver.class);
+    verify(mAdapter).registerDataSetObserver(observer.capture());
+    showRows(0, 0);
+    mDecoration.onDrawOver(mCanvas, mParent, null);
+
+    observer.getValue().onChanged();
+    mDecoration.onDrawOver(mCanvas, mParent, null);
+
+    verify(mAdapter, times(2)).bindSectionHeaderView(0, mHeader);
+  }
+
+  @Test
+  public void testNextSectionPushesHeaderUp() {
+    // The last row of section 0 is at the top, the first row of section 1 is 10px below it.
+    showRows(ROWS_PER_SECTION - 1, -20);
+    mDecoration.onDrawOver(mCanvas, mParent, null);
+
+    verify(mAdapter).bindSectionHeaderView(0, mHeader);
+    verify(mCanvas).translate(0, 10 - HEADER_HEIGHT);
+  }
+
+  @Test
+  public void testHeaderIsPinnedAtTopWithinSection() {
+    showRows(0, -10);
+    mDecoration.onDrawOver(mCanvas, mParent, null);
+
+    verify(mCanvas).translate(0, 0);
+  }
+
+  /**
+   * Lays out four rows starting with {@code firstPosition}, the first one at {@code firstTop}.
+   */
+  private void showRows(int firstPosition, int firstTop) {
+    when(mParent.getChildCount()).thenReturn(4);
+    for (int i = 0; i < 4; i++) {
+      View child = new View(mActivity);
+      int top = firstTop + i * ROW_HEIGHT;
+      child.layout(0, top, 100, top + ROW_HEIGHT);
+      when(mParent.getChildAt(i)).thenReturn(child);
+      when(mParent.getChildAdapterPosition(child)).thenReturn(firstPosition + i);
+    }
+  }
+}
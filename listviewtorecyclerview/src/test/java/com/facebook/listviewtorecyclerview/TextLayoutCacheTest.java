@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.app.Activity;
+import android.content.res.Configuration;
+import android.text.Layout;
+import android.text.TextPaint;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link TextLayoutCache}.
+ */
+@Config(manifest=Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class TextLayoutCacheTest {
+
+  private static final int WIDTH = 1000;
+
+  private final List<Runnable> mPrefetches = new ArrayList<>();
+  private final Executor mExecutor = new Executor() {
+    @Override
+    public void execute(Runnable command) {
+      mPrefetches.add(command);
+    }
+  };
+
+  private Activity mActivity;
+  private TextLayoutCache.TextStyle mStyle;
+  private TextLayoutCache mCache;
+
+  @Before
+  public void setup() {
+    mActivity = Robolectric.buildActivity(Activity.class).create().start().resume().visible().get();
+    mStyle = new TextLayoutCache.TextStyle(new TextPaint());
+    mCache = new TextLayoutCache(TextLayoutCache.DEFAULT_MAX_BYTES, mExecutor);
+  }
+
+  @Test
+  public void testHitReturnsCachedLayout() {
+    Layout layout = mCache.get("a", mStyle, WIDTH);
+
+    assertThat(mCache.get("a", mStyle, WIDTH)).isSameAs(layout);
+    assertThat(mCache.get("a", mStyle, WIDTH + 1)).isNotSameAs(layout);
+    assertThat(mCache.get("a", new TextLayoutCache.TextStyle(new TextPaint()), WIDTH))
+        .isNotSameAs(layout);
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsedOverByteBudget() {
+    mCache.get("aa", mStyle, WIDTH);
+    int entryBytes = mCache.getSizeBytes();
+    TextLayoutCache cache = new TextLayoutCache(entryBytes * 2, mExecutor);
+    Layout first = cache.get("aa", mStyle, WIDTH);
+    Layout second = cache.get("bb", mStyle, WIDTH);
+    cache.get("aa", mStyle, WIDTH);
+
+    cache.get("cc", mStyle, WIDTH);
+
+    assertThat(cache.getSizeBytes()).isEqualTo(entryBytes * 2);
+    assertThat(cache.get("aa", mStyle, WIDTH)).isSameAs(first);
+    assertThat(cache.get("bb", mStyle, WIDTH)).isNotSameAs(second);
+  }
+
+  @Test
+  public void testPrefetchedLayoutIsCached() {
+    mCache.prefetch("a", mStyle, WIDTH);
+    mCache.prefetch("a", mStyle, WIDTH);
+
+    assertThat(mPrefetches).hasSize(1);
+    mPrefetches.get(0).run();
+
+    Layout layout = mCache.get("a", mStyle, WIDTH);
+    assertThat(mCache.get("a", mStyle, WIDTH)).isSameAs(layout);
+    assertThat(mCache.getSizeBytes()).isGreaterThan(0);
+  }
+
+  @Test
+  public void testPrefetchIsDroppedAfterClear() {
+    mCache.prefetch("a", mStyle, WIDTH);
+
+    mCache.clear();
+    mPrefetches.get(0).run();
+
+    assertThat(mCache.getSizeBytes()).isEqualTo(0);
+    mCache.prefetch("a", mStyle, WIDTH);
+    assertThat(mPrefetches).hasSize(2);
+  }
+
+  @Test
+  public void testClearsWhenListWidthChanges() {
+    View list = attachList();
+    list.layout(0, 0, WIDTH, 100);
+    mCache.get("a", mStyle, WIDTH);
+
+    list.layout(0, 0, WIDTH / 2, 100);
+
+    assertThat(mCache.getWidth()).isEqualTo(WIDTH / 2);
+    assertThat(mCache.getSizeBytes()).isEqualTo(0);
+  }
+
+  @Test
+  public void testClearsWhenConfigurationChanges() {
+    attachList();
+    mCache.get("a", mStyle, WIDTH);
+
+    mActivity.getApplication().onConfigurationChanged(new Configuration());
+
+    assertThat(mCache.getSizeBytes()).isEqualTo(0);
+  }
+
+  @Test
+  public void testDetachedCacheIsNotCleared() {
+    View list = attachList();
+    mCache.detach(list);
+    mCache.get("a", mStyle, WIDTH);
+
+    list.layout(0, 0, WIDTH / 2, 100);
+    mActivity.getApplication().onConfigurationChanged(new Configuration());
+
+    assertThat(mCache.getSizeBytes()).isGreaterThan(0);
+  }
+
+  private View attachList() {
+    FrameLayout list = new FrameLayout(mActivity);
+    mActivity.setContentView(list);
+    mCache.attach(list);
+    return list;
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.app.Activity;
+import android.text.Layout;
+import android.text.TextPaint;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link TextLayoutView}.
+ */
+@Config(manifest=Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class TextLayoutViewTest {
+
+  private static final int LAYOUT_WIDTH = 200;
+
+  private TextLayoutView mView;
+  private Layout mLayout;
+
+  @Before
+  public void setup() {
+    Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+    mView = new TextLayoutView(activity);
+    mView.setPadding(1, 2, 3, 4);
+    mLayout = new TextLayoutCache(TextLayoutCache.DEFAULT_MAX_BYTES)
+        .get("Some text", new TextLayoutCache.TextStyle(new TextPaint()), LAYOUT_WIDTH);
+  }
+
+  @Test
+  public void testMeasuresLayoutPlusPadding() {
+    mView.setLayout(mLayout);
+
+    measure(View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+
+    assertThat(mView.getMeasuredWidth()).isEqualTo(LAYOUT_WIDTH + 4);
+    assertThat(mView.getMeasuredHeight()).isEqualTo(mLayout.getHeight() + 6);
+  }
+
+  @Test
+  public void testExactWidthWins() {
+    mView.setLayout(mLayout);
+
+    measure(View.MeasureSpec.makeMeasureSpec(500, View.MeasureSpec.EXACTLY));
+
+    assertThat(mView.getMeasuredWidth()).isEqualTo(500);
+    assertThat(mView.getMeasuredHeight()).isEqualTo(mLayout.getHeight() + 6);
+  }
+
+  @Test
+  public void testMeasuresPaddingWithoutLayout() {
+    measure(View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+
+    assertThat(mView.getMeasuredWidth()).isEqualTo(4);
+    assertThat(mView.getMeasuredHeight()).isEqualTo(6);
+  }
+
+  @Test
+  public void testSetLayoutSetsContentDescription() {
+    mView.setLayout(mLayout);
+
+    assertThat(mView.getContentDescription()).isEqualTo("Some text");
+  }
+
+  private void measure(int widthMeasureSpec) {
+    mView.measure(
+        widthMeasureSpec,
+        View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.app.Activity;
+import android.os.Parcel;
+import android.widget.EditText;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link TransientStateStore}.
+ */
+@Config(manifest=Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class TransientStateStoreTest {
+
+  private Activity mActivity;
+  private TransientStateStore mStore;
+
+  @Before
+  public void setup() {
+    mActivity = Robolectric.buildActivity(Activity.class).create().get();
+    mStore = new TransientStateStore(2);
+  }
+
+  @Test
+  public void testRestoresStateOnce() {
+    mStore.save(1, createEditText("typed"));
+
+    EditText row = createEditText("");
+    mStore.restore(2, row);
+    assertThat(row.getText().toString()).isEmpty();
+
+    mStore.restore(1, row);
+    assertThat(row.getText().toString()).isEqualTo("typed");
+    assertThat(mStore.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testDropsOldestStates() {
+    mStore.save(1, createEditText("a"));
+    mStore.save(2, createEditText("b"));
+    mStore.save(1, createEditText("c"));
+    mStore.save(3, createEditText("d"));
+
+    assertThat(mStore.size()).isEqualTo(2);
+    EditText row = createEditText("");
+    mStore.restore(2, row);
+    assertThat(row.getText().toString()).isEmpty();
+    mStore.restore(1, row);
+    assertThat(row.getText().toString()).isEqualTo("c");
+  }
+
+  @Test
+  public void testViewsWithoutIdsAreNotKept() {
+    EditText row = new EditText(mActivity);
+    row.setText("typed");
+
+    mStore.save(1, row);
+
+    assertThat(mStore.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testParcel() {
+    mStore.save(1, createEditText("typed"));
+    Parcel parcel = Parcel.obtain();
+    mStore.writeToParcel(parcel);
+    parcel.setDataPosition(0);
+
+    TransientStateStore store =
+        TransientStateStore.createFromParcel(parcel, getClass().getClassLoader());
+    parcel.recycle();
+
+    assertThat(store.getMaxSize()).isEqualTo(2);
+    EditText row = createEditText("");
+    store.restore(1, row);
+    assertThat(row.getText().toString()).isEqualTo("typed");
+  }
+
+  private EditText createEditText(String text) {
+    EditText editText = new EditText(mActivity);
+    editText.setId(android.R.id.text1);
+    editText.setText(text);
+    return editText;
+  }
+}
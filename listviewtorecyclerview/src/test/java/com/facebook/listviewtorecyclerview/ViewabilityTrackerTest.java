@@ -0,0 +1,317 @@
+/*
+ * Copyright 2016-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.listviewtorecyclerview;
+
+import android.app.Activity;
+import android.database.DataSetObserver;
+import android.support.v7.widget.LinearLayoutManager;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.FrameLayout;
+import android.widget.ListView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link ViewabilityTracker}.
+ */
+@Config(manifest=Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class ViewabilityTrackerTest {
+
+  private static final int WIDTH = 100;
+  private static final int ROW_HEIGHT = 10;
+  private static final int HEIGHT = ROW_HEIGHT * 5;
+  private static final long FIRST_ID = 1000;
+
+  private static class TestAdapter extends ScrollingViewProxy.BaseAdapter {
+
+    private final int mCount;
+
+    TestAdapter(int count) {
+      mCount = count;
+    }
+
+    @Override
+    public View createView(int itemViewType, ViewGroup parent) {
+      return createRow(parent);
+    }
+
+    @Override
+    public void bindView(
+        int position, Object item, View view, int itemViewType, ViewGroup parent) {
+    }
+
+    @Override
+    public boolean areAllItemsEnabled() {
+      return true;
+    }
+
+    @Override
+    public boolean isEnabled(int position) {
+      return true;
+    }
+
+    @Override
+    public void registerDataSetObserver(DataSetObserver observer) {
+    }
+
+    @Override
+    public void unregisterDataSetObserver(DataSetObserver observer) {
+    }
+
+    @Override
+    public int getCount() {
+      return mCount;
+    }
+
+    @Override
+    public Object getItem(int position) {
+      return position;
+    }
+
+    @Override
+    public long getItemId(int position) {
+      return FIRST_ID + position;
+    }
+
+    @Override
+    public boolean hasStableIds() {
+      return true;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+      return 0;
+    }
+
+    @Override
+    public int getViewTypeCount() {
+      return 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return mCount == 0;
+    }
+  }
+
+  /** Copies the reported ids, which are only valid during the call. */
+  private static class RecordingListener implements ViewabilityTracker.Listener {
+
+    final List<long[]> mBatches = new ArrayList<>();
+
+    @Override
+    public void onImpressions(long[] itemIds, int count) {
+      long[] batch = Arrays.copyOf(itemIds, count);
+      Arrays.sort(batch);
+      mBatches.add(batch);
+    }
+  }
+
+  private Activity mActivity;
+  private FrameLayout mContainer;
+  private RecordingListener mListener;
+
+  @Before
+  public void setup() {
+    mActivity = Robolectric.buildActivity(Activity.class).create().start().resume().visible().get();
+    mContainer = new FrameLayout(mActivity);
+    mActivity.setContentView(mContainer);
+    mListener = new RecordingListener();
+  }
+
+  @Test
+  public void testReportsOnlyRowsVisibleEnough() {
+    ScrollingViewProxy proxy = createRecyclerViewProxy(100, false);
+    // Item 0 shows 4 of its 10 pixels at the top, item 5 shows 6 at the bottom.
+    proxy.setSelectionFromTop(0, -6);
+    layout(proxy);
+    startTracker(proxy, 0);
+
+    draw(proxy);
+
+    assertThat(mListener.mBatches).hasSize(1);
+    assertThat(mListener.mBatches.get(0)).isEqualTo(ids(1, 2, 3, 4, 5));
+  }
+
+  @Test
+  public void testHigherThresholdExcludesPartiallyVisibleRows() {
+    ScrollingViewProxy proxy = createRecyclerViewProxy(100, false);
+    proxy.setSelectionFromTop(0, -6);
+    layout(proxy);
+    ViewabilityTracker tracker = proxy.createViewabilityTracker(mListener);
+    tracker.setMinVisibleFraction(1f);
+    tracker.setMinDwellMillis(0);
+    tracker.start();
+
+    draw(proxy);
+
+    assertThat(mListener.mBatches).hasSize(1);
+    assertThat(mListener.mBatches.get(0)).isEqualTo(ids(1, 2, 3, 4));
+  }
+
+  @Test
+  public void testDwellDeadlineIsCheckedWhileListIsAtRest() {
+    ScrollingViewProxy proxy = createRecyclerViewProxy(100, false);
+    startTracker(proxy, 1000);
+
+    draw(proxy);
+    Robolectric.getForegroundThreadScheduler().advanceBy(999);
+    assertThat(mListener.mBatches).isEmpty();
+
+    // No frame is drawn, the delayed check reports the items.
+    Robolectric.getForegroundThreadScheduler().advanceBy(1);
+
+    assertThat(mListener.mBatches).hasSize(1);
+    assertThat(mListener.mBatches.get(0)).isEqualTo(ids(0, 1, 2, 3, 4));
+  }
+
+  @Test
+  public void testItemLeavingBeforeDeadlineIsNotReported() {
+    ScrollingViewProxy proxy = createRecyclerViewProxy(100, false);
+    startTracker(proxy, 1000);
+    draw(proxy);
+    Robolectric.getForegroundThreadScheduler().advanceBy(500);
+
+    proxy.setSelectionFromTop(1, 0);
+    layout(proxy);
+    draw(proxy);
+    Robolectric.getForegroundThreadScheduler().advanceBy(500);
+
+    // Item 5 only came into view 500ms ago.
+    assertThat(mListener.mBatches).hasSize(1);
+    assertThat(mListener.mBatches.get(0)).isEqualTo(ids(1, 2, 3, 4));
+  }
+
+  @Test
+  public void testImpressionsOfAFrameAreBatched() {
+    ScrollingViewProxy proxy = createRecyclerViewProxy(100, false);
+    startTracker(proxy, 0);
+
+    draw(proxy);
+    draw(proxy);
+
+    assertThat(mListener.mBatches).hasSize(1);
+    assertThat(mListener.mBatches.get(0)).isEqualTo(ids(0, 1, 2, 3, 4));
+  }
+
+  @Test
+  public void testItemIsReportedAgainAfterLeavingViewport() {
+    ScrollingViewProxy proxy = createRecyclerViewProxy(100, false);
+    startTracker(proxy, 0);
+    draw(proxy);
+
+    proxy.setSelectionFromTop(50, 0);
+    layout(proxy);
+    draw(proxy);
+    proxy.setSelectionFromTop(0, 0);
+    layout(proxy);
+    draw(proxy);
+
+    assertThat(mListener.mBatches).hasSize(3);
+    assertThat(mListener.mBatches.get(1)).isEqualTo(ids(50, 51, 52, 53, 54));
+    assertThat(mListener.mBatches.get(2)).isEqualTo(ids(0, 1, 2, 3, 4));
+  }
+
+  @Test
+  public void testRecyclerViewHeadersAndFootersAreNotReported() {
+    ScrollingViewProxy proxy = createRecyclerViewProxy(3, true);
+    startTracker(proxy, 0);
+
+    draw(proxy);
+
+    assertThat(proxy.getChildCount()).isEqualTo(5);
+    assertThat(mListener.mBatches).hasSize(1);
+    assertThat(mListener.mBatches.get(0)).isEqualTo(ids(0, 1, 2));
+  }
+
+  @Test
+  public void testListViewHeadersAndFootersAreNotReported() {
+    ListView listView = new ListView(mActivity);
+    ScrollingViewProxy proxy = new ListViewProxy(listView);
+    addHeaderAndFooter(proxy);
+    proxy.setAdapter(new TestAdapter(3));
+    attach(proxy);
+    startTracker(proxy, 0);
+
+    draw(proxy);
+
+    assertThat(proxy.getChildCount()).isEqualTo(5);
+    assertThat(mListener.mBatches).hasSize(1);
+    assertThat(mListener.mBatches.get(0)).isEqualTo(ids(0, 1, 2));
+  }
+
+  private ScrollingViewProxy createRecyclerViewProxy(int itemCount, boolean headerAndFooter) {
+    LinearRecyclerView recyclerView = new LinearRecyclerView(mActivity);
+    recyclerView.setLayoutManager(new LinearLayoutManager(mActivity));
+    ScrollingViewProxy proxy = new RecyclerViewProxy(recyclerView);
+    if (headerAndFooter) {
+      addHeaderAndFooter(proxy);
+    }
+    proxy.setAdapter(new TestAdapter(itemCount));
+    attach(proxy);
+    return proxy;
+  }
+
+  private void startTracker(ScrollingViewProxy proxy, long minDwellMillis) {
+    ViewabilityTracker tracker = proxy.createViewabilityTracker(mListener);
+    tracker.setMinDwellMillis(minDwellMillis);
+    tracker.start();
+  }
+
+  private void addHeaderAndFooter(ScrollingViewProxy proxy) {
+    proxy.addHeaderView(createRow(mContainer));
+    proxy.addFooterView(createRow(mContainer), null, false);
+  }
+
+  private void attach(ScrollingViewProxy proxy) {
+    mContainer.addView(proxy.getView(), new FrameLayout.LayoutParams(WIDTH, HEIGHT));
+    layout(proxy);
+  }
+
+  private static void layout(ScrollingViewProxy proxy) {
+    View view = proxy.getView();
+    view.measure(
+        View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+    view.layout(0, 0, WIDTH, HEIGHT);
+  }
+
+  private static void draw(ScrollingViewProxy proxy) {
+    proxy.getView().getViewTreeObserver().dispatchOnPreDraw();
+  }
+
+  private static View createRow(ViewGroup parent) {
+    View view = new View(parent.getContext());
+    view.setLayoutParams(
+        new AbsListView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+    return view;
+  }
+
+  private static long[] ids(int... positions) {
+    long[] ids = new long[positions.length];
+    for (int i = 0; i < positions.length; i++) {
+      ids[i] = FIRST_ID + positions[i];
+    }
+    return ids;
+  }
+}